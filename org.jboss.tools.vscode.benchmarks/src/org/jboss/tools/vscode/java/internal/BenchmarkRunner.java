@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this bundle inside the test OSGi framework, and
+ * writes their results, as JSON, to the file set by the <code>jmh.result</code>
+ * system property.
+ * <p>
+ * Benchmarks can not be forked in a fresh JVM since they need the running
+ * workspace and Java model, so JMH runs them in the current JVM.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+	@Test
+	public void runBenchmarks() throws Exception {
+		Options options = new OptionsBuilder()
+				.include(System.getProperty("jmh.include", ".*"))
+				.forks(0)
+				.warmupIterations(Integer.getInteger("jmh.warmupIterations", 5).intValue())
+				.measurementIterations(Integer.getInteger("jmh.iterations", 10).intValue())
+				.resultFormat(ResultFormatType.JSON)
+				.result(System.getProperty("jmh.result", "target/jmh-result.json"))
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+		assertFalse("No benchmark was run", results.isEmpty());
+	}
+}
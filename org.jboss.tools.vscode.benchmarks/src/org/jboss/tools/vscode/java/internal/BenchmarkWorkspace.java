@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Imports the test fixture projects, from
+ * <code>org.jboss.tools.vscode.tests/projects</code>, for the benchmarks.
+ */
+public final class BenchmarkWorkspace {
+
+	private BenchmarkWorkspace() {
+		//No instances allowed
+	}
+
+	/**
+	 * Copies the given fixture to the working directory and imports it in the
+	 * workspace, waiting for the build to complete.
+	 *
+	 * @param path the fixture path, relative to the projects directory, i.e. <code>maven/salut</code>
+	 * @return the imported project
+	 */
+	public static IProject importProject(String path) throws IOException, CoreException, InterruptedException {
+		File from = new File(getSourceProjectDirectory(), path);
+		File to = new File(getWorkingProjectDirectory(), path);
+		if (to.exists()) {
+			FileUtils.forceDelete(to);
+		}
+		FileUtils.copyDirectory(from, to);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		JavaLanguageServerPlugin.getProjectsManager().initializeProjects(to.getAbsolutePath(), monitor);
+		ResourcesPlugin.getWorkspace().build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, monitor);
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(to.getName());
+		if (!project.exists()) {
+			throw new IllegalStateException(path + " was not imported");
+		}
+		return project;
+	}
+
+	/**
+	 * @return the compilation unit at the given project relative path
+	 */
+	public static ICompilationUnit getCompilationUnit(IProject project, String path) {
+		return JavaCore.createCompilationUnitFrom(project.getFile(path));
+	}
+
+	/**
+	 * Deletes all the projects of the workspace, and the working directory.
+	 */
+	public static void cleanUp() throws CoreException, IOException {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			project.delete(true, monitor);
+		}
+		FileUtils.forceDelete(getWorkingProjectDirectory());
+	}
+
+	private static File getSourceProjectDirectory() {
+		return new File("../org.jboss.tools.vscode.tests/projects");
+	}
+
+	private static File getWorkingProjectDirectory() throws IOException {
+		File dir = new File("target", "workingProjects");
+		FileUtils.forceMkdir(dir);
+		return dir;
+	}
+}
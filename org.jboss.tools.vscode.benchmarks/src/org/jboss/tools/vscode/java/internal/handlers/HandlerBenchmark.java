@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.handlers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentFormattingParams;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.FormattingOptions;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.jboss.tools.vscode.java.internal.BenchmarkWorkspace;
+import org.jboss.tools.vscode.java.internal.HoverInfoProvider;
+import org.jboss.tools.vscode.java.internal.JDTUtils;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the request handlers on the <code>Foo.java</code> working copy of
+ * the eclipse and maven fixture projects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandlerBenchmark {
+
+	@Param({ "eclipse/hello", "maven/salut" })
+	public String fixture;
+
+	private ICompilationUnit unit;
+	private String uri;
+	private int version;
+	private int[] completionPosition;
+	private int[] hoverPosition;
+	private DocumentLifeCycleHandler lifeCycleHandler;
+	private Preferences preferences;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		// reconcile right after each change, didChange waits for it
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferenceManager();
+		preferences = preferenceManager.getPreferences();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.reconcile.delay", 0)));
+		IProject project = BenchmarkWorkspace.importProject(fixture);
+		unit = BenchmarkWorkspace.getCompilationUnit(project, getSourcePath());
+		uri = JDTUtils.getFileURI(unit);
+		lifeCycleHandler = new DocumentLifeCycleHandler(null, new PreferenceManager());
+		String contents = unit.getSource();
+
+		TextDocumentItem item = new TextDocumentItem();
+		item.setUri(uri);
+		item.setLanguageId("java");
+		item.setVersion(version);
+		item.setText(contents);
+		DidOpenTextDocumentParams params = new DidOpenTextDocumentParams();
+		params.setTextDocument(item);
+		lifeCycleHandler.didOpen(params);
+
+		// completion after "System.out.", hover on "System"
+		int offset = contents.indexOf("System.out.");
+		hoverPosition = JsonRpcHelpers.toLine(unit.getBuffer(), offset + 1);
+		completionPosition = JsonRpcHelpers.toLine(unit.getBuffer(), offset + "System.out.".length());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		DidCloseTextDocumentParams params = new DidCloseTextDocumentParams();
+		params.setTextDocument(newIdentifier());
+		lifeCycleHandler.didClose(params);
+		JavaLanguageServerPlugin.getPreferenceManager().update(preferences);
+		BenchmarkWorkspace.cleanUp();
+	}
+
+	@Benchmark
+	public CompletionList completion() {
+		TextDocumentPositionParams params = new TextDocumentPositionParams();
+		params.setTextDocument(newIdentifier());
+		params.setPosition(new Position(completionPosition[0], completionPosition[1]));
+		return new CompletionHandler().completion(params, new NullProgressMonitor());
+	}
+
+	@Benchmark
+	public String hover() {
+		return new HoverInfoProvider(unit).computeHover(hoverPosition[0], hoverPosition[1]);
+	}
+
+	@Benchmark
+	public List<? extends SymbolInformation> documentSymbol() {
+		DocumentSymbolParams params = new DocumentSymbolParams();
+		params.setTextDocument(newIdentifier());
+		return new DocumentSymbolHandler().documentSymbol(params);
+	}
+
+	@Benchmark
+	public List<? extends TextEdit> formatting() {
+		FormattingOptions options = new FormattingOptions();
+		options.setTabSize(4);
+		options.setInsertSpaces(false);
+		DocumentFormattingParams params = new DocumentFormattingParams();
+		params.setTextDocument(newIdentifier());
+		params.setOptions(options);
+		return new FormatterHandler().formatting(params);
+	}
+
+	/**
+	 * Types, then deletes, a character in the middle of the document, so that
+	 * its contents are left unchanged, and waits for the reconcile. It would
+	 * otherwise run during the next benchmarks.
+	 */
+	@Benchmark
+	public void didChange() throws InterruptedException {
+		VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier();
+		identifier.setUri(uri);
+		identifier.setVersion(++version);
+		DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+		params.setTextDocument(identifier);
+		params.setContentChanges(Arrays.asList(
+				newChange(completionPosition, 0, "a"),
+				newChange(completionPosition, 1, "")));
+		lifeCycleHandler.didChange(params);
+		Job.getJobManager().join(ReconcileScheduler.class, null);
+	}
+
+	@Benchmark
+	public int toOffset() throws Exception {
+		return JsonRpcHelpers.toOffset(unit.getBuffer(), completionPosition[0], completionPosition[1]);
+	}
+
+	@Benchmark
+	public int[] toLine() throws Exception {
+		return JsonRpcHelpers.toLine(unit.getBuffer(), unit.getBuffer().getLength() / 2);
+	}
+
+	private TextDocumentIdentifier newIdentifier() {
+		TextDocumentIdentifier identifier = new TextDocumentIdentifier();
+		identifier.setUri(uri);
+		return identifier;
+	}
+
+	private static TextDocumentContentChangeEvent newChange(int[] position, int length, String text) {
+		Range range = new Range();
+		range.setStart(new Position(position[0], position[1]));
+		range.setEnd(new Position(position[0], position[1] + length));
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+		change.setRange(range);
+		change.setRangeLength(length);
+		change.setText(text);
+		return change;
+	}
+
+	private String getSourcePath() {
+		return fixture.startsWith("maven/") ? "src/main/java/java/Foo.java" : "src/java/Foo.java";
+	}
+}
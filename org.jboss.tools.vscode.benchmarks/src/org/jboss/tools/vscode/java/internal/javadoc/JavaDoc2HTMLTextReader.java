@@ -11,6 +11,10 @@ import org.jboss.tools.vscode.java.internal.javadoc.html.SubstitutionTextReader;
 
 /**
  * Processes JavaDoc tags.
+ * <p>
+ * Its HTML, once converted to Markdown by Remark, is the baseline of
+ * {@link JavaDoc2MarkdownConverterBenchmark}.
+ * </p>
  */
 public class JavaDoc2HTMLTextReader extends SubstitutionTextReader {
 
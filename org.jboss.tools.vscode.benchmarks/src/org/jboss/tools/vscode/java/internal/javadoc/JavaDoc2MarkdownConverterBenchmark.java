@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.javadoc;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.overzealous.remark.Options;
+import com.overzealous.remark.Options.Tables;
+import com.overzealous.remark.Remark;
+
+/**
+ * Benchmarks the conversion of a short and of a long, tag heavy, Javadoc.
+ * <p>
+ * {@link #htmlRoundTrip()} is the former conversion, rendering HTML first and
+ * converting it with Remark, for comparison.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JavaDoc2MarkdownConverterBenchmark {
+
+	private static final String SHORT_JAVADOC = "This is <b>foo</b>";
+
+	private static final String LONG_JAVADOC =
+			"Returns a {@link java.util.List} of the <code>elements</code> matching the given pattern.\n" +
+			"<p>\n" +
+			"The pattern is compiled once and cached, see {@link java.util.regex.Pattern#compile(String)}:\n" +
+			"<pre>\n" +
+			"  List&lt;String&gt; names = find(\"a*b\", 10);\n" +
+			"</pre>\n" +
+			"<ul>\n" +
+			"<li>matching is case sensitive</li>\n" +
+			"<li><i>null</i> elements are skipped</li>\n" +
+			"</ul>\n" +
+			"<table><tr><th>Pattern</th><th>Matches</th></tr><tr><td>a*</td><td>a, aa</td></tr></table>\n" +
+			"@param pattern the pattern, see <a href=\"http://docs.oracle.com/javase/8/docs/api/\">the API</a>\n" +
+			"@param limit the maximum number of elements to return\n" +
+			"@return the matching elements, never <code>null</code>\n" +
+			"@throws IllegalArgumentException if the pattern is invalid\n" +
+			"@see java.util.regex.Matcher\n" +
+			"@since 1.0\n" +
+			"@author Fred Bricon\n";
+
+	private static final Remark REMARK;
+
+	static {
+		Options options = new Options();
+		options.tables = Tables.CONVERT_TO_CODE_BLOCK;
+		options.hardwraps = true;
+		options.inlineLinks = true;
+		options.autoLinks = true;
+		options.reverseHtmlSmartPunctuation = true;
+		REMARK = new Remark(options);
+	}
+
+	@Param({ "short", "long" })
+	public String javadoc;
+
+	@Benchmark
+	public String getAsString() throws IOException {
+		return new JavaDoc2MarkdownConverter(getJavadoc()).getAsString();
+	}
+
+	@Benchmark
+	public String htmlRoundTrip() throws IOException {
+		String html = new JavaDoc2HTMLTextReader(new StringReader(getJavadoc())).getString();
+		return REMARK.convert(html);
+	}
+
+	private String getJavadoc() {
+		return "short".equals(javadoc) ? SHORT_JAVADOC : LONG_JAVADOC;
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * Remembers a fingerprint of the diagnostics last published for each uri,
+ * so that publishing the very same diagnostics again, i.e. an empty list on
+ * every reconcile of a clean file, can be skipped.
+ * <p>
+ * The fingerprint is a 64-bit hash of the code, range, severity, message and
+ * source of the diagnostics, in order.
+ * </p>
+ */
+public class DiagnosticsFingerprints {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final Map<String, Long> fingerprints = new HashMap<>();
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong suppressed = new AtomicLong();
+
+	/**
+	 * Records the diagnostics about to be published for the given uri.
+	 *
+	 * @param uri a document uri
+	 * @param diagnostics the diagnostics of the document
+	 * @return <code>false</code> if the same diagnostics were last published
+	 *         for this uri, in which case they should not be published again
+	 */
+	public synchronized boolean update(String uri, List<Diagnostic> diagnostics) {
+		Long fingerprint = Long.valueOf(fingerprint(diagnostics));
+		if (fingerprint.equals(fingerprints.put(uri, fingerprint))) {
+			suppressed.incrementAndGet();
+			return false;
+		}
+		published.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Forgets the diagnostics published for the given uri, so that the next
+	 * ones are published whatever they are.
+	 *
+	 * @param uri a document uri
+	 */
+	public synchronized void remove(String uri) {
+		fingerprints.remove(uri);
+	}
+
+	/**
+	 * @return the number of diagnostics updates that were published
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/**
+	 * @return the number of diagnostics updates that were skipped, being
+	 *         identical to the previous ones
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	static long fingerprint(List<Diagnostic> diagnostics) {
+		long hash = FNV_OFFSET_BASIS;
+		if (diagnostics == null) {
+			return hash;
+		}
+		hash = hash(hash, diagnostics.size());
+		for (Diagnostic diagnostic : diagnostics) {
+			hash = hash(hash, diagnostic.getCode());
+			hash = hash(hash, diagnostic.getSeverity() == null ? -1 : diagnostic.getSeverity().ordinal());
+			hash = hash(hash, diagnostic.getRange());
+			hash = hash(hash, diagnostic.getMessage());
+			hash = hash(hash, diagnostic.getSource());
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, Range range) {
+		if (range == null) {
+			return hash(hash, -1);
+		}
+		return hash(hash(hash, range.getStart()), range.getEnd());
+	}
+
+	private static long hash(long hash, Position position) {
+		if (position == null) {
+			return hash(hash, -1);
+		}
+		return hash(hash(hash, position.getLine()), position.getCharacter());
+	}
+
+	private static long hash(long hash, String value) {
+		if (value == null) {
+			return hash(hash, -1);
+		}
+		hash = hash(hash, value.length());
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, int value) {
+		for (int i = 0; i < 4; i++) {
+			hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+			value >>>= 8;
+		}
+		return hash;
+	}
+}
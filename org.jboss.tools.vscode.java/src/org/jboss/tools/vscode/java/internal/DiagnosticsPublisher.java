@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics.Outcome;
+
+/**
+ * Sends <code>textDocument/publishDiagnostics</code> notifications from a
+ * dedicated thread, so that a build reporting problems for thousands of files
+ * does not flood the client all at once.
+ * <p>
+ * Diagnostics waiting to be sent are kept per uri, the last published ones
+ * replacing the previous ones. They are sent in batches of at most
+ * {@link #DEFAULT_BATCH_SIZE} notifications, one batch every
+ * {@link #DEFAULT_BATCH_INTERVAL} milliseconds. When the publisher is idle,
+ * diagnostics are sent right away.
+ * </p>
+ * <p>
+ * Diagnostics identical to the ones last published for the same uri are
+ * dropped, see {@link DiagnosticsFingerprints}.
+ * </p>
+ */
+public class DiagnosticsPublisher {
+
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	public static final long DEFAULT_BATCH_INTERVAL = 50;
+
+	private static final String METHOD = "textDocument/publishDiagnostics";
+
+	private static class Pending {
+		private final PublishDiagnosticsParams diagnostics;
+		private final long queued = System.nanoTime();
+
+		Pending(PublishDiagnosticsParams diagnostics) {
+			this.diagnostics = diagnostics;
+		}
+	}
+
+	private final Map<String, Pending> pending = new LinkedHashMap<>();
+	private final DiagnosticsFingerprints fingerprints = new DiagnosticsFingerprints();
+	private final Consumer<PublishDiagnosticsParams> client;
+	private final RequestMetrics metrics;
+	private final int batchSize;
+	private final long batchInterval;
+	private final Thread thread;
+	private boolean disposed;
+
+	/**
+	 * @param client sends a notification to the client
+	 */
+	public DiagnosticsPublisher(Consumer<PublishDiagnosticsParams> client) {
+		this(client, null, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_INTERVAL);
+	}
+
+	/**
+	 * @param client sends a notification to the client
+	 * @param metrics records sent and suppressed notifications, may be <code>null</code>
+	 * @param batchSize the maximum number of notifications sent per batch
+	 * @param batchInterval the minimum delay between two batches, in milliseconds
+	 */
+	public DiagnosticsPublisher(Consumer<PublishDiagnosticsParams> client, RequestMetrics metrics, int batchSize, long batchInterval) {
+		this.client = client;
+		this.metrics = metrics;
+		this.batchSize = batchSize;
+		this.batchInterval = batchInterval;
+		this.thread = new Thread(this::publishPending, "jdt.ls-diagnostics");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Queues the given diagnostics, replacing any diagnostics not sent yet for
+	 * the same uri. The uri keeps its position in the queue. Diagnostics
+	 * identical to the last ones published for the uri are dropped.
+	 *
+	 * @param diagnostics the diagnostics to send
+	 */
+	public void publish(PublishDiagnosticsParams diagnostics) {
+		synchronized (pending) {
+			if (disposed) {
+				return;
+			}
+			if (!fingerprints.update(diagnostics.getUri(), diagnostics.getDiagnostics())) {
+				if (metrics != null) {
+					metrics.recordSuppressed(METHOD);
+				}
+				return;
+			}
+			pending.put(diagnostics.getUri(), new Pending(diagnostics));
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * Queues empty diagnostics for the given uri and forgets the diagnostics
+	 * last published for it, for documents that no longer exist.
+	 *
+	 * @param uri a document uri
+	 */
+	public void clear(String uri) {
+		synchronized (pending) {
+			if (disposed) {
+				return;
+			}
+			fingerprints.remove(uri);
+			pending.put(uri, new Pending(new PublishDiagnosticsParams(uri, Collections.emptyList())));
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * Forgets the diagnostics last published for the given uri, so that the
+	 * next ones are sent whatever they are.
+	 *
+	 * @param uri a document uri
+	 */
+	public void forget(String uri) {
+		synchronized (pending) {
+			fingerprints.remove(uri);
+		}
+	}
+
+	/**
+	 * @return the fingerprints of the published diagnostics, and the
+	 *         published and suppressed counts
+	 */
+	public DiagnosticsFingerprints getFingerprints() {
+		return fingerprints;
+	}
+
+	/**
+	 * @return the number of uris whose diagnostics are waiting to be sent
+	 */
+	public int getPendingCount() {
+		synchronized (pending) {
+			return pending.size();
+		}
+	}
+
+	/**
+	 * Sends the queued diagnostics, without throttling, and stops the
+	 * publisher thread. Diagnostics published afterwards are dropped.
+	 */
+	public void dispose() {
+		synchronized (pending) {
+			disposed = true;
+			pending.notifyAll();
+		}
+		try {
+			thread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void publishPending() {
+		try {
+			while (true) {
+				List<Pending> batch = new ArrayList<>(batchSize);
+				boolean throttle;
+				synchronized (pending) {
+					while (pending.isEmpty() && !disposed) {
+						pending.wait();
+					}
+					if (pending.isEmpty()) {
+						return;
+					}
+					Iterator<Pending> iterator = pending.values().iterator();
+					while (iterator.hasNext() && batch.size() < batchSize) {
+						batch.add(iterator.next());
+						iterator.remove();
+					}
+					throttle = !disposed;
+				}
+				for (Pending p : batch) {
+					send(p);
+				}
+				if (throttle) {
+					throttle();
+				}
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+
+	private void send(Pending p) {
+		long start = System.nanoTime();
+		Outcome outcome = Outcome.FAILED;
+		try {
+			client.accept(p.diagnostics);
+			outcome = Outcome.COMPLETED;
+		} catch (RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + p.diagnostics.getUri(), e);
+		} finally {
+			if (metrics != null) {
+				metrics.record(METHOD, start - p.queued, System.nanoTime() - start, outcome);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the batch interval to elapse, or for the publisher to be disposed.
+	 */
+	private void throttle() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + batchInterval;
+		synchronized (pending) {
+			long remaining = batchInterval;
+			while (!disposed && remaining > 0) {
+				pending.wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+		}
+	}
+}
@@ -90,6 +90,7 @@ public class DocumentAdapter implements IBuffer, IDocumentListener {
 
 	private ITextFileBuffer fTextFileBuffer;
 	private IDocument fDocument;
+	private LineIndex fLineIndex;
 
 
 	public DocumentAdapter(IOpenable owner, IFile file) {
@@ -110,6 +111,21 @@ public class DocumentAdapter implements IBuffer, IDocumentListener {
 		return fDocument;
 	}
 
+	/**
+	 * Returns the line index of the document, built on first access then
+	 * updated along with the document.
+	 *
+	 * @return the line index, or <code>null</code> if the buffer has no contents yet
+	 */
+	public LineIndex getLineIndex() {
+		synchronized (lock) {
+			if (fLineIndex == null && fDocument != null) {
+				fLineIndex = new LineIndex(fDocument.get());
+			}
+			return fLineIndex;
+		}
+	}
+
 	@Override
 	public void addBufferChangedListener(IBufferChangedListener listener) {
 		synchronized (lock) {
@@ -162,6 +178,7 @@ public class DocumentAdapter implements IBuffer, IDocumentListener {
 			fireBufferChanged(new BufferChangedEvent(this, 0, 0, null));
 			fBufferListeners.clear();
 			fDocument = null;
+			fLineIndex = null;
 		}
 	}
 
@@ -283,9 +300,38 @@ public class DocumentAdapter implements IBuffer, IDocumentListener {
 
 	@Override
 	public void documentChanged(DocumentEvent event) {
+		LineIndex lineIndex;
+		synchronized (lock) {
+			lineIndex = fLineIndex;
+		}
+		if (lineIndex != null) {
+			updateLineIndex(lineIndex, event);
+		}
 		fireBufferChanged(new BufferChangedEvent(this, event.getOffset(), event.getLength(), event.getText()));
 	}
 
+	private void updateLineIndex(LineIndex lineIndex, DocumentEvent event) {
+		IDocument document = event.getDocument();
+		int offset = event.getOffset();
+		int end = offset + (event.getText() == null ? 0 : event.getText().length());
+		try {
+			if (lineIndex.getLength() != document.getLength() - (end - offset) + event.getLength()) {
+				// the index was built after the change
+				throw new IndexOutOfBoundsException();
+			}
+			char previous = offset > 0 ? document.getChar(offset - 1) : 0;
+			char next = end < document.getLength() ? document.getChar(end) : 0;
+			lineIndex.replace(offset, event.getLength(), event.getText(), previous, next);
+		} catch (BadLocationException | IndexOutOfBoundsException e) {
+			// out of sync, rebuilt on next access
+			synchronized (lock) {
+				if (fLineIndex == lineIndex) {
+					fLineIndex = null;
+				}
+			}
+		}
+	}
+
 	private void fireBufferChanged(BufferChangedEvent event) {
 		IBufferChangedListener[] listeners = null;
 		synchronized (lock) {
@@ -25,15 +25,16 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.jdt.core.IAnnotatable;
 import org.eclipse.jdt.core.IAnnotation;
-import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -285,8 +286,9 @@ public final class JDTUtils {
 	public static Location toLocation(ICompilationUnit unit, int offset, int length) throws JavaModelException {
 		Location result = new Location();
 		result.setUri(getFileURI(unit));
-		int[] loc = JsonRpcHelpers.toLine(unit.getBuffer(), offset);
-		int[] endLoc = JsonRpcHelpers.toLine(unit.getBuffer(), offset + length);
+		int[][] locs = JsonRpcHelpers.toLines(unit.getBuffer(), offset, offset + length);
+		int[] loc = locs[0];
+		int[] endLoc = locs[1];
 
 		Range range = new Range();
 		if (loc != null) {
@@ -319,9 +321,9 @@ public final class JDTUtils {
 			JavaLanguageServerPlugin.logException("Error generating URI for class ", e);
 		}
 		result.setUri(uriString);
-		IBuffer buffer = unit.getBuffer();
-		int[] loc = JsonRpcHelpers.toLine(buffer, offset);
-		int[] endLoc = JsonRpcHelpers.toLine(buffer, offset + length);
+		int[][] locs = JsonRpcHelpers.toLines(unit.getBuffer(), offset, offset + length);
+		int[] loc = locs[0];
+		int[] endLoc = locs[1];
 
 		Range range = new Range();
 		if (loc != null) {
@@ -345,9 +347,9 @@ public final class JDTUtils {
 	 */
 	public static Range toRange(ICompilationUnit unit, int offset, int length) throws JavaModelException {
 		Range result = new Range();
-		final IBuffer buffer = unit.getBuffer();
-		int[] loc = JsonRpcHelpers.toLine(buffer, offset);
-		int[] endLoc = JsonRpcHelpers.toLine(buffer, offset + length);
+		int[][] locs = JsonRpcHelpers.toLines(unit.getBuffer(), offset, offset + length);
+		int[] loc = locs[0];
+		int[] endLoc = locs[1];
 
 		if (loc != null && endLoc != null) {
 			result.setStart(new Position(loc[0],loc[1]));
@@ -401,6 +403,21 @@ public final class JDTUtils {
 		if (uri == null || !"file".equals(uri.getScheme())) {
 			return null;
 		}
+		ResourceLookupCache cache = JavaLanguageServerPlugin.getResourceLookupCache();
+		if (cache == null) {
+			return findFileForLocation(uri);
+		}
+		IPath location = URIUtil.toPath(uri);
+		IFile file = cache.get(location);
+		if (file == null) {
+			long generation = cache.getGeneration();
+			file = findFileForLocation(uri);
+			cache.put(location, file, generation);
+		}
+		return file;
+	}
+
+	private static IFile findFileForLocation(URI uri) {
 		IFile[] resources = ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(uri);
 		switch(resources.length) {
 		case 0:
@@ -19,6 +19,7 @@ import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.jsonrpc.services.JsonNotification;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.jboss.tools.vscode.java.internal.handlers.LogHandler;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics;
 
 public class JavaClientConnection {
 
@@ -42,9 +43,20 @@ public class JavaClientConnection {
 
 	private final LogHandler logHandler;
 	private final JavaLanguageClient client;
+	private final DiagnosticsPublisher diagnosticsPublisher;
 
 	public JavaClientConnection(JavaLanguageClient client) {
+		this(client, null);
+	}
+
+	/**
+	 * @param client the language client
+	 * @param metrics records the notifications sent to the client, may be <code>null</code>
+	 */
+	public JavaClientConnection(JavaLanguageClient client, RequestMetrics metrics) {
 		this.client = client;
+		this.diagnosticsPublisher = new DiagnosticsPublisher(diagnostics -> client.publishDiagnostics(diagnostics), metrics,
+				DiagnosticsPublisher.DEFAULT_BATCH_SIZE, DiagnosticsPublisher.DEFAULT_BATCH_INTERVAL);
 		logHandler = new LogHandler();
 		logHandler.install(this);
 	}
@@ -99,11 +111,31 @@ public class JavaClientConnection {
 		client.sendActionableNotification(notification);
 	}
 
+	/**
+	 * Queues diagnostics to be sent to the client. Diagnostics are sent in
+	 * throttled batches, see {@link DiagnosticsPublisher}.
+	 */
 	public void publishDiagnostics(PublishDiagnosticsParams diagnostics){
-		client.publishDiagnostics(diagnostics);
+		diagnosticsPublisher.publish(diagnostics);
+	}
+
+	/**
+	 * Clears the diagnostics of a document that no longer exists.
+	 */
+	public void clearDiagnostics(String uri) {
+		diagnosticsPublisher.clear(uri);
+	}
+
+	/**
+	 * Forgets the diagnostics last sent for a document that was closed, so
+	 * that the next ones are sent even when they are identical.
+	 */
+	public void forgetDiagnostics(String uri) {
+		diagnosticsPublisher.forget(uri);
 	}
 
 	public void disconnect() {
+		diagnosticsPublisher.dispose();
 		if (logHandler != null) {
 			logHandler.uninstall();
 		}
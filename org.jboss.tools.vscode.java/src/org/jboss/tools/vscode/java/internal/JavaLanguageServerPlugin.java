@@ -10,15 +10,21 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal;
 
+import java.io.File;
 import java.io.IOException;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection.JavaLanguageClient;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalStore;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionSessionCache;
 import org.jboss.tools.vscode.java.internal.handlers.JDTLanguageServer;
+import org.jboss.tools.vscode.java.internal.handlers.ReconcileScheduler;
+import org.jboss.tools.vscode.java.internal.javadoc.JavadocCache;
 import org.jboss.tools.vscode.java.internal.managers.ProjectsManager;
 import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
 import org.osgi.framework.BundleActivator;
@@ -42,6 +48,22 @@ public class JavaLanguageServerPlugin implements BundleActivator {
 
 	private PreferenceManager preferenceManager;
 
+	private ReconcileScheduler reconcileScheduler;
+
+	private SharedASTProvider sharedASTProvider;
+
+	private ResourceLookupCache resourceLookupCache;
+
+	private SymbolIndex symbolIndex;
+
+	private ReferencesCache referencesCache;
+
+	private CompletionProposalStore completionProposalStore;
+
+	private CompletionSessionCache completionSessionCache;
+
+	private JavadocCache javadocCache;
+
 	public static LanguageServer getLanguageServer() {
 		return pluginInstance == null? null: pluginInstance.languageServer;
 	}
@@ -55,7 +77,23 @@ public class JavaLanguageServerPlugin implements BundleActivator {
 		JavaLanguageServerPlugin.pluginInstance = this;
 		preferenceManager = new PreferenceManager();
 		projectsManager = new ProjectsManager(preferenceManager);
+		reconcileScheduler = new ReconcileScheduler(preferenceManager);
+		sharedASTProvider = new SharedASTProvider();
+		resourceLookupCache = new ResourceLookupCache();
+		symbolIndex = new SymbolIndex();
+		referencesCache = new ReferencesCache();
+		completionProposalStore = new CompletionProposalStore();
+		completionSessionCache = new CompletionSessionCache();
+		javadocCache = new JavadocCache(preferenceManager, getJavadocCacheLocation());
+	}
 
+	private static File getJavadocCacheLocation() {
+		try {
+			return getStateLocation().append("javadoc").toFile();
+		} catch (IllegalStateException e) {
+			// no instance location, the rendered javadoc is only cached in memory
+			return null;
+		}
 	}
 
 	private void startConnection() throws IOException {
@@ -77,6 +115,32 @@ public class JavaLanguageServerPlugin implements BundleActivator {
 		JavaLanguageServerPlugin.pluginInstance = null;
 		JavaLanguageServerPlugin.context = null;
 		projectsManager = null;
+		reconcileScheduler = null;
+		sharedASTProvider = null;
+		if (resourceLookupCache != null) {
+			resourceLookupCache.dispose();
+			resourceLookupCache = null;
+		}
+		if (symbolIndex != null) {
+			symbolIndex.dispose();
+			symbolIndex = null;
+		}
+		if (referencesCache != null) {
+			referencesCache.dispose();
+			referencesCache = null;
+		}
+		if (completionProposalStore != null) {
+			completionProposalStore.clear();
+			completionProposalStore = null;
+		}
+		if (completionSessionCache != null) {
+			completionSessionCache.clear();
+			completionSessionCache = null;
+		}
+		if (javadocCache != null) {
+			javadocCache.dispose();
+			javadocCache = null;
+		}
 		languageServer = null;
 
 	}
@@ -105,6 +169,21 @@ public class JavaLanguageServerPlugin implements BundleActivator {
 		log(new Status(IStatus.ERROR, context.getBundle().getSymbolicName(), message, ex));
 	}
 
+	/**
+	 * @return the directory where the language server persists its own state,
+	 *         in the workspace metadata
+	 */
+	public static IPath getStateLocation() {
+		return Platform.getStateLocation(context.getBundle());
+	}
+
+	/**
+	 * @return the version of the language server bundle
+	 */
+	public static String getVersion() {
+		return context.getBundle().getVersion().toString();
+	}
+
 	public static void sendStatus(ServiceStatus serverStatus, String status) {
 		if (pluginInstance != null && pluginInstance.protocol != null) {
 			pluginInstance.protocol.sendStatus(serverStatus, status);
@@ -125,4 +204,74 @@ public class JavaLanguageServerPlugin implements BundleActivator {
 	public static ProjectsManager getProjectsManager() {
 		return pluginInstance.projectsManager;
 	}
+
+	/**
+	 * @return the preferences of the language server, or <code>null</code> if
+	 *         the plugin is not started
+	 */
+	public static PreferenceManager getPreferenceManager() {
+		return pluginInstance == null ? null : pluginInstance.preferenceManager;
+	}
+
+	/**
+	 * @return the scheduler coalescing reconciles of open documents
+	 */
+	public static ReconcileScheduler getReconcileScheduler() {
+		return pluginInstance.reconcileScheduler;
+	}
+
+	/**
+	 * @return the provider of the ASTs of open documents
+	 */
+	public static SharedASTProvider getSharedASTProvider() {
+		return pluginInstance.sharedASTProvider;
+	}
+
+	/**
+	 * @return the cache of the workspace files found for file system locations,
+	 *         or <code>null</code> if the plugin is not started
+	 */
+	public static ResourceLookupCache getResourceLookupCache() {
+		return pluginInstance == null ? null : pluginInstance.resourceLookupCache;
+	}
+
+	/**
+	 * @return the index of the symbols declared in the workspace sources, or
+	 *         <code>null</code> if the plugin is not started
+	 */
+	public static SymbolIndex getSymbolIndex() {
+		return pluginInstance == null ? null : pluginInstance.symbolIndex;
+	}
+
+	/**
+	 * @return the cache of the references found for java elements, or
+	 *         <code>null</code> if the plugin is not started
+	 */
+	public static ReferencesCache getReferencesCache() {
+		return pluginInstance == null ? null : pluginInstance.referencesCache;
+	}
+
+	/**
+	 * @return the store of the proposals of the recent completion requests, or
+	 *         <code>null</code> if the plugin is not started
+	 */
+	public static CompletionProposalStore getCompletionProposalStore() {
+		return pluginInstance == null ? null : pluginInstance.completionProposalStore;
+	}
+
+	/**
+	 * @return the cache of the last completion request, or <code>null</code>
+	 *         if the plugin is not started
+	 */
+	public static CompletionSessionCache getCompletionSessionCache() {
+		return pluginInstance == null ? null : pluginInstance.completionSessionCache;
+	}
+
+	/**
+	 * @return the cache of the rendered javadoc, or <code>null</code> if the
+	 *         plugin is not started
+	 */
+	public static JavadocCache getJavadocCache() {
+		return pluginInstance == null ? null : pluginInstance.javadocCache;
+	}
 }
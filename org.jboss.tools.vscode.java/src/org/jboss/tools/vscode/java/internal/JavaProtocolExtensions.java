@@ -10,12 +10,14 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.jsonrpc.services.JsonNotification;
 import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.eclipse.lsp4j.jsonrpc.services.JsonSegment;
+import org.jboss.tools.vscode.java.internal.metrics.MethodMetrics;
 
 /**
  * Interface for protocol extensions for Java
@@ -35,4 +37,11 @@ public interface JavaProtocolExtensions {
 	 */
 	@JsonNotification
 	void projectConfigurationUpdate(TextDocumentIdentifier documentUri);
+
+	/**
+	 * Request the request count, latency and error metrics of every protocol method
+	 * handled by the server so far
+	 */
+	@JsonRequest
+	CompletableFuture<List<MethodMetrics>> serverMetrics();
 }
@@ -48,9 +48,10 @@ public final class LanguageServerWorkingCopyOwner extends WorkingCopyOwner {
 	 */
 	@Override
 	public IProblemRequestor getProblemRequestor(ICompilationUnit workingCopy) {
-		final IResource resource = workingCopy.getPrimary().getResource();
+		final ICompilationUnit primary = workingCopy.getPrimary();
+		final IResource resource = primary.getResource();
 		return new DiagnosticsHandler(connection,
-				resource,
+				primary,
 				resource.getProject().equals(JavaLanguageServerPlugin.getProjectsManager().getDefaultProject()));
 	}
 }
\ No newline at end of file
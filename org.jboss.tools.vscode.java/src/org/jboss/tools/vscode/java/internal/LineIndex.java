@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.Arrays;
+
+/**
+ * Index of the line start offsets of a text, used to convert offsets to
+ * (line, column) positions and back without going through an
+ * {@link org.eclipse.jface.text.IDocument}. Lines are delimited by
+ * <code>\n</code>, <code>\r</code> or <code>\r\n</code>, and columns are
+ * counted in UTF-16 code units, like in the language server protocol.
+ * <p>
+ * Lookups are O(log n) in the number of lines. The index can be updated
+ * incrementally, see {@link #replace(int, int, String, char, char)}.
+ * </p>
+ */
+public class LineIndex {
+
+	private int[] lineStarts;
+	private int lineCount;
+	private int length;
+
+	/**
+	 * Creates the index of the given text.
+	 *
+	 * @param text a text, may be <code>null</code>
+	 */
+	public LineIndex(CharSequence text) {
+		lineStarts = new int[16];
+		lineCount = 1;
+		if (text == null) {
+			return;
+		}
+		length = text.length();
+		for (int offset = 1; offset <= length; offset++) {
+			if (isLineStart(text.charAt(offset - 1), offset < length ? text.charAt(offset) : 0)) {
+				add(offset);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of lines, including the empty line following a
+	 *         trailing line delimiter
+	 */
+	public synchronized int getNumberOfLines() {
+		return lineCount;
+	}
+
+	/**
+	 * @return the length of the indexed text
+	 */
+	public synchronized int getLength() {
+		return length;
+	}
+
+	/**
+	 * @param line a zero-based line number
+	 * @return the offset of the first character of the line, or -1 if the line does not exist
+	 */
+	public synchronized int getLineOffset(int line) {
+		if (line < 0 || line >= lineCount) {
+			return -1;
+		}
+		return lineStarts[line];
+	}
+
+	/**
+	 * @param offset an offset, between 0 and the text length included
+	 * @return the zero-based line containing the offset, or -1 if the offset is out of the text
+	 */
+	public synchronized int getLineOfOffset(int offset) {
+		if (offset < 0 || offset > length) {
+			return -1;
+		}
+		return lineOf(offset, 0);
+	}
+
+	/**
+	 * Converts a (line, column) position to an offset.
+	 *
+	 * @param line a zero-based line number
+	 * @param column a zero-based column, in UTF-16 code units
+	 * @return the offset, or -1 if the line does not exist
+	 */
+	public synchronized int toOffset(int line, int column) {
+		int lineOffset = getLineOffset(line);
+		return lineOffset < 0 ? -1 : lineOffset + column;
+	}
+
+	/**
+	 * Converts an offset to a (line, column) position.
+	 *
+	 * @param offset an offset, between 0 and the text length included
+	 * @return a <code>{line, column}</code> array, or <code>null</code> if the
+	 *         offset is out of the text
+	 */
+	public synchronized int[] toPosition(int offset) {
+		int line = getLineOfOffset(offset);
+		return line < 0 ? null : new int[] { line, offset - lineStarts[line] };
+	}
+
+	/**
+	 * Converts a list of offsets to (line, column) positions. Runs of
+	 * ascending offsets are resolved with a single forward scan of the index.
+	 *
+	 * @param offsets offsets, between 0 and the text length included
+	 * @return the <code>{line, column}</code> arrays, in the same order as the
+	 *         offsets, with <code>null</code> for the offsets out of the text
+	 */
+	public synchronized int[][] toPositions(int[] offsets) {
+		int[][] positions = new int[offsets.length][];
+		int line = 0;
+		int previous = -1;
+		for (int i = 0; i < offsets.length; i++) {
+			int offset = offsets[i];
+			if (offset < 0 || offset > length) {
+				continue;
+			}
+			// resume from the previous line rather than searching the whole index
+			line = lineOf(offset, offset >= previous ? line : 0);
+			positions[i] = new int[] { line, offset - lineStarts[line] };
+			previous = offset;
+		}
+		return positions;
+	}
+
+	/**
+	 * Converts a list of (line, column) positions to offsets.
+	 *
+	 * @param lines zero-based line numbers
+	 * @param columns zero-based columns, in UTF-16 code units
+	 * @return the offsets, in the same order as the positions, with -1 for the
+	 *         lines that do not exist
+	 */
+	public synchronized int[] toOffsets(int[] lines, int[] columns) {
+		int[] offsets = new int[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			offsets[i] = toOffset(lines[i], columns[i]);
+		}
+		return offsets;
+	}
+
+	/**
+	 * Updates the index after a range of the text has been replaced.
+	 * <p>
+	 * Only the line starts of the replaced range are rescanned, the following
+	 * ones are shifted. A line start depends on the character before it and,
+	 * for <code>\r\n</code>, on the character at its offset, hence the
+	 * characters surrounding the new text.
+	 * </p>
+	 *
+	 * @param offset the offset of the replaced range
+	 * @param replacedLength the length of the replaced range
+	 * @param text the new text of the range, may be <code>null</code>
+	 * @param previous the character preceding the range, 0 if the range starts the text
+	 * @param next the character following the new text, 0 if the range ends the text
+	 */
+	public synchronized void replace(int offset, int replacedLength, String text, char previous, char next) {
+		if (offset < 0 || offset + replacedLength > length) {
+			throw new IndexOutOfBoundsException("Invalid range " + offset + ", " + replacedLength + " for length " + length);
+		}
+		if (text == null) {
+			text = "";
+		}
+		int delta = text.length() - replacedLength;
+		// line starts before the range are not affected
+		int first = lineOf(offset, 0) + 1;
+		if (first > 1 && lineStarts[first - 1] == offset) {
+			first--;
+		}
+		// line starts after the range are shifted
+		int last = first;
+		while (last < lineCount && lineStarts[last] <= offset + replacedLength) {
+			last++;
+		}
+		int[] tail = Arrays.copyOfRange(lineStarts, last, lineCount);
+		lineCount = first;
+		length += delta;
+		int end = offset + text.length();
+		for (int start = Math.max(1, offset); start <= end; start++) {
+			char before = start == offset ? previous : text.charAt(start - offset - 1);
+			char at = start == end ? next : text.charAt(start - offset);
+			if (isLineStart(before, at)) {
+				add(start);
+			}
+		}
+		for (int start : tail) {
+			add(start + delta);
+		}
+	}
+
+	private static boolean isLineStart(char before, char at) {
+		return before == '\n' || (before == '\r' && at != '\n');
+	}
+
+	/**
+	 * @return the last line, starting from the given one, whose offset is not after the given offset
+	 */
+	private int lineOf(int offset, int fromLine) {
+		if (fromLine + 1 < lineCount && lineStarts[fromLine + 1] > offset) {
+			return fromLine;
+		}
+		int index = Arrays.binarySearch(lineStarts, fromLine, lineCount, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	private void add(int lineStart) {
+		if (lineCount == lineStarts.length) {
+			lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+		}
+		lineStarts[lineCount++] = lineStart;
+	}
+}
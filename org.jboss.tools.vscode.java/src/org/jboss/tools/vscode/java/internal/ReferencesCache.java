@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * Caches the references found for java elements, i.e. to resolve code
+ * lenses, keyed by element handle identifier.
+ * <p>
+ * Entries are invalidated selectively from the java element deltas, including
+ * the reconcile deltas of the open documents: when a compilation unit
+ * changes, the entries of the elements it declares, of the elements it
+ * referenced and of the elements whose simple name it now mentions are
+ * discarded. Changes of projects, classpaths, source folders or packages
+ * discard all the entries. The number of entries is bounded, the least
+ * recently used being evicted first.
+ * </p>
+ */
+public class ReferencesCache implements IElementChangedListener {
+
+	private static final int MAX_CACHE_SIZE = 5000;
+
+	private static final int STRUCTURAL_CHANGES = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+			| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED;
+
+	private static final int CONTENT_CHANGES = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN
+			| IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_PRIMARY_RESOURCE;
+
+	private static class Entry {
+		private final String name;
+		private final Set<ICompilationUnit> units;
+		private final List<Location> locations;
+
+		Entry(String name, Set<ICompilationUnit> units, List<Location> locations) {
+			this.name = name;
+			this.units = units;
+			this.locations = locations;
+		}
+	}
+
+	private final Map<String, Entry> cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Incremented on every invalidation, so that a search started before an
+	 * invalidation can not cache its, possibly stale, result
+	 */
+	private long generation;
+
+	private boolean installed;
+
+	/**
+	 * @param element a java element
+	 * @return the cached references of the given element, or <code>null</code>
+	 */
+	public List<Location> get(IJavaElement element) {
+		install();
+		synchronized (cache) {
+			Entry entry = cache.get(element.getHandleIdentifier());
+			return entry == null ? null : entry.locations;
+		}
+	}
+
+	/**
+	 * @return the current generation, to pass to {@link #put(IJavaElement, List, Collection, long)}
+	 */
+	public long getGeneration() {
+		synchronized (cache) {
+			return generation;
+		}
+	}
+
+	/**
+	 * Caches the references found for the given element, unless the cache was
+	 * invalidated since the given generation.
+	 *
+	 * @param element a java element
+	 * @param locations the references of the element
+	 * @param units the compilation units containing the references
+	 * @param expectedGeneration the generation when the search started
+	 */
+	public void put(IJavaElement element, List<Location> locations, Collection<ICompilationUnit> units, long expectedGeneration) {
+		Set<ICompilationUnit> primaries = new HashSet<>();
+		for (ICompilationUnit unit : units) {
+			primaries.add(unit.getPrimary());
+		}
+		synchronized (cache) {
+			if (generation == expectedGeneration) {
+				cache.put(element.getHandleIdentifier(), new Entry(element.getElementName(), primaries, locations));
+			}
+		}
+	}
+
+	/**
+	 * Discards all the entries.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			generation++;
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	private synchronized void install() {
+		if (!installed) {
+			installed = true;
+			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+	}
+
+	/**
+	 * Stops listening to java element changes and discards all the entries.
+	 */
+	public synchronized void dispose() {
+		if (installed) {
+			JavaCore.removeElementChangedListener(this);
+			installed = false;
+		}
+		clear();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		synchronized (cache) {
+			if (cache.isEmpty()) {
+				// nothing to invalidate, but a search may be in progress
+				generation++;
+				return;
+			}
+		}
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		if (element.getElementType() == IJavaElement.COMPILATION_UNIT) {
+			if (delta.getKind() == IJavaElementDelta.REMOVED) {
+				invalidate((ICompilationUnit) element, null);
+			} else if (delta.getKind() == IJavaElementDelta.ADDED || (delta.getFlags() & CONTENT_CHANGES) != 0) {
+				invalidate((ICompilationUnit) element, getIdentifiers((ICompilationUnit) element));
+			}
+			return;
+		}
+		if (element.getElementType() > IJavaElement.COMPILATION_UNIT) {
+			return;
+		}
+		if ((element.getElementType() != IJavaElement.JAVA_MODEL && delta.getKind() != IJavaElementDelta.CHANGED)
+				|| (delta.getFlags() & STRUCTURAL_CHANGES) != 0) {
+			clear();
+			return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	/**
+	 * Discards the entries affected by a change of the given unit.
+	 *
+	 * @param unit a changed compilation unit
+	 * @param identifiers the identifiers now found in the unit, <code>null</code> if it was removed
+	 */
+	private void invalidate(ICompilationUnit unit, Set<String> identifiers) {
+		ICompilationUnit primary = unit.getPrimary();
+		String handle = primary.getHandleIdentifier();
+		synchronized (cache) {
+			generation++;
+			for (Iterator<Map.Entry<String, Entry>> iterator = cache.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<String, Entry> entry = iterator.next();
+				if (entry.getKey().startsWith(handle) || entry.getValue().units.contains(primary)
+						|| (identifiers != null && identifiers.contains(entry.getValue().name))) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the java identifiers found in the source of the given unit,
+	 *         comments and literals included
+	 */
+	static Set<String> getIdentifiers(ICompilationUnit unit) {
+		Set<String> identifiers = new HashSet<>();
+		String source;
+		try {
+			source = unit.getSource();
+		} catch (JavaModelException e) {
+			source = null;
+		}
+		if (source == null) {
+			return identifiers;
+		}
+		int length = source.length();
+		int i = 0;
+		while (i < length) {
+			if (!Character.isJavaIdentifierStart(source.charAt(i))) {
+				i++;
+				continue;
+			}
+			int start = i++;
+			while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+				i++;
+			}
+			identifiers.add(source.substring(start, i));
+		}
+		return identifiers;
+	}
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics.Outcome;
+
+/**
+ * Runs language server requests on dedicated, bounded thread pools instead of
+ * the shared {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ * <p>
+ * Requests are dispatched to a {@link Lane}, so that slow background requests
+ * (i.e. workspace wide searches) can not starve interactive ones (i.e.
+ * completion). When the queue of a lane is full, its oldest queued request
+ * is cancelled. A request submitted with a key supersedes, and cancels, any
+ * unfinished request previously submitted for the same method and key.
+ * </p>
+ * <p>
+ * Queue time, execution time and outcome of every request are recorded in
+ * {@link RequestMetrics}.
+ * </p>
+ */
+public class RequestScheduler {
+
+	public static enum Lane {
+		/**
+		 * Requests a user is actively waiting for: completion, hover, highlight...
+		 */
+		INTERACTIVE(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), 64),
+		/**
+		 * Potentially long running requests: code lens, workspace symbols, references...
+		 */
+		BACKGROUND(Math.max(1, Runtime.getRuntime().availableProcessors() / 4), 32);
+
+		private final int threads;
+		private final int queueCapacity;
+
+		private Lane(int threads, int queueCapacity) {
+			this.threads = threads;
+			this.queueCapacity = queueCapacity;
+		}
+	}
+
+	private static class Request<R> implements Runnable {
+		private final CompletableFuture<R> result = new CompletableFuture<>();
+		private final Function<CancelChecker, R> code;
+		private final long submitted = System.nanoTime();
+		private volatile long started;
+
+		Request(Function<CancelChecker, R> code) {
+			this.code = code;
+		}
+
+		@Override
+		public void run() {
+			if (result.isDone()) {
+				// cancelled while queued
+				return;
+			}
+			started = System.nanoTime();
+			try {
+				result.complete(code.apply(this::checkCanceled));
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		private void checkCanceled() {
+			if (result.isCancelled()) {
+				throw new CancellationException();
+			}
+		}
+	}
+
+	/**
+	 * Cancels the oldest queued request of a saturated lane to make room for
+	 * the new one.
+	 */
+	private static class CancelOldestPolicy implements RejectedExecutionHandler {
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			if (executor.isShutdown()) {
+				cancel(r);
+				return;
+			}
+			Runnable oldest = executor.getQueue().poll();
+			if (oldest != null) {
+				cancel(oldest);
+			}
+			if (!executor.getQueue().offer(r)) {
+				cancel(r);
+			}
+		}
+
+		private static void cancel(Runnable r) {
+			if (r instanceof Request) {
+				((Request<?>) r).result.cancel(false);
+			}
+		}
+	}
+
+	private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+	private final Map<String, CompletableFuture<?>> keyedRequests = new ConcurrentHashMap<>();
+	private final RequestMetrics metrics;
+
+	public RequestScheduler() {
+		this(new RequestMetrics());
+	}
+
+	public RequestScheduler(RequestMetrics metrics) {
+		this.metrics = metrics;
+		for (Lane lane : Lane.values()) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(lane.threads, lane.threads, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(lane.queueCapacity), new LaneThreadFactory(lane), new CancelOldestPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			executors.put(lane, executor);
+		}
+	}
+
+	/**
+	 * Runs the given code on the given lane.
+	 *
+	 * @param lane the lane to run the request on
+	 * @param method the protocol method, used for metrics
+	 * @param code the request, receiving a {@link CancelChecker} bound to the returned future
+	 * @return a future completed with the request result. Cancelling it cancels the request.
+	 */
+	public <R> CompletableFuture<R> computeAsync(Lane lane, String method, Function<CancelChecker, R> code) {
+		return computeAsync(lane, method, null, code);
+	}
+
+	/**
+	 * Runs the given code on the given lane, cancelling any unfinished request
+	 * previously submitted for the same method and key.
+	 *
+	 * @param lane the lane to run the request on
+	 * @param method the protocol method, used for metrics
+	 * @param key identifies, for the given method, requests superseding each other,
+	 *        i.e. the document uri. May be <code>null</code>.
+	 * @param code the request, receiving a {@link CancelChecker} bound to the returned future
+	 * @return a future completed with the request result. Cancelling it cancels the request.
+	 */
+	public <R> CompletableFuture<R> computeAsync(Lane lane, String method, String key, Function<CancelChecker, R> code) {
+		Request<R> request = new Request<>(code);
+		if (key != null) {
+			String requestKey = method + ":" + key;
+			CompletableFuture<?> previous = keyedRequests.put(requestKey, request.result);
+			if (previous != null) {
+				previous.cancel(false);
+			}
+			request.result.whenComplete((r, e) -> keyedRequests.remove(requestKey, request.result));
+		}
+		request.result.whenComplete((r, e) -> record(method, request, e));
+		executors.get(lane).execute(request);
+		return request.result;
+	}
+
+	private void record(String method, Request<?> request, Throwable error) {
+		long now = System.nanoTime();
+		long started = request.started;
+		long queueTime = (started == 0 ? now : started) - request.submitted;
+		// a request cancelled while queued never ran, it has no execution time
+		long executionTime = started == 0 ? -1 : now - started;
+		Outcome outcome = Outcome.COMPLETED;
+		if (error instanceof CancellationException || (error != null && error.getCause() instanceof CancellationException)) {
+			outcome = Outcome.CANCELLED;
+		} else if (error != null) {
+			outcome = Outcome.FAILED;
+		}
+		metrics.record(method, queueTime, executionTime, outcome);
+	}
+
+	/**
+	 * @return the metrics of the requests run by this scheduler
+	 */
+	public RequestMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @param lane a lane
+	 * @return the number of requests waiting for a thread on the given lane
+	 */
+	public int getQueueDepth(Lane lane) {
+		return executors.get(lane).getQueue().size();
+	}
+
+	/**
+	 * Stops accepting requests, and cancels the queued ones.
+	 */
+	public void shutdown() {
+		for (ThreadPoolExecutor executor : executors.values()) {
+			for (Runnable r : executor.shutdownNow()) {
+				CancelOldestPolicy.cancel(r);
+			}
+		}
+	}
+
+	private static class LaneThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+		private final String prefix;
+
+		LaneThreadFactory(Lane lane) {
+			this.prefix = "jdt.ls-" + lane.name().toLowerCase() + "-";
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
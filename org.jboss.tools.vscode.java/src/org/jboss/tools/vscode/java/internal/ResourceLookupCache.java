@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Caches the workspace file found for a file system location, so that
+ * resolving the uri of a request does not have to go through
+ * {@link org.eclipse.core.resources.IWorkspaceRoot#findFilesForLocationURI(java.net.URI)},
+ * which is linear in the number of projects.
+ * <p>
+ * Entries are invalidated by resource deltas: when a file is added or removed
+ * at a location, including the links created in the default project, the
+ * entry of that location is discarded. When a project is added, removed,
+ * opened, closed or its description changes, the whole cache is discarded.
+ * </p>
+ */
+public class ResourceLookupCache implements IResourceChangeListener {
+
+	private final Map<IPath, IFile> files = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented on every invalidation, so that a lookup started before an
+	 * invalidation can not cache its, possibly stale, result
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	private IWorkspace workspace;
+
+	/**
+	 * @param location a file system location
+	 * @return the cached file for the given location, or <code>null</code>
+	 */
+	public IFile get(IPath location) {
+		install();
+		return location == null ? null : files.get(location);
+	}
+
+	/**
+	 * @return the current generation, to pass to {@link #put(IPath, IFile, long)}
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Caches the file found for the given location, unless the cache was
+	 * invalidated since the given generation.
+	 */
+	public void put(IPath location, IFile file, long expectedGeneration) {
+		if (location == null || file == null) {
+			return;
+		}
+		files.put(location, file);
+		if (generation.get() != expectedGeneration) {
+			// invalidated while the file was being looked up
+			files.remove(location, file);
+		}
+	}
+
+	/**
+	 * Discards all the entries.
+	 */
+	public void clear() {
+		generation.incrementAndGet();
+		files.clear();
+	}
+
+	/**
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		return files.size();
+	}
+
+	private synchronized void install() {
+		if (workspace == null) {
+			workspace = ResourcesPlugin.getWorkspace();
+			workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		}
+	}
+
+	/**
+	 * Stops listening to resource changes and discards all the entries.
+	 */
+	public synchronized void dispose() {
+		if (workspace != null) {
+			workspace.removeResourceChangeListener(this);
+			workspace = null;
+		}
+		clear();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		if (files.isEmpty()) {
+			// nothing to visit, but a lookup may be in progress
+			generation.incrementAndGet();
+			return;
+		}
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta delta) throws CoreException {
+					IResource resource = delta.getResource();
+					switch (resource.getType()) {
+					case IResource.ROOT:
+						return true;
+					case IResource.PROJECT:
+						if (delta.getKind() != IResourceDelta.CHANGED
+								|| (delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+							clear();
+							return false;
+						}
+						return true;
+					case IResource.FILE:
+						if (delta.getKind() == IResourceDelta.ADDED || delta.getKind() == IResourceDelta.REMOVED
+								|| (delta.getFlags() & (IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO | IResourceDelta.TYPE)) != 0) {
+							invalidate(resource.getLocation());
+						}
+						return false;
+					default:
+						return true;
+					}
+				}
+			});
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Failed to process resource delta", e);
+			clear();
+		}
+	}
+
+	private void invalidate(IPath location) {
+		generation.incrementAndGet();
+		if (location == null) {
+			// i.e. a removed link, its location is not known anymore
+			files.clear();
+		} else {
+			files.remove(location);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+/**
+ * Keeps the most recent, binding resolved, {@link CompilationUnit} AST of the
+ * open working copies, so that handlers do not have to parse the document on
+ * every request. Entries are keyed by the modification stamp of the working
+ * copy buffer and the number of cached ASTs is bounded, the least recently
+ * used being evicted first.
+ */
+public class SharedASTProvider {
+
+	/**
+	 * The AST level used by the language server
+	 */
+	public static final int AST_LEVEL = AST.JLS8;
+
+	private static final int MAX_CACHE_SIZE = 10;
+
+	private static final long UNKNOWN_STAMP = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+	private static class Entry {
+		private final long stamp;
+		private final CompilationUnit ast;
+
+		Entry(long stamp, CompilationUnit ast) {
+			this.stamp = stamp;
+			this.ast = ast;
+		}
+	}
+
+	private final Map<ICompilationUnit, Entry> cache = new LinkedHashMap<ICompilationUnit, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ICompilationUnit, Entry> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Returns a binding resolved AST for the given type root. The cached AST is
+	 * returned if it matches the current contents of the working copy,
+	 * otherwise a new AST is created, and cached if the type root is a working
+	 * copy.
+	 *
+	 * @param input a type root
+	 * @param monitor a progress monitor, may be <code>null</code>
+	 * @return the AST, or <code>null</code> if it could not be created
+	 */
+	public CompilationUnit getAST(ITypeRoot input, IProgressMonitor monitor) {
+		if (input == null) {
+			return null;
+		}
+		if (!(input instanceof ICompilationUnit) || !((ICompilationUnit) input).isWorkingCopy()) {
+			return createAST(input, monitor);
+		}
+		ICompilationUnit unit = (ICompilationUnit) input;
+		long stamp = getModificationStamp(unit);
+		if (stamp != UNKNOWN_STAMP) {
+			synchronized (cache) {
+				Entry entry = cache.get(unit);
+				if (entry != null && entry.stamp == stamp) {
+					return entry.ast;
+				}
+			}
+		}
+		CompilationUnit ast = createAST(unit, monitor);
+		cache(unit, stamp, ast);
+		return ast;
+	}
+
+	/**
+	 * Reconciles the given working copy and caches the resulting AST.
+	 *
+	 * @param unit a working copy
+	 * @param owner the working copy owner
+	 * @param monitor a progress monitor, may be <code>null</code>
+	 * @throws JavaModelException if the working copy could not be reconciled
+	 */
+	public void reconcile(ICompilationUnit unit, WorkingCopyOwner owner, IProgressMonitor monitor) throws JavaModelException {
+		long stamp = getModificationStamp(unit);
+		CompilationUnit ast = unit.reconcile(AST_LEVEL, ICompilationUnit.FORCE_PROBLEM_DETECTION | ICompilationUnit.ENABLE_BINDINGS_RECOVERY | ICompilationUnit.ENABLE_STATEMENTS_RECOVERY, owner, monitor);
+		cache(unit, stamp, ast);
+	}
+
+	/**
+	 * Discards the cached AST of the given working copy, i.e. when it is
+	 * closed.
+	 *
+	 * @param unit a working copy
+	 */
+	public void dispose(ICompilationUnit unit) {
+		synchronized (cache) {
+			cache.remove(unit);
+		}
+	}
+
+	/**
+	 * Discards all cached ASTs.
+	 */
+	public void disposeAll() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private void cache(ICompilationUnit unit, long stamp, CompilationUnit ast) {
+		// the buffer may have been modified while the AST was being created
+		if (ast == null || stamp == UNKNOWN_STAMP || stamp != getModificationStamp(unit)) {
+			return;
+		}
+		synchronized (cache) {
+			cache.put(unit, new Entry(stamp, ast));
+		}
+	}
+
+	private static CompilationUnit createAST(ITypeRoot input, IProgressMonitor monitor) {
+		ASTParser parser = ASTParser.newParser(AST_LEVEL);
+		parser.setSource(input);
+		parser.setResolveBindings(true);
+		parser.setStatementsRecovery(true);
+		parser.setBindingsRecovery(true);
+		ASTNode ast = parser.createAST(monitor);
+		return ast instanceof CompilationUnit ? (CompilationUnit) ast : null;
+	}
+
+	private static long getModificationStamp(ICompilationUnit unit) {
+		try {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer instanceof DocumentAdapter) {
+				IDocument document = ((DocumentAdapter) buffer).getDocument();
+				if (document instanceof IDocumentExtension4) {
+					return ((IDocumentExtension4) document).getModificationStamp();
+				}
+			}
+		} catch (JavaModelException e) {
+			// no buffer, nothing to cache
+		}
+		return UNKNOWN_STAMP;
+	}
+}
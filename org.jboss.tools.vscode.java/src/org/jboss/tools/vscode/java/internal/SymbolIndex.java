@@ -0,0 +1,616 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.lsp4j.SymbolKind;
+import org.jboss.tools.vscode.java.internal.handlers.DocumentSymbolHandler;
+
+/**
+ * In-memory index of the types, methods and fields declared in the source
+ * compilation units of the workspace, with the position of their names.
+ * <p>
+ * The symbols of a compilation unit are kept in parallel arrays of interned
+ * names and primitives, along with their order by name. Queries run against
+ * an immutable {@link View}, the symbols of all units sorted by name ignoring
+ * case, so that the candidates sharing the first character of a query are
+ * found by binary search. On the first query following a change, the symbols
+ * of the changed units are dropped from the previous view and the sorted
+ * symbols of their new versions are merged into it.
+ * </p>
+ * <p>
+ * The index is populated in the background by {@link #initialize()}, then
+ * kept up to date from the {@link ElementChangedEvent#POST_CHANGE} Java
+ * element deltas: changed compilation units are re-indexed, removed ones are
+ * dropped.
+ * </p>
+ */
+public class SymbolIndex implements IElementChangedListener {
+
+	private static final long INDEX_DELAY = 200;
+
+	private static final SymbolKind[] KINDS = SymbolKind.values();
+
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Orders names ignoring case first, so that names sharing a first
+	 * character, in any case, are contiguous
+	 */
+	static final Comparator<String> NAME_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+	/**
+	 * The symbols of a compilation unit, in parallel arrays
+	 */
+	private static class UnitSymbols {
+		private final String uri;
+		private final String[] names;
+		private final String[] containers;
+		private final byte[] kinds;
+		private final int[] lines;
+		private final int[] columns;
+		/**
+		 * The indexes of the symbols, sorted by {@link SymbolIndex#NAME_ORDER}
+		 */
+		private final int[] order;
+
+		UnitSymbols(String uri, int size) {
+			this.uri = uri;
+			this.names = new String[size];
+			this.containers = new String[size];
+			this.kinds = new byte[size];
+			this.lines = new int[size];
+			this.columns = new int[size];
+			this.order = new int[size];
+		}
+	}
+
+	/**
+	 * An immutable snapshot of the index, the symbols being sorted by
+	 * {@link SymbolIndex#NAME_ORDER}.
+	 */
+	public static class View {
+		private final UnitSymbols[] units;
+		private final int[] unitIds;
+		private final int[] symbolIds;
+
+		private View(UnitSymbols[] units, int[] unitIds, int[] symbolIds) {
+			this.units = units;
+			this.unitIds = unitIds;
+			this.symbolIds = symbolIds;
+		}
+
+		/**
+		 * @return the number of symbols
+		 */
+		public int size() {
+			return unitIds.length;
+		}
+
+		/**
+		 * Returns the range of the symbols whose name starts with the given
+		 * character, ignoring case.
+		 *
+		 * @return a <code>{start, end}</code> array, the end being excluded
+		 */
+		public int[] getRange(char first) {
+			char lower = Character.toLowerCase(first);
+			return new int[] { firstAfter(lower, false), firstAfter(lower, true) };
+		}
+
+		private int firstAfter(char lower, boolean inclusive) {
+			int low = 0;
+			int high = size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				int cmp = compareFirst(getName(mid), lower);
+				if (cmp < 0 || (inclusive && cmp == 0)) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		private static int compareFirst(String name, char lower) {
+			// consistent with String.CASE_INSENSITIVE_ORDER
+			char c = Character.toLowerCase(Character.toUpperCase(name.charAt(0)));
+			return Character.compare(c, Character.toLowerCase(Character.toUpperCase(lower)));
+		}
+
+		public String getName(int i) {
+			return units[unitIds[i]].names[symbolIds[i]];
+		}
+
+		public String getContainerName(int i) {
+			return units[unitIds[i]].containers[symbolIds[i]];
+		}
+
+		public SymbolKind getKind(int i) {
+			return KINDS[units[unitIds[i]].kinds[symbolIds[i]]];
+		}
+
+		public String getUri(int i) {
+			return units[unitIds[i]].uri;
+		}
+
+		/**
+		 * @return the zero-based line of the symbol name
+		 */
+		public int getLine(int i) {
+			return units[unitIds[i]].lines[symbolIds[i]];
+		}
+
+		/**
+		 * @return the zero-based column of the symbol name
+		 */
+		public int getColumn(int i) {
+			return units[unitIds[i]].columns[symbolIds[i]];
+		}
+	}
+
+	private static final View EMPTY = new View(new UnitSymbols[0], new int[0], new int[0]);
+
+	private final Map<ICompilationUnit, UnitSymbols> units = new ConcurrentHashMap<>();
+
+	/**
+	 * The symbols indexed since the view was last updated, guarded by
+	 * <code>this</code>
+	 */
+	private final Set<UnitSymbols> added = new LinkedHashSet<>();
+
+	/**
+	 * The symbols of the view replaced or removed since it was last updated,
+	 * guarded by <code>this</code>
+	 */
+	private final Set<UnitSymbols> removed = new HashSet<>();
+
+	/**
+	 * Elements waiting to be (re-)indexed: the java model, projects, source
+	 * folders, packages or compilation units
+	 */
+	private final Set<IJavaElement> pending = new LinkedHashSet<>();
+
+	private final Job indexJob = new Job("Index workspace symbols") {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			IJavaElement element;
+			while ((element = nextPending()) != null) {
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				try {
+					index(element, monitor);
+				} catch (JavaModelException e) {
+					JavaLanguageServerPlugin.logException("Failed to index symbols of " + element.getElementName(), e);
+				}
+			}
+			synchronized (SymbolIndex.this) {
+				if (pending.isEmpty()) {
+					ready = initialized;
+				}
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == SymbolIndex.class;
+		}
+	};
+
+	private boolean initialized;
+	private volatile boolean ready;
+	private volatile boolean dirty;
+	private volatile View view = EMPTY;
+
+	public SymbolIndex() {
+		indexJob.setSystem(true);
+		indexJob.setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Starts listening to java element changes and schedules the indexing of
+	 * the whole workspace. Does nothing if the index is already initialized.
+	 */
+	public synchronized void initialize() {
+		if (initialized) {
+			return;
+		}
+		initialized = true;
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+		enqueue(JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()));
+	}
+
+	/**
+	 * @return whether the whole workspace was indexed at least once. Until
+	 *         then, queries only see the units indexed so far.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * @return an up to date snapshot of the index
+	 */
+	public View getView() {
+		if (dirty) {
+			synchronized (this) {
+				if (dirty) {
+					dirty = false;
+					view = updateView(view, added, removed);
+					added.clear();
+					removed.clear();
+				}
+			}
+		}
+		return view;
+	}
+
+	/**
+	 * Stops listening to java element changes and discards the index.
+	 */
+	public synchronized void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		indexJob.cancel();
+		pending.clear();
+		units.clear();
+		added.clear();
+		removed.clear();
+		view = EMPTY;
+		initialized = false;
+		ready = false;
+		dirty = false;
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		int kind = delta.getKind();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_MODEL:
+			break;
+		case IJavaElement.JAVA_PROJECT:
+			if (kind == IJavaElementDelta.REMOVED || (flags & IJavaElementDelta.F_CLOSED) != 0) {
+				remove(element);
+				return;
+			}
+			if (kind == IJavaElementDelta.ADDED || (flags & IJavaElementDelta.F_OPENED) != 0) {
+				enqueue(element);
+				return;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if (((IPackageFragmentRoot) element).isArchive() || (flags & IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED) != 0) {
+				return;
+			}
+			//$FALL-THROUGH$
+		case IJavaElement.PACKAGE_FRAGMENT:
+			if (kind == IJavaElementDelta.REMOVED || (flags & IJavaElementDelta.F_REMOVED_FROM_CLASSPATH) != 0) {
+				remove(element);
+				return;
+			}
+			if (kind == IJavaElementDelta.ADDED || (flags & IJavaElementDelta.F_ADDED_TO_CLASSPATH) != 0) {
+				enqueue(element);
+				return;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			ICompilationUnit unit = (ICompilationUnit) element;
+			if (kind == IJavaElementDelta.REMOVED) {
+				remove(unit);
+			} else if (!unit.isWorkingCopy() || (flags & IJavaElementDelta.F_PRIMARY_RESOURCE) != 0 || kind == IJavaElementDelta.ADDED) {
+				enqueue(unit.getPrimary());
+			}
+			return;
+		default:
+			return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private synchronized void enqueue(IJavaElement element) {
+		pending.add(element);
+		indexJob.schedule(INDEX_DELAY);
+	}
+
+	private synchronized IJavaElement nextPending() {
+		if (pending.isEmpty()) {
+			return null;
+		}
+		IJavaElement element = pending.iterator().next();
+		pending.remove(element);
+		return element;
+	}
+
+	/**
+	 * Discards the symbols of the units contained in the given element
+	 */
+	private void remove(IJavaElement element) {
+		if (element instanceof ICompilationUnit) {
+			update((ICompilationUnit) element, null);
+			return;
+		}
+		for (ICompilationUnit unit : units.keySet()) {
+			if (isAncestor(element, unit)) {
+				update(unit, null);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the symbols of a unit, recording the change until the view is
+	 * updated
+	 *
+	 * @param symbols the new symbols, or <code>null</code> to remove the unit
+	 */
+	private synchronized void update(ICompilationUnit unit, UnitSymbols symbols) {
+		UnitSymbols previous = symbols == null ? units.remove(unit) : units.put(unit, symbols);
+		// symbols that never made it to the view are simply forgotten
+		if (previous != null && !added.remove(previous)) {
+			removed.add(previous);
+		}
+		if (symbols != null) {
+			added.add(symbols);
+		}
+		dirty = !added.isEmpty() || !removed.isEmpty();
+	}
+
+	private static boolean isAncestor(IJavaElement ancestor, IJavaElement element) {
+		for (IJavaElement parent = element.getParent(); parent != null; parent = parent.getParent()) {
+			if (parent.equals(ancestor)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void index(IJavaElement element, IProgressMonitor monitor) throws JavaModelException {
+		if (monitor.isCanceled() || !element.exists()) {
+			remove(element);
+			return;
+		}
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_MODEL:
+			for (IJavaProject project : element.getJavaModel().getJavaProjects()) {
+				index(project, monitor);
+			}
+			break;
+		case IJavaElement.JAVA_PROJECT:
+			for (IPackageFragmentRoot root : ((IJavaProject) element).getPackageFragmentRoots()) {
+				if (root.getKind() == IPackageFragmentRoot.K_SOURCE && root.getJavaProject().equals(element)) {
+					index(root, monitor);
+				}
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if (((IPackageFragmentRoot) element).getKind() == IPackageFragmentRoot.K_SOURCE) {
+				for (IJavaElement fragment : ((IPackageFragmentRoot) element).getChildren()) {
+					index(fragment, monitor);
+				}
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT:
+			for (ICompilationUnit unit : ((IPackageFragment) element).getCompilationUnits()) {
+				index(unit, monitor);
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			indexUnit((ICompilationUnit) element);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void indexUnit(ICompilationUnit unit) throws JavaModelException {
+		List<IMember> members = new ArrayList<>();
+		for (IType type : unit.getTypes()) {
+			collectMembers(type, members);
+		}
+		LineIndex lines = new LineIndex(unit.getSource());
+		UnitSymbols symbols = new UnitSymbols(JDTUtils.getFileURI(unit), members.size());
+		for (int i = 0; i < members.size(); i++) {
+			IMember member = members.get(i);
+			symbols.names[i] = member.getElementName().intern();
+			IType declaringType = member.getDeclaringType();
+			symbols.containers[i] = (declaringType == null ? unit.getParent().getElementName()
+					: declaringType.getFullyQualifiedName('.')).intern();
+			symbols.kinds[i] = (byte) DocumentSymbolHandler.mapKind(member).ordinal();
+			ISourceRange nameRange = member.getNameRange();
+			int[] position = nameRange == null ? null : lines.toPosition(nameRange.getOffset());
+			if (position != null) {
+				symbols.lines[i] = position[0];
+				symbols.columns[i] = position[1];
+			}
+		}
+		long[] pairs = new long[members.size()];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = i;
+		}
+		sort(pairs, new long[pairs.length], 0, pairs.length, new UnitSymbols[] { symbols });
+		for (int i = 0; i < pairs.length; i++) {
+			symbols.order[i] = (int) pairs[i];
+		}
+		update(unit, symbols);
+	}
+
+	private static void collectMembers(IType type, List<IMember> members) throws JavaModelException {
+		members.add(type);
+		for (IField field : type.getFields()) {
+			members.add(field);
+		}
+		for (IMethod method : type.getMethods()) {
+			members.add(method);
+		}
+		for (IType memberType : type.getTypes()) {
+			collectMembers(memberType, members);
+		}
+	}
+
+	/**
+	 * Creates a view from the previous one, without the symbols that were
+	 * replaced or removed and with the new ones. The retained symbols are
+	 * still sorted: only the new ones are sorted, then inserted at the
+	 * positions found by binary search.
+	 */
+	private static View updateView(View previous, Set<UnitSymbols> added, Set<UnitSymbols> removed) {
+		// the retained units first, then the new ones
+		List<UnitSymbols> table = new ArrayList<>(previous.units.length + added.size());
+		int[] unitMap = new int[previous.units.length];
+		for (int u = 0; u < previous.units.length; u++) {
+			if (removed.contains(previous.units[u])) {
+				unitMap[u] = -1;
+			} else {
+				unitMap[u] = table.size();
+				table.add(previous.units[u]);
+			}
+		}
+		int firstAdded = table.size();
+		table.addAll(added);
+		UnitSymbols[] unitTable = table.toArray(new UnitSymbols[table.size()]);
+
+		// the retained symbols, in the previous order
+		int[] keptUnitIds = new int[previous.size()];
+		int[] keptSymbolIds = new int[previous.size()];
+		int kept = 0;
+		for (int i = 0; i < previous.size(); i++) {
+			int u = unitMap[previous.unitIds[i]];
+			if (u >= 0) {
+				keptUnitIds[kept] = u;
+				keptSymbolIds[kept++] = previous.symbolIds[i];
+			}
+		}
+
+		// the new symbols, merged from the sorted runs of their units
+		int size = 0;
+		for (int u = firstAdded; u < unitTable.length; u++) {
+			size += unitTable[u].order.length;
+		}
+		long[] pairs = new long[size];
+		int i = 0;
+		for (int u = firstAdded; u < unitTable.length; u++) {
+			for (int s : unitTable[u].order) {
+				pairs[i++] = ((long) u << 32) | s;
+			}
+		}
+		sort(pairs, new long[size], 0, size, unitTable);
+
+		int[] unitIds = new int[kept + size];
+		int[] symbolIds = new int[kept + size];
+		int from = 0;
+		int to = 0;
+		for (long pair : pairs) {
+			// after the retained symbols of the same name
+			String name = getName(unitTable, pair);
+			int low = from;
+			int high = kept;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (compareNames(unitTable[keptUnitIds[mid]].names[keptSymbolIds[mid]], name) <= 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			System.arraycopy(keptUnitIds, from, unitIds, to, low - from);
+			System.arraycopy(keptSymbolIds, from, symbolIds, to, low - from);
+			to += low - from;
+			from = low;
+			unitIds[to] = (int) (pair >>> 32);
+			symbolIds[to++] = (int) pair;
+		}
+		System.arraycopy(keptUnitIds, from, unitIds, to, kept - from);
+		System.arraycopy(keptSymbolIds, from, symbolIds, to, kept - from);
+		return new View(unitTable, unitIds, symbolIds);
+	}
+
+	/**
+	 * Merge sorts, by {@link #NAME_ORDER}, the pairs from <code>from</code>,
+	 * included, to <code>to</code>, excluded. The sort is stable, symbols of
+	 * the same name keep the order of their units.
+	 */
+	private static void sort(long[] pairs, long[] buffer, int from, int to, UnitSymbols[] units) {
+		if (to - from <= INSERTION_SORT_THRESHOLD) {
+			for (int i = from + 1; i < to; i++) {
+				long pair = pairs[i];
+				String name = getName(units, pair);
+				int j = i - 1;
+				for (; j >= from && compareNames(getName(units, pairs[j]), name) > 0; j--) {
+					pairs[j + 1] = pairs[j];
+				}
+				pairs[j + 1] = pair;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		sort(pairs, buffer, from, mid, units);
+		sort(pairs, buffer, mid, to, units);
+		if (compareNames(getName(units, pairs[mid - 1]), getName(units, pairs[mid])) <= 0) {
+			return;
+		}
+		System.arraycopy(pairs, from, buffer, from, to - from);
+		int left = from;
+		int right = mid;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < mid && compareNames(getName(units, buffer[left]), getName(units, buffer[right])) <= 0)) {
+				pairs[i] = buffer[left++];
+			} else {
+				pairs[i] = buffer[right++];
+			}
+		}
+	}
+
+	private static String getName(UnitSymbols[] units, long pair) {
+		return units[(int) (pair >>> 32)].names[(int) pair];
+	}
+
+	private static int compareNames(String a, String b) {
+		// names are interned
+		return a == b ? 0 : NAME_ORDER.compare(a, b);
+	}
+}
@@ -245,8 +245,9 @@ public class CompletionProposalDescriptionProvider {
 	 *
 	 * @param methodProposal the method proposal to display
 	 * @param item to update
+	 * @param details whether to update the detail and data of the item too
 	 */
-	private void createMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item) {
+	private void createMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item, boolean details) {
 		StringBuilder description = new StringBuilder();
 
 		// method name
@@ -266,6 +267,9 @@ public class CompletionProposalDescriptionProvider {
 		}
 
 		item.setLabel(description.toString());
+		if (!details) {
+			return;
+		}
 		// declaring type
 		StringBuilder typeInfo = new StringBuilder();
 		String declaringType= extractDeclaringTypeFQN(methodProposal);
@@ -297,17 +301,21 @@ public class CompletionProposalDescriptionProvider {
 	 *
 	 * @param methodProposal the method proposal to display
 	 * @param item the item to set values to
+	 * @param details whether to update the detail of the item too
 	 */
-	private void createJavadocMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item) {
+	private void createJavadocMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item, boolean details) {
 		// method name
 		item.setLabel(String.valueOf(methodProposal.getCompletion()));
+		if (!details) {
+			return;
+		}
 		// declaring type
 		String declaringType= extractDeclaringTypeFQN(methodProposal);
 		declaringType= Signature.getSimpleName(declaringType);
 		item.setDetail(declaringType);
 	}
 
-	private void createOverrideMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item) {
+	private void createOverrideMethodProposalLabel(CompletionProposal methodProposal, CompletionItem item, boolean details) {
 		StringBuilder nameBuffer= new StringBuilder();
 
 		// method name
@@ -324,6 +332,9 @@ public class CompletionProposalDescriptionProvider {
 		char[] returnType= createTypeDisplayName(SignatureUtil.getUpperBound(Signature.getReturnType(SignatureUtil.fix83600(methodProposal.getSignature()))));
 		nameBuffer.append(returnType);
 		item.setLabel(nameBuffer.toString());
+		if (!details) {
+			return;
+		}
 
 		// declaring type
 		StringBuilder typeBuffer = new StringBuilder();
@@ -368,8 +379,9 @@ public class CompletionProposalDescriptionProvider {
 	 *
 	 * @param typeProposal the method proposal to display
 	 * @param item the completion to update
+	 * @param details whether to update the data of the item too
 	 */
-	private void createTypeProposalLabel(CompletionProposal typeProposal, CompletionItem item) {
+	private void createTypeProposalLabel(CompletionProposal typeProposal, CompletionItem item, boolean details) {
 		char[] signature;
 		if (fContext != null && fContext.isInJavadoc())
 			signature= Signature.getTypeErasure(typeProposal.getSignature());
@@ -377,12 +389,14 @@ public class CompletionProposalDescriptionProvider {
 			signature= typeProposal.getSignature();
 		char[] fullName= Signature.toCharArray(signature);
 		createTypeProposalLabel(fullName, item);
-		setDeclarationSignature(item, String.valueOf(signature));
+		if (details) {
+			setDeclarationSignature(item, String.valueOf(signature));
+		}
 	}
 
-	private void createJavadocTypeProposalLabel(CompletionProposal typeProposal, CompletionItem item) {
+	private void createJavadocTypeProposalLabel(CompletionProposal typeProposal, CompletionItem item, boolean details) {
 		char[] fullName= Signature.toCharArray(typeProposal.getSignature());
-		createJavadocTypeProposalLabel(fullName, item);
+		createJavadocTypeProposalLabel(fullName, item, details);
 	}
 
 	private void createJavadocSimpleProposalLabel(CompletionProposal proposal, CompletionItem item) {
@@ -401,7 +415,7 @@ public class CompletionProposalDescriptionProvider {
 		item.setLabel(nameBuffer.toString());
 	}
 
-	private void createJavadocTypeProposalLabel(char[] fullName, CompletionItem item) {
+	private void createJavadocTypeProposalLabel(char[] fullName, CompletionItem item, boolean details) {
 		// only display innermost type name as type name, using any
 		// enclosing types as qualification
 		int qIndex= findSimpleNameStart(fullName);
@@ -414,7 +428,7 @@ public class CompletionProposalDescriptionProvider {
 		nameBuffer.append('}');
 		item.setLabel(nameBuffer.toString());
 
-		if (qIndex > 0) {
+		if (details && qIndex > 0) {
 			item.setDetail(new String(fullName, 0, qIndex - 1));
 		}
 	}
@@ -455,7 +469,7 @@ public class CompletionProposalDescriptionProvider {
 		return string[0] == 't' && string[1] == 'h' && string[2] == 'i' && string[3] == 's' && string[4] == '.';
 	}
 
-	private void createLabelWithTypeAndDeclaration(CompletionProposal proposal, CompletionItem item) {
+	private void createLabelWithTypeAndDeclaration(CompletionProposal proposal, CompletionItem item, boolean details) {
 		char[] name= proposal.getCompletion();
 		if (!isThisPrefix(name))
 			name= proposal.getName();
@@ -468,6 +482,9 @@ public class CompletionProposalDescriptionProvider {
 			buf.append(typeName);
 		}
 		item.setLabel(buf.toString());
+		if (!details) {
+			return;
+		}
 
 		char[] declaration= proposal.getDeclarationSignature();
 		if (declaration != null) {
@@ -501,7 +518,7 @@ public class CompletionProposalDescriptionProvider {
 		return buf;
 	}
 
-	private void createAnonymousTypeLabel(CompletionProposal proposal, CompletionItem item) {
+	private void createAnonymousTypeLabel(CompletionProposal proposal, CompletionItem item, boolean details) {
 		char[] declaringTypeSignature= proposal.getDeclarationSignature();
 		declaringTypeSignature= Signature.getTypeErasure(declaringTypeSignature);
 
@@ -514,6 +531,9 @@ public class CompletionProposalDescriptionProvider {
 		buf.append("  "); //$NON-NLS-1$
 		buf.append("Anonymous Inner Type"); //TODO: consider externalization
 		item.setLabel(buf.toString());
+		if (!details) {
+			return;
+		}
 
 		if (proposal.getRequiredProposals() != null) {
 			char[] signatureQualifier= Signature.getSignatureQualifier(declaringTypeSignature);
@@ -560,6 +580,21 @@ public class CompletionProposalDescriptionProvider {
 	 * @param item
 	 */
 	public void updateDescription(CompletionProposal proposal, CompletionItem item) {
+		updateDescription(proposal, item, true);
+	}
+
+	/**
+	 * Updates the label of the item only, leaving its detail and data
+	 * unchanged.
+	 *
+	 * @param proposal
+	 * @param item
+	 */
+	public void updateLabel(CompletionProposal proposal, CompletionItem item) {
+		updateDescription(proposal, item, false);
+	}
+
+	private void updateDescription(CompletionProposal proposal, CompletionItem item, boolean details) {
 		switch (proposal.getKind()) {
 		case CompletionProposal.METHOD_NAME_REFERENCE:
 		case CompletionProposal.METHOD_REF:
@@ -567,23 +602,23 @@ public class CompletionProposalDescriptionProvider {
 		case CompletionProposal.METHOD_REF_WITH_CASTED_RECEIVER:
 		case CompletionProposal.POTENTIAL_METHOD_DECLARATION:
 			if (fContext != null && fContext.isInJavadoc()){
-				createJavadocMethodProposalLabel(proposal, item);
+				createJavadocMethodProposalLabel(proposal, item, details);
 				break;
 			}
-			createMethodProposalLabel(proposal,item);
+			createMethodProposalLabel(proposal, item, details);
 			break;
 		case CompletionProposal.METHOD_DECLARATION:
-			createOverrideMethodProposalLabel(proposal,item);
+			createOverrideMethodProposalLabel(proposal, item, details);
 			break;
 		case CompletionProposal.ANONYMOUS_CLASS_DECLARATION:
 		case CompletionProposal.ANONYMOUS_CLASS_CONSTRUCTOR_INVOCATION:
-			createAnonymousTypeLabel(proposal, item);
+			createAnonymousTypeLabel(proposal, item, details);
 			break;
 		case CompletionProposal.TYPE_REF:
-			createTypeProposalLabel(proposal, item);
+			createTypeProposalLabel(proposal, item, details);
 			break;
 		case CompletionProposal.JAVADOC_TYPE_REF:
-			createJavadocTypeProposalLabel(proposal, item);
+			createJavadocTypeProposalLabel(proposal, item, details);
 			break;
 		case CompletionProposal.JAVADOC_FIELD_REF:
 		case CompletionProposal.JAVADOC_VALUE_REF:
@@ -593,7 +628,7 @@ public class CompletionProposalDescriptionProvider {
 			createJavadocSimpleProposalLabel(proposal, item);
 			break;
 		case CompletionProposal.JAVADOC_METHOD_REF:
-			createJavadocMethodProposalLabel(proposal, item);
+			createJavadocMethodProposalLabel(proposal, item, details);
 			break;
 		case CompletionProposal.PACKAGE_REF:
 			createPackageProposalLabel(proposal, item);
@@ -601,7 +636,7 @@ public class CompletionProposalDescriptionProvider {
 		case CompletionProposal.ANNOTATION_ATTRIBUTE_REF:
 		case CompletionProposal.FIELD_REF:
 		case CompletionProposal.FIELD_REF_WITH_CASTED_RECEIVER:
-			createLabelWithTypeAndDeclaration(proposal, item);
+			createLabelWithTypeAndDeclaration(proposal, item, details);
 			break;
 		case CompletionProposal.LOCAL_VARIABLE_REF:
 		case CompletionProposal.VARIABLE_DECLARATION:
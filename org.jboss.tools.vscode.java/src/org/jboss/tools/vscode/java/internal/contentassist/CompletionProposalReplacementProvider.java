@@ -16,8 +16,6 @@ import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -29,7 +27,6 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.compiler.CharOperation;
-import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.IBinding;
@@ -41,10 +38,9 @@ import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.Range;
-import org.eclipse.text.edits.TextEdit;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
-import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
-import org.jboss.tools.vscode.java.internal.TextEditConverter;
+import org.jboss.tools.vscode.java.internal.SharedASTProvider;
+import org.jboss.tools.vscode.java.internal.handlers.CompletionResolveHandler;
 import org.jboss.tools.vscode.java.internal.handlers.JsonRpcHelpers;
 
 /**
@@ -68,13 +64,29 @@ public class CompletionProposalReplacementProvider {
 	private final ICompilationUnit compilationUnit;
 	private final int offset;
 	private CompletionContext context;
+	private final ImportContext importContext;
+	private final boolean deferImportEdits;
 	private ImportRewrite importRewrite;
+	private ITypeBinding expectedTypeForGenericParameters;
+	private boolean expectedTypeResolved;
 
 	public CompletionProposalReplacementProvider(ICompilationUnit compilationUnit, CompletionContext context, int offset) {
+		this(compilationUnit, context, offset, new ImportContext(compilationUnit), false);
+	}
+
+	/**
+	 * @param importContext the import state shared by the proposals of the request
+	 * @param deferImportEdits whether the imports added by a proposal are only
+	 *        recorded in the item data, for their edits to be computed when the
+	 *        item is resolved
+	 */
+	public CompletionProposalReplacementProvider(ICompilationUnit compilationUnit, CompletionContext context, int offset, ImportContext importContext, boolean deferImportEdits) {
 		super();
 		this.compilationUnit = compilationUnit;
 		this.context = context;
 		this.offset = offset;
+		this.importContext = importContext;
+		this.deferImportEdits = deferImportEdits;
 	}
 
 
@@ -89,8 +101,8 @@ public class CompletionProposalReplacementProvider {
 	 */
 	public void updateReplacement(CompletionProposal proposal, CompletionItem item, char trigger, List<Integer> positions) {
 
-		// reset importRewrite
-		this.importRewrite = TypeProposalUtils.createImportRewrite(compilationUnit);
+		// reset importRewrite, on the import state shared by all the proposals
+		this.importRewrite = importContext.createImportRewrite();
 
 		List<org.eclipse.lsp4j.TextEdit> additionalTextEdits = new ArrayList<>();
 
@@ -124,7 +136,11 @@ public class CompletionProposalReplacementProvider {
 			// fallback
 			item.setInsertText(completionBuffer.toString());
 		}
-		addImports(additionalTextEdits);
+		if (deferImportEdits && importRewrite != null && importRewrite.hasRecordedChanges()) {
+			deferImports(item);
+		} else {
+			additionalTextEdits.addAll(importContext.getEdits(importRewrite));
+		}
 		if(!additionalTextEdits.isEmpty()){
 			item.setAdditionalTextEdits(additionalTextEdits);
 		}
@@ -141,19 +157,15 @@ public class CompletionProposalReplacementProvider {
 	}
 
 	/**
-	 * Adds imports collected by importRewrite to item
+	 * Records the imports collected by importRewrite in the item data, for
+	 * {@link CompletionResolveHandler} to compute their edits
 	 * @param item
 	 */
-	private void addImports(List<org.eclipse.lsp4j.TextEdit> additionalEdits) {
-		if(this.importRewrite != null ){
-			try {
-				TextEdit edit =  this.importRewrite.rewriteImports(new NullProgressMonitor());
-				TextEditConverter converter = new TextEditConverter(this.compilationUnit, edit);
-				additionalEdits.addAll(converter.convert());
-			} catch (CoreException e) {
-				JavaLanguageServerPlugin.logException("Error adding imports",e);
-			}
-		}
+	@SuppressWarnings("unchecked")
+	private void deferImports(CompletionItem item) {
+		Map<String, String> data = (Map<String, String>) item.getData();
+		data.put(CompletionResolveHandler.DATA_FIELD_IMPORTS, String.join(",", importRewrite.getAddedImports()));
+		data.put(CompletionResolveHandler.DATA_FIELD_STATIC_IMPORTS, String.join(",", importRewrite.getAddedStaticImports()));
 	}
 
 	private boolean isSupportingRequiredProposals(CompletionProposal proposal) {
@@ -548,6 +560,15 @@ public class CompletionProposalReplacementProvider {
 	}
 
 	private ITypeBinding getExpectedTypeForGenericParameters() {
+		// the expected type only depends on the completion context, resolve it once per request
+		if (!expectedTypeResolved) {
+			expectedTypeForGenericParameters = resolveExpectedTypeForGenericParameters();
+			expectedTypeResolved = true;
+		}
+		return expectedTypeForGenericParameters;
+	}
+
+	private ITypeBinding resolveExpectedTypeForGenericParameters() {
 		char[][] chKeys= context.getExpectedTypesKeys();
 		if (chKeys == null || chKeys.length == 0)
 			return null;
@@ -557,7 +578,7 @@ public class CompletionProposalReplacementProvider {
 			keys[i]= String.valueOf(chKeys[0]);
 		}
 
-		final ASTParser parser= ASTParser.newParser(AST.JLS8);
+		final ASTParser parser= ASTParser.newParser(SharedASTProvider.AST_LEVEL);
 		parser.setProject(compilationUnit.getJavaProject());
 		parser.setResolveBindings(true);
 		parser.setStatementsRecovery(true);
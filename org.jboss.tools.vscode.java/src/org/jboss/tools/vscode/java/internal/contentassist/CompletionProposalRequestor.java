@@ -26,16 +26,33 @@ import org.jboss.tools.vscode.java.internal.handlers.CompletionResolveHandler;
 public final class CompletionProposalRequestor extends CompletionRequestor {
 
 	private final List<CompletionItem> proposals;
+	private final List<CompletionProposal> acceptedProposals = new ArrayList<>();
 	private final ICompilationUnit unit;
 	private final int triggerOffset;
+	private final boolean deferImportEdits;
+	private final CompletionProposalStore store;
+	private CompletionProposalStore.Session session;
+	private CompletionContext context;
 	private CompletionProposalReplacementProvider proposalProvider;
 	private CompletionProposalDescriptionProvider descriptionProvider;
 
 
 	public CompletionProposalRequestor( ICompilationUnit aUnit, List<CompletionItem> proposals, int offset) {
+		this(aUnit, proposals, offset, false, null);
+	}
+
+	/**
+	 * @param deferImportEdits whether the import edits are only computed when the items are resolved
+	 * @param store the store retaining the proposals, for the items to be only
+	 *        labelled and their other fields computed when they are resolved,
+	 *        <code>null</code> to compute the items fully
+	 */
+	public CompletionProposalRequestor( ICompilationUnit aUnit, List<CompletionItem> proposals, int offset, boolean deferImportEdits, CompletionProposalStore store) {
 		this.proposals = proposals;
 		this.unit = aUnit;
 		this.triggerOffset = offset;
+		this.deferImportEdits = deferImportEdits;
+		this.store = store;
 		setRequireExtendedContext(true);
 	}
 
@@ -45,6 +62,19 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		final CompletionItem $ = new CompletionItem();
 		$.setKind(mapKind(proposal.getKind()));
 		Map<String, String> data = new HashMap<>();
+		if (session != null) {
+			// only the label is needed to filter the items, the rest is computed on resolve;
+			// the plain completion is inserted by the clients not resolving the items
+			this.descriptionProvider.updateLabel(proposal, $);
+			$.setInsertText(String.valueOf(proposal.getCompletion()));
+			$.setData(data);
+			data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, String.valueOf(session.getId()));
+			data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID, String.valueOf(session.add(proposal, context)));
+			$.setSortText(SortTextHelper.computeSortText(proposal));
+			proposals.add($);
+			acceptedProposals.add(proposal);
+			return;
+		}
 		// append data field so that resolve request can use it.
 		data.put(CompletionResolveHandler.DATA_FIELD_URI,unit.getResource().getLocationURI().toString());
 		$.setData(data);
@@ -52,13 +82,28 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		this.proposalProvider.updateReplacement(proposal,$, '\0',new ArrayList<Integer>());
 		$.setSortText(SortTextHelper.computeSortText(proposal));
 		proposals.add($);
+		acceptedProposals.add(proposal);
+	}
+
+	/**
+	 * @return the proposals of the items created, in the same order
+	 */
+	public List<CompletionProposal> getAcceptedProposals() {
+		return acceptedProposals;
 	}
 
 	@Override
 	public void acceptContext(CompletionContext context) {
 		super.acceptContext(context);
-		this.proposalProvider = new CompletionProposalReplacementProvider(unit,context, triggerOffset);
+		this.context = context;
 		this.descriptionProvider = new CompletionProposalDescriptionProvider(context);
+		if (store != null) {
+			this.session = store.createSession(unit, triggerOffset, context);
+			return;
+		}
+		// one import context for all the proposals of this request
+		ImportContext importContext = new ImportContext(unit);
+		this.proposalProvider = new CompletionProposalReplacementProvider(unit,context, triggerOffset, importContext, deferImportEdits);
 	}
 
 
@@ -0,0 +1,474 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.contentassist;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.CompletionContext;
+import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.handlers.ReconcileScheduler;
+
+/**
+ * Retains the data of the {@link CompletionProposal}s of the recent
+ * completion requests, so that the items sent to the client only carry a
+ * request and a proposal identifier, their expensive fields being computed
+ * when they are resolved.
+ * <p>
+ * The proposals and the context of a request are copied, the ones of the
+ * completion engine referencing the engine itself and its name lookup. A
+ * session is computed on a document version. When the document changed
+ * since, i.e. the client filtered the items while more of the identifier was
+ * typed, the ranges of the proposals are extended by the inserted
+ * characters; any other change invalidates the session. Only the most recent
+ * sessions are kept, the oldest being evicted first; resolving an item of an
+ * evicted or invalidated session leaves it unchanged.
+ * </p>
+ */
+public class CompletionProposalStore {
+
+	private static final int MAX_SESSIONS = 4;
+
+	/**
+	 * The proposals of one completion request.
+	 */
+	public static class Session {
+		private final long id;
+		private final ICompilationUnit unit;
+		private final Integer version;
+		private final int offset;
+		private final CompletionContext context;
+		private final List<CompletionProposal> proposals = new ArrayList<>();
+		/**
+		 * The length of the document and the identifier characters preceding
+		 * the offset, when the session was created
+		 */
+		private final int length;
+		private final String prefix;
+
+		private Session(long id, ICompilationUnit unit, Integer version, int offset, CompletionContext context) {
+			this.id = id;
+			this.unit = unit;
+			this.version = version;
+			this.offset = offset;
+			this.context = context instanceof StoredContext ? context : new StoredContext(context);
+			IBuffer buffer = getBuffer(unit);
+			this.length = buffer == null ? -1 : buffer.getLength();
+			this.prefix = buffer == null ? null : getPrefix(buffer, offset);
+		}
+
+		/**
+		 * @return a session with the given identifier, for the current
+		 *         version of the unit and the given offset, whose proposals
+		 *         are extended by the characters inserted since
+		 */
+		private Session shift(long newId, int newOffset) {
+			Session session = new Session(newId, unit, getVersion(unit), newOffset, context);
+			int delta = newOffset - offset;
+			synchronized (this) {
+				for (CompletionProposal proposal : proposals) {
+					session.proposals.add(((StoredProposal) proposal).shift(offset, delta));
+				}
+			}
+			return session;
+		}
+
+		/**
+		 * @return the number of identifier characters inserted at the offset
+		 *         since the session was created, or <code>-1</code> if the
+		 *         document was changed otherwise
+		 */
+		private int getInsertedLength() {
+			IBuffer buffer = getBuffer(unit);
+			if (buffer == null || prefix == null) {
+				return -1;
+			}
+			int delta = buffer.getLength() - length;
+			if (delta < 0 || !prefix.equals(getPrefix(buffer, offset))) {
+				return -1;
+			}
+			for (int i = offset; i < offset + delta; i++) {
+				if (!Character.isJavaIdentifierPart(buffer.getChar(i))) {
+					return -1;
+				}
+			}
+			return delta;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public ICompilationUnit getUnit() {
+			return unit;
+		}
+
+		public int getOffset() {
+			return offset;
+		}
+
+		public CompletionContext getContext() {
+			return context;
+		}
+
+		/**
+		 * Retains a copy of a proposal.
+		 *
+		 * @param proposal a proposal of the completion engine
+		 * @param context the context of the completion engine
+		 * @return the identifier of the proposal in the session
+		 */
+		public synchronized int add(CompletionProposal proposal, CompletionContext context) {
+			proposals.add(new StoredProposal(proposal, context));
+			return proposals.size() - 1;
+		}
+
+		/**
+		 * @return the proposal with the given identifier, or <code>null</code>
+		 */
+		public synchronized CompletionProposal get(int proposalId) {
+			return proposalId < 0 || proposalId >= proposals.size() ? null : proposals.get(proposalId);
+		}
+	}
+
+	/**
+	 * The data of a proposal needed to resolve its item
+	 */
+	private static class StoredProposal extends CompletionProposal {
+		private final int kind;
+		private final int completionLocation;
+		private final int flags;
+		private final int relevance;
+		private final int replaceStart;
+		private final int replaceEnd;
+		private final int tokenStart;
+		private final int tokenEnd;
+		private final char[] completion;
+		private final char[] name;
+		private final char[] signature;
+		private final char[] declarationSignature;
+		private final char[][] parameterNames;
+		private final boolean constructor;
+		private final boolean canUseDiamond;
+		private final CompletionProposal[] requiredProposals;
+
+		private StoredProposal(StoredProposal proposal, int offset, int delta) {
+			this.kind = proposal.kind;
+			this.completionLocation = proposal.completionLocation;
+			this.flags = proposal.flags;
+			this.relevance = proposal.relevance;
+			this.completion = proposal.completion;
+			this.name = proposal.name;
+			this.signature = proposal.signature;
+			this.declarationSignature = proposal.declarationSignature;
+			this.parameterNames = proposal.parameterNames;
+			this.constructor = proposal.constructor;
+			this.canUseDiamond = proposal.canUseDiamond;
+			this.replaceStart = proposal.replaceStart;
+			this.tokenStart = proposal.tokenStart;
+			// the replaced identifier grew by the inserted characters
+			this.replaceEnd = proposal.replaceEnd >= offset ? proposal.replaceEnd + delta : proposal.replaceEnd;
+			this.tokenEnd = proposal.tokenEnd >= offset ? proposal.tokenEnd + delta : proposal.tokenEnd;
+			if (proposal.requiredProposals == null) {
+				this.requiredProposals = null;
+			} else {
+				this.requiredProposals = new CompletionProposal[proposal.requiredProposals.length];
+				for (int i = 0; i < requiredProposals.length; i++) {
+					this.requiredProposals[i] = ((StoredProposal) proposal.requiredProposals[i]).shift(offset, delta);
+				}
+			}
+		}
+
+		/**
+		 * @return a copy of this proposal whose ranges ending at or after the
+		 *         given offset are extended by <code>delta</code> characters
+		 */
+		StoredProposal shift(int offset, int delta) {
+			return new StoredProposal(this, offset, delta);
+		}
+
+		StoredProposal(CompletionProposal proposal, CompletionContext context) {
+			this.kind = proposal.getKind();
+			this.completionLocation = proposal.getCompletionLocation();
+			this.flags = proposal.getFlags();
+			this.relevance = proposal.getRelevance();
+			this.replaceStart = proposal.getReplaceStart();
+			this.replaceEnd = proposal.getReplaceEnd();
+			this.tokenStart = proposal.getTokenStart();
+			this.tokenEnd = proposal.getTokenEnd();
+			this.completion = proposal.getCompletion();
+			this.name = proposal.getName();
+			this.signature = proposal.getSignature();
+			this.declarationSignature = proposal.getDeclarationSignature();
+			// already computed for the label of the proposals having parameters
+			this.parameterNames = signature != null && signature.length > 0 && signature[0] == '(' ? proposal.findParameterNames(null) : null;
+			this.constructor = proposal.isConstructor();
+			this.canUseDiamond = proposal.canUseDiamond(context);
+			CompletionProposal[] required = proposal.getRequiredProposals();
+			if (required == null) {
+				this.requiredProposals = null;
+			} else {
+				this.requiredProposals = new CompletionProposal[required.length];
+				for (int i = 0; i < required.length; i++) {
+					this.requiredProposals[i] = new StoredProposal(required[i], context);
+				}
+			}
+		}
+
+		@Override
+		public int getKind() {
+			return kind;
+		}
+
+		@Override
+		public int getCompletionLocation() {
+			return completionLocation;
+		}
+
+		@Override
+		public int getFlags() {
+			return flags;
+		}
+
+		@Override
+		public int getRelevance() {
+			return relevance;
+		}
+
+		@Override
+		public int getReplaceStart() {
+			return replaceStart;
+		}
+
+		@Override
+		public int getReplaceEnd() {
+			return replaceEnd;
+		}
+
+		@Override
+		public int getTokenStart() {
+			return tokenStart;
+		}
+
+		@Override
+		public int getTokenEnd() {
+			return tokenEnd;
+		}
+
+		@Override
+		public char[] getCompletion() {
+			return completion;
+		}
+
+		@Override
+		public char[] getName() {
+			return name;
+		}
+
+		@Override
+		public char[] getSignature() {
+			return signature;
+		}
+
+		@Override
+		public char[] getDeclarationSignature() {
+			return declarationSignature;
+		}
+
+		@Override
+		public char[][] findParameterNames(IProgressMonitor monitor) {
+			return parameterNames;
+		}
+
+		@Override
+		public boolean isConstructor() {
+			return constructor;
+		}
+
+		@Override
+		public boolean canUseDiamond(CompletionContext context) {
+			return canUseDiamond;
+		}
+
+		@Override
+		public CompletionProposal[] getRequiredProposals() {
+			return requiredProposals;
+		}
+	}
+
+	/**
+	 * The data of a completion context needed to resolve the items
+	 */
+	private static class StoredContext extends CompletionContext {
+		private final boolean inJavadoc;
+		private final boolean inJavadocText;
+		private final boolean inJavadocFormalReference;
+		private final char[][] expectedTypesKeys;
+		private final int offset;
+		private final int tokenStart;
+		private final int tokenEnd;
+
+		StoredContext(CompletionContext context) {
+			this.inJavadoc = context.isInJavadoc();
+			this.inJavadocText = context.isInJavadocText();
+			this.inJavadocFormalReference = context.isInJavadocFormalReference();
+			this.expectedTypesKeys = context.getExpectedTypesKeys();
+			this.offset = context.getOffset();
+			this.tokenStart = context.getTokenStart();
+			this.tokenEnd = context.getTokenEnd();
+		}
+
+		@Override
+		public boolean isInJavadoc() {
+			return inJavadoc;
+		}
+
+		@Override
+		public boolean isInJavadocText() {
+			return inJavadocText;
+		}
+
+		@Override
+		public boolean isInJavadocFormalReference() {
+			return inJavadocFormalReference;
+		}
+
+		@Override
+		public char[][] getExpectedTypesKeys() {
+			return expectedTypesKeys;
+		}
+
+		@Override
+		public int getOffset() {
+			return offset;
+		}
+
+		@Override
+		public int getTokenStart() {
+			return tokenStart;
+		}
+
+		@Override
+		public int getTokenEnd() {
+			return tokenEnd;
+		}
+	}
+
+	private final Map<Long, Session> sessions = new LinkedHashMap<Long, Session>(16, 0.75f, false) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Session> eldest) {
+			return size() > MAX_SESSIONS;
+		}
+	};
+
+	private long lastId;
+
+	/**
+	 * Starts a session for the current version of the unit, possibly evicting
+	 * the oldest one.
+	 */
+	public synchronized Session createSession(ICompilationUnit unit, int offset, CompletionContext context) {
+		Session session = new Session(++lastId, unit, getVersion(unit), offset, context);
+		sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * Replaces a session by one for the current version of its unit, after
+	 * identifier characters were inserted at the completion offset. The
+	 * proposals keep their identifiers, their ranges are extended by the
+	 * inserted characters.
+	 *
+	 * @param id the identifier of the session
+	 * @param offset the new completion offset
+	 * @return the new session, or <code>null</code> if the session was evicted
+	 */
+	public synchronized Session extendSession(long id, int offset) {
+		Session previous = sessions.remove(id);
+		if (previous == null) {
+			return null;
+		}
+		Session session = previous.shift(++lastId, offset);
+		sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * Returns the session with the given identifier. If its document changed
+	 * since by the insertion of identifier characters at the completion
+	 * offset, the session is replaced by one for the current version, under
+	 * the same identifier, whose proposal ranges are extended by the inserted
+	 * characters.
+	 *
+	 * @return the session with the given identifier, or <code>null</code> if it
+	 *         was evicted or its document changed otherwise
+	 */
+	public synchronized Session getSession(long id) {
+		Session session = sessions.get(id);
+		if (session == null || Objects.equals(session.version, getVersion(session.unit))) {
+			return session;
+		}
+		int inserted = session.getInsertedLength();
+		if (inserted < 0) {
+			sessions.remove(id);
+			return null;
+		}
+		session = session.shift(id, session.offset + inserted);
+		sessions.put(id, session);
+		return session;
+	}
+
+	public synchronized int size() {
+		return sessions.size();
+	}
+
+	public synchronized void clear() {
+		sessions.clear();
+	}
+
+	private static Integer getVersion(ICompilationUnit unit) {
+		ReconcileScheduler scheduler = JavaLanguageServerPlugin.getReconcileScheduler();
+		return scheduler == null ? null : scheduler.getVersion(unit);
+	}
+
+	private static IBuffer getBuffer(ICompilationUnit unit) {
+		try {
+			return unit.getBuffer();
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the identifier characters preceding the given offset, or
+	 *         <code>null</code> if the offset is out of the buffer
+	 */
+	private static String getPrefix(IBuffer buffer, int offset) {
+		if (offset < 0 || offset > buffer.getLength()) {
+			return null;
+		}
+		int start = offset;
+		while (start > 0 && Character.isJavaIdentifierPart(buffer.getChar(start - 1))) {
+			start--;
+		}
+		return buffer.getText(start, offset - start);
+	}
+}
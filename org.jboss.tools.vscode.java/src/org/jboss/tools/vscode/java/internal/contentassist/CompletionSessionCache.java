@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.contentassist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.TextEdit;
+import org.jboss.tools.vscode.java.internal.JDTUtils;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.handlers.CompletionResolveHandler;
+
+/**
+ * Caches the items of the last completion request, so that a request made
+ * after the identifier being completed was only extended is answered by
+ * filtering and re-ranking the cached items, without running the completion
+ * engine again.
+ * <p>
+ * A session is identified by its document, the start offset of the
+ * identifier being completed and a snapshot of the document contents. A
+ * request hits the cache when the only change since the snapshot is the
+ * insertion of identifier characters at the end of the completed prefix.
+ * Only prefixes that narrow the engine results are reused: the prefix was
+ * either not empty, or follows a <code>.</code>.
+ * </p>
+ */
+public class CompletionSessionCache {
+
+	/**
+	 * Match tiers, prepended to the sort text of the re-filtered items.
+	 */
+	private static final char EXACT_MATCH = 'a';
+	private static final char PREFIX_MATCH = 'b';
+	private static final char PREFIX_MATCH_IGNORE_CASE = 'c';
+	private static final char CAMEL_CASE_MATCH = 'd';
+
+	/**
+	 * A cached item, with the replace range of its proposal in the current
+	 * contents. The proposal itself is not retained.
+	 */
+	private static class Entry {
+		private final CompletionItem item;
+		private final String name;
+		private final int replaceStart;
+		private int replaceEnd;
+
+		Entry(CompletionProposal proposal, CompletionItem item) {
+			this.item = item;
+			this.name = getFilterName(item.getLabel());
+			this.replaceStart = proposal.getReplaceStart();
+			this.replaceEnd = proposal.getReplaceEnd();
+		}
+	}
+
+	private static class Session {
+		private final ICompilationUnit unit;
+		private final int replaceStart;
+		private int offset;
+		private String contents;
+		private List<Entry> entries;
+		/**
+		 * The {@link CompletionProposalStore} session resolving the items, -1
+		 * if the items are fully computed
+		 */
+		private long storeSessionId;
+
+		Session(ICompilationUnit unit, int replaceStart, int offset, String contents, List<Entry> entries, long storeSessionId) {
+			this.unit = unit;
+			this.replaceStart = replaceStart;
+			this.offset = offset;
+			this.contents = contents;
+			this.entries = entries;
+			this.storeSessionId = storeSessionId;
+		}
+	}
+
+	private Session session;
+
+	/**
+	 * Caches the result of a completion request, replacing the previous one.
+	 *
+	 * @param unit the completed compilation unit
+	 * @param offset the completion offset
+	 * @param contents the contents of the unit the completion was computed on
+	 * @param proposals the proposals accepted by the completion requestor
+	 * @param items the items of the proposals, in the same order
+	 */
+	public synchronized void put(ICompilationUnit unit, int offset, String contents, List<CompletionProposal> proposals, List<CompletionItem> items) {
+		session = null;
+		int replaceStart = getReplaceStart(contents, offset);
+		if (replaceStart < 0 || proposals.size() != items.size()) {
+			return;
+		}
+		List<Entry> entries = new ArrayList<>(items.size());
+		long storeSessionId = -1;
+		for (int i = 0; i < items.size(); i++) {
+			entries.add(new Entry(proposals.get(i), items.get(i)));
+			String requestId = getData(items.get(i), CompletionResolveHandler.DATA_FIELD_REQUEST_ID);
+			if (requestId != null) {
+				storeSessionId = Long.parseLong(requestId);
+			}
+		}
+		session = new Session(unit, replaceStart, offset, contents, entries, storeSessionId);
+	}
+
+	/**
+	 * Computes the items of a completion request from the cached session,
+	 * if the request only extends its prefix.
+	 *
+	 * @param unit the completed compilation unit
+	 * @param offset the completion offset
+	 * @param contents the current contents of the unit
+	 * @return the matching items, or <code>null</code> if the request does not
+	 *         extend the cached session
+	 */
+	public synchronized List<CompletionItem> refilter(ICompilationUnit unit, int offset, String contents) {
+		if (session == null || !session.unit.equals(unit) || !isPrefixExtension(session, offset, contents)) {
+			return null;
+		}
+		int delta = offset - session.offset;
+		String storeSessionId = null;
+		if (session.storeSessionId >= 0) {
+			// the items are resolved from proposals computed on the previous contents
+			CompletionProposalStore store = JavaLanguageServerPlugin.getCompletionProposalStore();
+			CompletionProposalStore.Session storeSession = store == null ? null : store.extendSession(session.storeSessionId, offset);
+			if (storeSession == null) {
+				session = null;
+				return null;
+			}
+			session.storeSessionId = storeSession.getId();
+			storeSessionId = String.valueOf(storeSession.getId());
+		}
+		char[] prefix = contents.substring(session.replaceStart, offset).toCharArray();
+		boolean camelCase = JavaCore.ENABLED.equals(unit.getJavaProject().getOption(JavaCore.CODEASSIST_CAMEL_CASE_MATCH, true));
+		List<Entry> matches = new ArrayList<>();
+		List<CompletionItem> items = new ArrayList<>();
+		for (Entry entry : session.entries) {
+			char tier = match(prefix, entry.name.toCharArray(), camelCase);
+			if (tier == 0) {
+				continue;
+			}
+			matches.add(entry);
+			if (delta > 0 && entry.replaceEnd >= session.offset) {
+				// the replaced identifier grew by the inserted characters
+				entry.replaceEnd += delta;
+			}
+			CompletionItem item = copy(entry.item);
+			item.setSortText(String.valueOf(tier) + entry.item.getSortText());
+			if (storeSessionId != null && getData(entry.item, CompletionResolveHandler.DATA_FIELD_REQUEST_ID) != null) {
+				@SuppressWarnings("unchecked")
+				Map<String, String> data = new HashMap<>((Map<String, String>) entry.item.getData());
+				data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, storeSessionId);
+				item.setData(data);
+			}
+			if (entry.item.getTextEdit() != null) {
+				try {
+					item.setTextEdit(new TextEdit(JDTUtils.toRange(unit, entry.replaceStart, entry.replaceEnd - entry.replaceStart), entry.item.getTextEdit().getNewText()));
+				} catch (JavaModelException e) {
+					JavaLanguageServerPlugin.logException("Problem with refiltering completion for " + unit.getElementName(), e);
+					session = null;
+					return null;
+				}
+			}
+			items.add(item);
+		}
+		// longer prefixes only match a subset of these entries
+		session.entries = matches;
+		session.offset = offset;
+		session.contents = contents;
+		Collections.sort(items, Comparator.comparing(CompletionItem::getSortText));
+		return items;
+	}
+
+	public synchronized void clear() {
+		session = null;
+	}
+
+	/**
+	 * @return the start offset of the identifier completed at the given
+	 *         offset, or -1 if its proposals would not narrow as it grows
+	 */
+	static int getReplaceStart(String contents, int offset) {
+		if (offset < 0 || offset > contents.length()) {
+			return -1;
+		}
+		int start = offset;
+		while (start > 0 && Character.isJavaIdentifierPart(contents.charAt(start - 1))) {
+			start--;
+		}
+		if (start == offset && (start == 0 || contents.charAt(start - 1) != '.')) {
+			return -1;
+		}
+		return start;
+	}
+
+	private static boolean isPrefixExtension(Session session, int offset, String contents) {
+		int delta = offset - session.offset;
+		if (delta < 0 || contents.length() != session.contents.length() + delta) {
+			return false;
+		}
+		for (int i = session.offset; i < offset; i++) {
+			if (!Character.isJavaIdentifierPart(contents.charAt(i))) {
+				return false;
+			}
+		}
+		return contents.regionMatches(0, session.contents, 0, session.offset)
+				&& contents.regionMatches(offset, session.contents, session.offset, session.contents.length() - session.offset);
+	}
+
+	/**
+	 * @return the match tier of the name, or 0 if it does not match the prefix
+	 */
+	static char match(char[] prefix, char[] name, boolean camelCase) {
+		if (CharOperation.equals(prefix, name)) {
+			return EXACT_MATCH;
+		}
+		if (CharOperation.prefixEquals(prefix, name, true)) {
+			return PREFIX_MATCH;
+		}
+		if (CharOperation.prefixEquals(prefix, name, false)) {
+			return PREFIX_MATCH_IGNORE_CASE;
+		}
+		if (camelCase && CharOperation.camelCaseMatch(prefix, name)) {
+			return CAMEL_CASE_MATCH;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the simple name a label starts with, i.e. <code>put</code> for
+	 *         <code>put(K key, V value) : V</code> or <code>sql</code> for
+	 *         <code>java.sql</code>
+	 */
+	static String getFilterName(String label) {
+		if (label == null) {
+			return "";
+		}
+		int end = 0;
+		while (end < label.length() && (Character.isJavaIdentifierPart(label.charAt(end)) || label.charAt(end) == '.')) {
+			end++;
+		}
+		return label.substring(label.lastIndexOf('.', end - 1) + 1, end);
+	}
+
+	private static String getData(CompletionItem item, String field) {
+		Object data = item.getData();
+		return data instanceof Map ? (String) ((Map<?, ?>) data).get(field) : null;
+	}
+
+	private static CompletionItem copy(CompletionItem item) {
+		CompletionItem $ = new CompletionItem();
+		$.setLabel(item.getLabel());
+		$.setKind(item.getKind());
+		$.setDetail(item.getDetail());
+		$.setDocumentation(item.getDocumentation());
+		$.setFilterText(item.getFilterText());
+		$.setInsertText(item.getInsertText());
+		$.setTextEdit(item.getTextEdit());
+		$.setAdditionalTextEdits(item.getAdditionalTextEdits());
+		$.setCommand(item.getCommand());
+		$.setData(item.getData());
+		return $;
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.contentassist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
+import org.eclipse.lsp4j.TextEdit;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.SharedASTProvider;
+import org.jboss.tools.vscode.java.internal.TextEditConverter;
+
+/**
+ * The import state of a compilation unit, shared by all the proposals of a
+ * completion request.
+ * <p>
+ * The existing imports are read once, from a reduced AST of the unit parsed
+ * on first use, instead of once per proposal. Every proposal gets its own
+ * {@link ImportRewrite} on that AST, so that rewriting its imports does not
+ * parse the unit again, and the additional edits of the proposals adding no
+ * import are computed once.
+ * </p>
+ */
+public class ImportContext {
+
+	private final ICompilationUnit unit;
+	private CompilationUnit astRoot;
+	private boolean parsed;
+	private List<TextEdit> unchangedEdits;
+
+	public ImportContext(ICompilationUnit unit) {
+		this.unit = unit;
+	}
+
+	/**
+	 * @return a new import rewrite on the shared AST, or <code>null</code> if
+	 *         the unit could not be parsed
+	 */
+	public ImportRewrite createImportRewrite() {
+		CompilationUnit root = getASTRoot();
+		if (root == null) {
+			return TypeProposalUtils.createImportRewrite(unit);
+		}
+		return TypeProposalUtils.createImportRewrite(root);
+	}
+
+	/**
+	 * Computes the edits of the given import rewrite. The edits of a rewrite
+	 * recording no change are computed once and shared.
+	 *
+	 * @param rewrite an import rewrite created by this context, may be <code>null</code>
+	 * @return the edits, not to be modified, empty if the rewrite is <code>null</code>
+	 */
+	public List<TextEdit> getEdits(ImportRewrite rewrite) {
+		if (rewrite == null) {
+			return Collections.emptyList();
+		}
+		if (!rewrite.hasRecordedChanges()) {
+			if (unchangedEdits == null) {
+				unchangedEdits = Collections.unmodifiableList(rewrite(unit, rewrite));
+			}
+			return unchangedEdits;
+		}
+		return rewrite(unit, rewrite);
+	}
+
+	/**
+	 * Computes the edits adding the given imports to a unit, i.e. when the
+	 * import edits of a completion proposal are deferred to its resolution.
+	 *
+	 * @param unit a compilation unit
+	 * @param imports the qualified names of the types to import
+	 * @param staticImports the qualified names of the members to import statically
+	 * @return the edits
+	 */
+	public static List<TextEdit> getEdits(ICompilationUnit unit, String[] imports, String[] staticImports) {
+		ImportRewrite rewrite = TypeProposalUtils.createImportRewrite(unit);
+		if (rewrite == null) {
+			return Collections.emptyList();
+		}
+		for (String qualifiedName : imports) {
+			rewrite.addImport(qualifiedName);
+		}
+		for (String qualifiedName : staticImports) {
+			int dot = qualifiedName.lastIndexOf('.');
+			if (dot > 0) {
+				// conflicts were checked when the proposal was computed, the kind does not matter
+				rewrite.addStaticImport(qualifiedName.substring(0, dot), qualifiedName.substring(dot + 1), true);
+			}
+		}
+		return rewrite(unit, rewrite);
+	}
+
+	private static List<TextEdit> rewrite(ICompilationUnit unit, ImportRewrite rewrite) {
+		try {
+			org.eclipse.text.edits.TextEdit edit = rewrite.rewriteImports(new NullProgressMonitor());
+			return new TextEditConverter(unit, edit).convert();
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Error adding imports", e);
+			return new ArrayList<>();
+		}
+	}
+
+	private CompilationUnit getASTRoot() {
+		if (!parsed) {
+			parsed = true;
+			// the same reduced AST ImportRewrite parses when created on a unit
+			ASTParser parser = ASTParser.newParser(SharedASTProvider.AST_LEVEL);
+			parser.setSource(unit);
+			parser.setFocalPosition(0);
+			parser.setResolveBindings(false);
+			ASTNode ast = parser.createAST(null);
+			astRoot = ast instanceof CompilationUnit ? (CompilationUnit) ast : null;
+		}
+		return astRoot;
+	}
+}
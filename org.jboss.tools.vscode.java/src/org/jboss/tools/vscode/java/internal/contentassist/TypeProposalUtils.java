@@ -23,6 +23,7 @@ import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
 import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
@@ -155,11 +156,7 @@ public class TypeProposalUtils {
 
 	static ImportRewrite createImportRewrite(ICompilationUnit compilationUnit) {
 		try {
-			ImportRewrite rewrite = ImportRewrite.create(compilationUnit, true);
-			rewrite.setImportOrder(IMPORTS_ORDER);
-			rewrite.setOnDemandImportThreshold(IMPORTS_THRESHOLD);
-			rewrite.setStaticOnDemandImportThreshold(IMPORTS_THRESHOLD);
-			return rewrite;
+			return configure(ImportRewrite.create(compilationUnit, true));
 		} catch (JavaModelException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -167,6 +164,21 @@ public class TypeProposalUtils {
 		}
 	}
 
+	/**
+	 * Creates an import rewrite on an already parsed compilation unit, so that
+	 * rewriting the imports does not parse it again.
+	 */
+	static ImportRewrite createImportRewrite(CompilationUnit astRoot) {
+		return configure(ImportRewrite.create(astRoot, true));
+	}
+
+	private static ImportRewrite configure(ImportRewrite rewrite) {
+		rewrite.setImportOrder(IMPORTS_ORDER);
+		rewrite.setOnDemandImportThreshold(IMPORTS_THRESHOLD);
+		rewrite.setStaticOnDemandImportThreshold(IMPORTS_THRESHOLD);
+		return rewrite;
+	}
+
 	static boolean isImplicitImport(String qualifier, ICompilationUnit cu) {
 		if ("java.lang".equals(qualifier)) { //$NON-NLS-1$
 			return true;
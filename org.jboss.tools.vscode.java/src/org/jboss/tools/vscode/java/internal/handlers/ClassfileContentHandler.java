@@ -10,35 +10,31 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.handlers;
 
-import java.util.concurrent.CompletableFuture;
-
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 
 public class ClassfileContentHandler {
 
-	public CompletableFuture<String> contents(TextDocumentIdentifier param) {
-		return CompletableFutures.computeAsync(cm->{
-			try {
-				IClassFile cf  = JDTUtils.resolveClassFile(param.getUri());
-				if (cf != null) {
-					IBuffer buffer = cf.getBuffer();
-					if (buffer != null){
-						cm.checkCanceled();
-						JavaLanguageServerPlugin.logInfo("ClassFile contents request completed");
-						return buffer.getContents();
-					}
+	public String contents(TextDocumentIdentifier param, CancelChecker cm) {
+		try {
+			IClassFile cf  = JDTUtils.resolveClassFile(param.getUri());
+			if (cf != null) {
+				IBuffer buffer = cf.getBuffer();
+				if (buffer != null){
+					cm.checkCanceled();
+					JavaLanguageServerPlugin.logInfo("ClassFile contents request completed");
+					return buffer.getContents();
 				}
-			} catch (JavaModelException e) {
-				JavaLanguageServerPlugin.logException("Exception getting java element ", e);
 			}
-			return null;
-		});
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Exception getting java element ", e);
+		}
+		return null;
 	}
 
 }
\ No newline at end of file
@@ -13,15 +13,21 @@ package org.jboss.tools.vscode.java.internal.handlers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -40,11 +46,24 @@ import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.ReferencesCache;
 
 public class CodeLensHandler {
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * The references found for an element
+	 */
+	private static class References {
+		private final List<Location> locations = new ArrayList<>();
+		private final Set<ICompilationUnit> units = new LinkedHashSet<>();
+	}
+
 	public CodeLens resolve(CodeLens lens){
+		return resolve(lens, new NullProgressMonitor());
+	}
+
+	@SuppressWarnings("unchecked")
+	public CodeLens resolve(CodeLens lens, IProgressMonitor monitor){
 		if (lens == null) {
 			return null;
 		}
@@ -57,7 +76,7 @@ public class CodeLensHandler {
 			}
 			Map<String, Object> position = (Map<String, Object>) data.get(1);
 			IJavaElement element = JDTUtils.findElementAtSelection(unit,  ((Double)position.get("line")).intValue(), ((Double)position.get("character")).intValue());
-			List<Location> locations = findReferences(element);
+			List<Location> locations = findReferences(unit, element, monitor);
 			int nReferences = locations.size();
 			Command command = new Command(nReferences == 1 ? "1 reference" : nReferences + " references",
 					"java.show.references",
@@ -69,16 +88,89 @@ public class CodeLensHandler {
 		return lens;
 	}
 
-	private List<Location> findReferences(IJavaElement element) throws JavaModelException, CoreException {
+	/**
+	 * Returns the cached references of the given element. On a cache miss,
+	 * the references of all the elements of the unit having a code lens
+	 * and not cached yet are searched at once, as the client resolves the
+	 * lenses of a document in a row.
+	 */
+	private List<Location> findReferences(ICompilationUnit unit, IJavaElement element, IProgressMonitor monitor) throws CoreException {
 		if (element == null) {
 			return Collections.emptyList();
 		}
+		ReferencesCache cache = JavaLanguageServerPlugin.getReferencesCache();
+		if (cache == null) {
+			return search(Collections.singletonList(element), monitor).get(element).locations;
+		}
+		List<Location> locations = cache.get(element);
+		if (locations != null) {
+			return locations;
+		}
+		long generation = cache.getGeneration();
+		List<IJavaElement> elements = new ArrayList<>();
+		elements.add(element);
+		List<IJavaElement> lensElements = new ArrayList<>();
+		collectLensElements(unit.getChildren(), lensElements);
+		for (IJavaElement lensElement : lensElements) {
+			if (!lensElement.equals(element) && cache.get(lensElement) == null) {
+				elements.add(lensElement);
+			}
+		}
+		Map<IJavaElement, References> results = search(elements, monitor);
+		for (Map.Entry<IJavaElement, References> result : results.entrySet()) {
+			cache.put(result.getKey(), result.getValue().locations, result.getValue().units, generation);
+		}
+		return results.get(element).locations;
+	}
 
-		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
-		final List<Location> result = new ArrayList<>();
+	/**
+	 * Searches the references of the given elements. The methods with a
+	 * distinct simple name are searched together, with a single OR pattern,
+	 * the matches being attributed by the name found at their location: the
+	 * range of a method reference starts with the method name. Types, whose
+	 * references may be qualified by another type (i.e. Outer.Inner),
+	 * constructors and overloaded methods are searched one by one.
+	 */
+	private Map<IJavaElement, References> search(List<IJavaElement> elements, IProgressMonitor monitor) throws CoreException {
+		Map<IJavaElement, References> results = new LinkedHashMap<>();
+		Map<String, List<IJavaElement>> byName = new HashMap<>();
+		for (IJavaElement element : elements) {
+			results.put(element, new References());
+			byName.computeIfAbsent(element.getElementName(), n -> new ArrayList<>()).add(element);
+		}
+		IJavaSearchScope scope = createSearchScope();
+		List<IJavaElement> batch = new ArrayList<>();
+		SearchPattern batchPattern = null;
+		for (IJavaElement element : elements) {
+			SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+			if (pattern == null) {
+				continue;
+			}
+			if (isBatched(element, byName)) {
+				batch.add(element);
+				batchPattern = batchPattern == null ? pattern : SearchPattern.createOrPattern(batchPattern, pattern);
+			} else {
+				search(pattern, scope, Collections.singletonList(element), results, monitor);
+			}
+		}
+		if (batchPattern != null) {
+			search(batchPattern, scope, batch, results, monitor);
+		}
+		return results;
+	}
+
+	private static boolean isBatched(IJavaElement element, Map<String, List<IJavaElement>> byName) throws JavaModelException {
+		return element instanceof IMethod && !((IMethod) element).isConstructor()
+				&& byName.get(element.getElementName()).size() == 1;
+	}
+
+	private void search(SearchPattern pattern, IJavaSearchScope scope, List<IJavaElement> targets, Map<IJavaElement, References> results, IProgressMonitor monitor) throws CoreException {
 		SearchEngine engine = new SearchEngine();
 		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
-				createSearchScope(), new SearchRequestor() {
+				scope, new SearchRequestor() {
+
+			private ICompilationUnit lastUnit;
+			private String lastSource;
 
 			@Override
 			public void acceptSearchMatch(SearchMatch match) throws CoreException {
@@ -90,24 +182,71 @@ public class CodeLensHandler {
 					if (compilationUnit == null) {
 						return;
 					}
-					Location location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
-					result.add(location);
-
+					IJavaElement target = targets.size() == 1 ? targets.get(0) : getTarget(compilationUnit, match);
+					if (target == null) {
+						return;
+					}
+					References references = results.get(target);
+					references.locations.add(JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength()));
+					references.units.add(compilationUnit);
 				}
+			}
 
+			/**
+			 * @return the target whose name is the first found in the range of the match
+			 */
+			private IJavaElement getTarget(ICompilationUnit unit, SearchMatch match) throws JavaModelException {
+				if (!unit.equals(lastUnit)) {
+					lastUnit = unit;
+					lastSource = unit.getSource();
+				}
+				if (lastSource == null) {
+					return null;
+				}
+				int end = match.getOffset() + match.getLength();
+				IJavaElement target = null;
+				int targetOffset = end;
+				for (IJavaElement candidate : targets) {
+					String name = candidate.getElementName();
+					int offset = lastSource.indexOf(name, match.getOffset());
+					while (offset >= 0 && offset < targetOffset && !isIdentifier(offset, name.length())) {
+						offset = lastSource.indexOf(name, offset + 1);
+					}
+					if (offset >= 0 && offset + name.length() <= end && offset < targetOffset) {
+						target = candidate;
+						targetOffset = offset;
+					}
+				}
+				return target;
 			}
-		}, new NullProgressMonitor());
 
-		return result;
+			/**
+			 * @return whether the given range of the source is a whole identifier
+			 */
+			private boolean isIdentifier(int offset, int length) {
+				int end = offset + length;
+				return (offset == 0 || !Character.isJavaIdentifierPart(lastSource.charAt(offset - 1)))
+						&& (end == lastSource.length() || !Character.isJavaIdentifierPart(lastSource.charAt(end)));
+			}
+		}, monitor);
 	}
 
+
 	public List<CodeLens> getCodeLensSymbols(String uri) {
 		final ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if(unit == null || !unit.getResource().exists()) return Collections.emptyList();
 		try {
-			IJavaElement[] elements = unit.getChildren();
-			ArrayList<CodeLens> lenses = new ArrayList<>(elements.length);
-			collectChildren(unit, elements, lenses);
+			List<IJavaElement> elements = new ArrayList<>();
+			collectLensElements(unit.getChildren(), elements);
+			ArrayList<CodeLens> lenses = new ArrayList<>(elements.size());
+			for (IJavaElement element : elements) {
+				CodeLens lens = new CodeLens();
+				ISourceRange r = ((ISourceReference) element).getNameRange();
+				final Range range = JDTUtils.toRange(unit, r.getOffset(), r.getLength());
+				lens.setRange(range);
+				lens.setData(Arrays.asList(JDTUtils.getFileURI(unit), range.getStart()));
+				lenses.add(lens);
+			}
 			return lenses;
 		} catch (JavaModelException e) {
 			JavaLanguageServerPlugin.logException("Problem getting code lenses for" + unit.getElementName(), e);
@@ -115,22 +254,18 @@ public class CodeLensHandler {
 		return Collections.emptyList();
 	}
 
-	private void collectChildren(ICompilationUnit unit, IJavaElement[] elements, ArrayList<CodeLens> lenses)
+	/**
+	 * Collects the types and methods having a code lens
+	 */
+	private void collectLensElements(IJavaElement[] elements, List<IJavaElement> lensElements)
 			throws JavaModelException {
 		for (IJavaElement element : elements) {
 			if (element.getElementType() == IJavaElement.TYPE) {
-				collectChildren(unit, ((IType) element).getChildren(), lenses);
+				collectLensElements(((IType) element).getChildren(), lensElements);
 			} else if (element.getElementType() != IJavaElement.METHOD || JDTUtils.isHiddenGeneratedElement(element)) {
 				continue;
 			}
-
-			CodeLens lens = new CodeLens();
-
-			ISourceRange r = ((ISourceReference) element).getNameRange();
-			final Range range = JDTUtils.toRange(unit, r.getOffset(), r.getLength());
-			lens.setRange(range);
-			lens.setData(Arrays.asList(JDTUtils.getFileURI(unit), range.getStart()));
-			lenses.add(lens);
+			lensElements.add(element);
 		}
 	}
 
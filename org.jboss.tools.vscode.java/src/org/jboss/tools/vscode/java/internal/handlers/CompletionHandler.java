@@ -12,36 +12,54 @@ package org.jboss.tools.vscode.java.internal.handlers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.CompletionProposal;
-import org.eclipse.jdt.core.CompletionRequestor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
-import org.jboss.tools.vscode.java.internal.CancellableProgressMonitor;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalRequestor;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalStore;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionSessionCache;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
 
 public class CompletionHandler{
 
-	CompletableFuture<CompletionList> completion(TextDocumentPositionParams position){
-		return CompletableFutures.computeAsync(cancelChecker->{
-			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
-			List<CompletionItem> completionItems = this.computeContentAssist(unit,
-					position.getPosition().getLine(),
-					position.getPosition().getCharacter(), new CancellableProgressMonitor(cancelChecker));
-			CompletionList $ = new CompletionList();
-			$.setItems(completionItems);
-			JavaLanguageServerPlugin.logInfo("Completion request completed");
-			return $;
-		});
+	private final PreferenceManager preferenceManager;
+
+	public CompletionHandler() {
+		this(null);
+	}
+
+	public CompletionHandler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+	}
+
+	CompletionList completion(TextDocumentPositionParams position, IProgressMonitor monitor){
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
+		List<CompletionItem> completionItems = this.computeContentAssist(unit,
+				position.getPosition().getLine(),
+				position.getPosition().getCharacter(), monitor);
+		CompletionList $ = new CompletionList();
+		int maxResults = preferenceManager == null ? Preferences.DEFAULT_MAX_COMPLETION_RESULTS
+				: preferenceManager.getPreferences().getMaxCompletionResults();
+		if (completionItems.size() > maxResults) {
+			// keep the best ranked items, the client asks again as the prefix grows
+			completionItems = new ArrayList<>(completionItems);
+			Collections.sort(completionItems, Comparator.comparing(CompletionItem::getSortText, Comparator.nullsLast(Comparator.naturalOrder())));
+			completionItems = completionItems.subList(0, maxResults);
+			$.setIsIncomplete(true);
+		}
+		$.setItems(completionItems);
+		JavaLanguageServerPlugin.logInfo("Completion request completed");
+		return $;
 	}
 
 	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) {
@@ -49,7 +67,20 @@ public class CompletionHandler{
 		final List<CompletionItem> proposals = new ArrayList<>();
 		try {
 			final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
-			CompletionRequestor collector = new CompletionProposalRequestor(unit, proposals, offset);
+			// the buffer is up to date, only the java model waits for the reconcile
+			String contents = unit.getBuffer().getContents();
+			CompletionSessionCache cache = JavaLanguageServerPlugin.getCompletionSessionCache();
+			if (cache != null && contents != null) {
+				List<CompletionItem> cached = cache.refilter(unit, offset, contents);
+				if (cached != null) {
+					return cached;
+				}
+			}
+			JavaLanguageServerPlugin.getReconcileScheduler().flush(unit);
+			boolean deferImportEdits = preferenceManager != null && preferenceManager.getPreferences().isDeferImportEdits();
+			boolean lazyResolve = preferenceManager != null && preferenceManager.getPreferences().isCompletionLazyResolve();
+			CompletionProposalStore store = lazyResolve ? JavaLanguageServerPlugin.getCompletionProposalStore() : null;
+			CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, proposals, offset, deferImportEdits, store);
 			// Allow completions for unresolved types - since 3.3
 			collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_REF, true);
 			collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_IMPORT, true);
@@ -68,6 +99,9 @@ public class CompletionHandler{
 
 			if (offset >-1 && !monitor.isCanceled()) {
 				unit.codeComplete(offset, collector, monitor);
+				if (cache != null && contents != null && !monitor.isCanceled()) {
+					cache.put(unit, offset, contents, collector.getAcceptedProposals(), proposals);
+				}
 			}
 		} catch (JavaModelException e) {
 			JavaLanguageServerPlugin.logException("Problem with codeComplete for " +  unit.getElementName(), e);
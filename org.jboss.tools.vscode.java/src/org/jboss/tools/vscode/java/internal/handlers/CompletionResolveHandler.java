@@ -12,8 +12,12 @@ package org.jboss.tools.vscode.java.internal.handlers;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IMember;
@@ -24,8 +28,13 @@ import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
 import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.TextEdit;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalDescriptionProvider;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalReplacementProvider;
+import org.jboss.tools.vscode.java.internal.contentassist.CompletionProposalStore;
+import org.jboss.tools.vscode.java.internal.contentassist.ImportContext;
 import org.jboss.tools.vscode.java.internal.javadoc.JavadocContentAccess;
 
 public class CompletionResolveHandler {
@@ -34,14 +43,28 @@ public class CompletionResolveHandler {
 	public static final String DATA_FIELD_DECLARATION_SIGNATURE = "decl_signature";
 	public static final String DATA_FIELD_SIGNATURE= "signature";
 	public static final String DATA_FIELD_NAME = "name";
+	public static final String DATA_FIELD_IMPORTS = "imports";
+	public static final String DATA_FIELD_STATIC_IMPORTS = "static_imports";
+	public static final String DATA_FIELD_REQUEST_ID = "rid";
+	public static final String DATA_FIELD_PROPOSAL_ID = "pid";
 
 
 	CompletionItem resolve(CompletionItem param) {
 
 		@SuppressWarnings("unchecked")
 		Map<String, String> data = (Map<String, String>) param.getData();
+		if (data != null && data.containsKey(DATA_FIELD_REQUEST_ID)) {
+			data = resolveProposal(param, data);
+		}
 		// clean resolve data
 		param.setData(null);
+		if (data == null) {
+			return param;
+		}
+
+		if (data.containsKey(DATA_FIELD_URI) && data.containsKey(DATA_FIELD_IMPORTS)) {
+			resolveImports(param, data);
+		}
 
 		if (data.containsKey(DATA_FIELD_URI) && data.containsKey(DATA_FIELD_DECLARATION_SIGNATURE)) {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(data.get(DATA_FIELD_URI));
@@ -85,6 +108,69 @@ public class CompletionResolveHandler {
 		return param;
 	}
 
+	/**
+	 * Computes the fields of an item only labelled on completion from its
+	 * retained proposal.
+	 *
+	 * @return the data of the fully computed item, or the given data if the
+	 *         proposal is no longer retained
+	 */
+	private static Map<String, String> resolveProposal(CompletionItem param, Map<String, String> data) {
+		CompletionProposalStore store = JavaLanguageServerPlugin.getCompletionProposalStore();
+		if (store == null) {
+			return data;
+		}
+		CompletionProposalStore.Session session;
+		CompletionProposal proposal;
+		try {
+			session = store.getSession(Long.parseLong(data.get(DATA_FIELD_REQUEST_ID)));
+			proposal = session == null ? null : session.get(Integer.parseInt(data.get(DATA_FIELD_PROPOSAL_ID)));
+		} catch (NumberFormatException e) {
+			return data;
+		}
+		if (proposal == null) {
+			return data;
+		}
+		ICompilationUnit unit = session.getUnit();
+		Map<String, String> resolved = new HashMap<>();
+		resolved.put(DATA_FIELD_URI, unit.getResource().getLocationURI().toString());
+		param.setData(resolved);
+		// replaced by the text edit
+		param.setInsertText(null);
+		new CompletionProposalDescriptionProvider(session.getContext()).updateDescription(proposal, param);
+		new CompletionProposalReplacementProvider(unit, session.getContext(), session.getOffset())
+				.updateReplacement(proposal, param, '\0', new ArrayList<Integer>());
+		return resolved;
+	}
+
+	/**
+	 * Adds the edits of the imports deferred to resolution to the item.
+	 */
+	private static void resolveImports(CompletionItem param, Map<String, String> data) {
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(data.get(DATA_FIELD_URI));
+		if (unit == null) {
+			return;
+		}
+		List<TextEdit> edits = ImportContext.getEdits(unit, split(data.get(DATA_FIELD_IMPORTS)),
+				split(data.get(DATA_FIELD_STATIC_IMPORTS)));
+		if (edits.isEmpty()) {
+			return;
+		}
+		List<TextEdit> additionalEdits = new ArrayList<>();
+		if (param.getAdditionalTextEdits() != null) {
+			additionalEdits.addAll(param.getAdditionalTextEdits());
+		}
+		additionalEdits.addAll(edits);
+		param.setAdditionalTextEdits(additionalEdits);
+	}
+
+	private static String[] split(String names) {
+		if (names == null || names.isEmpty()) {
+			return CharOperation.NO_STRINGS;
+		}
+		return names.split(",");
+	}
+
 	/**
 	 * Gets the reader content as a String
 	 *
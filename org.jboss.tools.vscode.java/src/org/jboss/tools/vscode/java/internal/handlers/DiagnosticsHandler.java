@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblem;
@@ -31,12 +32,27 @@ public class DiagnosticsHandler implements IProblemRequestor {
 
 	private final List<IProblem> problems;
 	private final IResource resource;
+	private final ICompilationUnit unit;
 	private final JavaClientConnection connection;
 	private boolean reportAllErrors = true;
 
 	public DiagnosticsHandler(JavaClientConnection conn, IResource resource, boolean reportOnlySyntaxErrors) {
+		this(conn, resource, null, reportOnlySyntaxErrors);
+	}
+
+	/**
+	 * Creates a problem requestor for the reconcile of the given working copy.
+	 * Diagnostics are not published if the reconcile has been superseded by
+	 * a newer version of the document.
+	 */
+	public DiagnosticsHandler(JavaClientConnection conn, ICompilationUnit unit, boolean reportOnlySyntaxErrors) {
+		this(conn, unit.getResource(), unit, reportOnlySyntaxErrors);
+	}
+
+	private DiagnosticsHandler(JavaClientConnection conn, IResource resource, ICompilationUnit unit, boolean reportOnlySyntaxErrors) {
 		problems = new ArrayList<>();
 		this.resource = resource;
+		this.unit = unit;
 		this.connection = conn;
 		this.reportAllErrors = !reportOnlySyntaxErrors;
 	}
@@ -61,6 +77,10 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	@Override
 	public void endReporting() {
 		JavaLanguageServerPlugin.logInfo("end reporting for "+ this.resource.getName());
+		if (unit != null && JavaLanguageServerPlugin.getReconcileScheduler().isStale(unit)) {
+			JavaLanguageServerPlugin.logInfo("skipping stale diagnostics for "+ this.resource.getName());
+			return;
+		}
 		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(JDTUtils.getFileURI(this.resource), toDiagnosticsArray());
 		this.connection.publishDiagnostics($);
 	}
@@ -13,14 +13,10 @@ package org.jboss.tools.vscode.java.internal.handlers;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
-import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.dom.AST;
-import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
@@ -36,17 +32,14 @@ import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 public class DocumentHighlightHandler{
 
 
-	private List<DocumentHighlight> computeOccurrences(ITypeRoot unit, int line, int column) {
+	private List<DocumentHighlight> computeOccurrences(ITypeRoot unit, int line, int column, IProgressMonitor monitor) {
 		if (unit != null) {
 			try {
 				int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
 				OccurrencesFinder finder = new OccurrencesFinder();
-				ASTParser parser = ASTParser.newParser(AST.JLS8);
-				parser.setSource(unit);
-				parser.setResolveBindings(true);
-				ASTNode ast = parser.createAST(new NullProgressMonitor());
-				if (ast instanceof CompilationUnit) {
-					String error = finder.initialize((CompilationUnit) ast, offset, 0);
+				CompilationUnit ast = JavaLanguageServerPlugin.getSharedASTProvider().getAST(unit, monitor);
+				if (ast != null) {
+					String error = finder.initialize(ast, offset, 0);
 					if (error == null){
 						List<DocumentHighlight> result = new ArrayList<>();
 						OccurrenceLocation[] occurrences = finder.getOccurrences();
@@ -74,8 +67,9 @@ public class DocumentHighlightHandler{
 				| IOccurrencesFinder.F_READ_OCCURRENCE) == IOccurrencesFinder.F_READ_OCCURRENCE) {
 			h.setKind(DocumentHighlightKind.Read);
 		}
-		int[] loc = JsonRpcHelpers.toLine(unit.getBuffer(), occurrence.getOffset());
-		int[] endLoc = JsonRpcHelpers.toLine(unit.getBuffer(), occurrence.getOffset() + occurrence.getLength());
+		int[][] locs = JsonRpcHelpers.toLines(unit.getBuffer(), occurrence.getOffset(), occurrence.getOffset() + occurrence.getLength());
+		int[] loc = locs[0];
+		int[] endLoc = locs[1];
 
 		h.setRange(new Range(
 				new Position(loc[0], loc[1]),
@@ -84,12 +78,10 @@ public class DocumentHighlightHandler{
 		return h;
 	}
 
-	CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position){
-		return CompletableFuture.supplyAsync(()->{
-			ITypeRoot type = JDTUtils.resolveTypeRoot(position.getTextDocument().getUri());
-			return computeOccurrences(type, position.getPosition().getLine(),
-					position.getPosition().getCharacter());
-		});
+	List<? extends DocumentHighlight> documentHighlight(TextDocumentPositionParams position, IProgressMonitor monitor){
+		ITypeRoot type = JDTUtils.resolveTypeRoot(position.getTextDocument().getUri());
+		return computeOccurrences(type, position.getPosition().getLine(),
+				position.getPosition().getCharacter(), monitor);
 	}
 
 }
@@ -77,17 +77,9 @@ public class DocumentLifeCycleHandler {
 	}
 
 	void didChange(DidChangeTextDocumentParams params){
-
-		try {
-			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
-				@Override
-				public void run(IProgressMonitor monitor) throws CoreException {
-					handleChanged(params);
-				}
-			}, new NullProgressMonitor());
-		} catch (CoreException e) {
-			JavaLanguageServerPlugin.logException("Handle document open ", e);
-		}
+		// Changes only touch the working copy buffer, the reconcile is deferred
+		// to the ReconcileScheduler, so there is no need to lock the workspace.
+		handleChanged(params);
 	}
 
 	void didSave(DidSaveTextDocumentParams params){
@@ -139,8 +131,7 @@ public class DocumentLifeCycleHandler {
 				buffer.setContents(params.getTextDocument().getText());
 			}
 
-			// TODO: wire up cancellation.
-			unit.reconcile(ICompilationUnit.NO_AST, true/*don't force problem detection*/, false, JavaLanguageServerPlugin.getInstance().getWorkingCopyOwner(), null/*no progress monitor*/);
+			JavaLanguageServerPlugin.getReconcileScheduler().reconcileNow(unit, params.getTextDocument().getVersion());
 		} catch (JavaModelException e) {
 			JavaLanguageServerPlugin.logException("Creating working copy ",e);
 		}
@@ -173,7 +164,7 @@ public class DocumentLifeCycleHandler {
 				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 				edit.apply(document, TextEdit.NONE);
 			}
-			unit.reconcile(ICompilationUnit.NO_AST, true, false, JavaLanguageServerPlugin.getInstance().getWorkingCopyOwner(), null);
+			JavaLanguageServerPlugin.getReconcileScheduler().schedule(unit, params.getTextDocument().getVersion());
 		} catch (JavaModelException | MalformedTreeException | BadLocationException e) {
 			JavaLanguageServerPlugin.logException("Failed to apply changes",e);
 		}
@@ -182,10 +173,15 @@ public class DocumentLifeCycleHandler {
 	private void handleClosed(DidCloseTextDocumentParams params) {
 		JavaLanguageServerPlugin.logInfo("DocumentLifeCycleHandler.handleClosed");
 		String uri = params.getTextDocument().getUri();
+		if (connection != null) {
+			connection.forgetDiagnostics(uri);
+		}
 		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if (unit == null) {
 			return;
 		}
+		JavaLanguageServerPlugin.getReconcileScheduler().remove(unit);
+		JavaLanguageServerPlugin.getSharedASTProvider().dispose(unit);
 		try {
 			unit.discardWorkingCopy();
 		} catch (CoreException e) {
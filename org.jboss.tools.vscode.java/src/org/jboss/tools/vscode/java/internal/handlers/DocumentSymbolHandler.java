@@ -14,7 +14,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
@@ -62,14 +61,12 @@ public class DocumentSymbolHandler {
 		}
 	}
 
-	CompletableFuture<List<? extends SymbolInformation>> documentSymbol(DocumentSymbolParams params){
-		return CompletableFuture.supplyAsync(()->{
-			ITypeRoot unit = JDTUtils.resolveTypeRoot(params.getTextDocument().getUri());
-			if(unit == null )
-				return Collections.emptyList();
-			SymbolInformation[] elements  = this.getOutline(unit);
-			return Arrays.asList(elements);
-		});
+	List<? extends SymbolInformation> documentSymbol(DocumentSymbolParams params){
+		ITypeRoot unit = JDTUtils.resolveTypeRoot(params.getTextDocument().getUri());
+		if(unit == null )
+			return Collections.emptyList();
+		SymbolInformation[] elements  = this.getOutline(unit);
+		return Arrays.asList(elements);
 	}
 
 	public static SymbolKind mapKind(IJavaElement element) {
@@ -14,7 +14,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -46,24 +45,19 @@ import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
  */
 public class FormatterHandler {
 
-	CompletableFuture<List<? extends org.eclipse.lsp4j.TextEdit>> formatting(DocumentFormattingParams params){
-		return CompletableFuture.supplyAsync( ()->{
-			ICompilationUnit cu = JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
-			if(cu == null ) {
-				return Collections.emptyList();
-			}
-			return format(cu,params.getOptions(), null);
-		});
-
+	List<? extends org.eclipse.lsp4j.TextEdit> formatting(DocumentFormattingParams params){
+		ICompilationUnit cu = JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
+		if(cu == null ) {
+			return Collections.emptyList();
+		}
+		return format(cu,params.getOptions(), null);
 	}
 
-	CompletableFuture<List<? extends org.eclipse.lsp4j.TextEdit>> rangeFormatting(DocumentRangeFormattingParams params){
-		return CompletableFuture.supplyAsync(()->{
-			ICompilationUnit cu = JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
-			if(cu == null )
-				return Collections.emptyList();
-			return format(cu, params.getOptions(), params.getRange());
-		});
+	List<? extends org.eclipse.lsp4j.TextEdit> rangeFormatting(DocumentRangeFormattingParams params){
+		ICompilationUnit cu = JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
+		if(cu == null )
+			return Collections.emptyList();
+		return format(cu, params.getOptions(), params.getRange());
 	}
 
 	private List<org.eclipse.lsp4j.TextEdit> format(ICompilationUnit cu, FormattingOptions options, Range range) {
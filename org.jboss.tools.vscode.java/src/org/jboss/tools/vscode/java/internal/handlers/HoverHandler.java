@@ -11,33 +11,34 @@
 package org.jboss.tools.vscode.java.internal.handlers;
 
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.jboss.tools.vscode.java.internal.HoverInfoProvider;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 
 public class HoverHandler{
 
-	public CompletableFuture<Hover> hover(TextDocumentPositionParams position){
-		return CompletableFutures.computeAsync(cancelToken->{
-			ITypeRoot unit = JDTUtils.resolveTypeRoot(position.getTextDocument().getUri());
+	public Hover hover(TextDocumentPositionParams position, IProgressMonitor monitor){
+		ITypeRoot unit = JDTUtils.resolveTypeRoot(position.getTextDocument().getUri());
 
-			String hover = null;
-			if(unit !=null){
-				cancelToken.checkCanceled();
-				hover = computeHover(unit ,position.getPosition().getLine(),
-						position.getPosition().getCharacter());
-			}
-			Hover $ = new Hover();
-			if (hover != null && !hover.isEmpty()) {
-				$.setContents(Arrays.asList(hover));
-			}
-			return $;
-		});
+		String hover = null;
+		if (unit instanceof ICompilationUnit) {
+			JavaLanguageServerPlugin.getReconcileScheduler().flush((ICompilationUnit) unit);
+		}
+		if(unit !=null && !monitor.isCanceled()){
+			hover = computeHover(unit ,position.getPosition().getLine(),
+					position.getPosition().getCharacter());
+		}
+		Hover $ = new Hover();
+		if (hover != null && !hover.isEmpty()) {
+			$.setContents(Arrays.asList(hover));
+		}
+		return $;
 	}
 
 	private String computeHover(ITypeRoot unit, int line, int column) {
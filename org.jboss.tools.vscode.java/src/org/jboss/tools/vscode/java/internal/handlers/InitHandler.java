@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.handlers;
 
+import java.io.File;
 import java.util.Arrays;
 
 import org.eclipse.core.resources.IResourceChangeEvent;
@@ -30,7 +31,9 @@ import org.eclipse.lsp4j.TextDocumentSyncKind;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 import org.jboss.tools.vscode.java.internal.ServiceStatus;
+import org.jboss.tools.vscode.java.internal.SymbolIndex;
 import org.jboss.tools.vscode.java.internal.managers.ProjectsManager;
+import org.jboss.tools.vscode.java.internal.managers.WorkspaceSnapshot;
 import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
 
 /**
@@ -82,12 +85,31 @@ final public class InitHandler {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
 				connection.sendStatus(ServiceStatus.Starting, "Init...");
-				IStatus status = projectsManager.initializeProjects(root, new ServerStatusMonitor());
+				File rootFolder = root == null ? null : new File(root);
+				WorkspaceSnapshot snapshot = WorkspaceSnapshot.getDefault();
+				// the projects imported by a previous session are restored with the workspace,
+				// only the changes made since need to be picked up
+				boolean warmStart = snapshot.isUpToDate(projectsManager.createDiscovery(rootFolder), monitor);
+				IStatus status;
+				if (warmStart) {
+					JavaLanguageServerPlugin.logInfo("Workspace snapshot is up to date, skipping import");
+					status = projectsManager.refreshProjects(new ServerStatusMonitor());
+				} else {
+					snapshot.invalidate();
+					status = projectsManager.initializeProjects(root, new ServerStatusMonitor());
+				}
 				try {
-					ResourcesPlugin.getWorkspace().build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+					ResourcesPlugin.getWorkspace().build(warmStart ? IncrementalProjectBuilder.INCREMENTAL_BUILD : IncrementalProjectBuilder.FULL_BUILD, monitor);
 				} catch (CoreException e) {
 					JavaLanguageServerPlugin.logException("Build failed ", e);
 				}
+				if (status.isOK() && !warmStart) {
+					snapshot.save(projectsManager.createDiscovery(rootFolder), monitor);
+				}
+				SymbolIndex symbolIndex = JavaLanguageServerPlugin.getSymbolIndex();
+				if (symbolIndex != null) {
+					symbolIndex.initialize();
+				}
 				if (status.isOK()) {
 					connection.sendStatus(ServiceStatus.Started, "Ready");
 				} else {
@@ -51,13 +51,18 @@ import org.eclipse.lsp4j.jsonrpc.services.JsonDelegate;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
+import org.jboss.tools.vscode.java.internal.CancellableProgressMonitor;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection.JavaLanguageClient;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 import org.jboss.tools.vscode.java.internal.JavaProtocolExtensions;
 import org.jboss.tools.vscode.java.internal.LanguageServerWorkingCopyOwner;
+import org.jboss.tools.vscode.java.internal.RequestScheduler;
+import org.jboss.tools.vscode.java.internal.RequestScheduler.Lane;
 import org.jboss.tools.vscode.java.internal.ServiceStatus;
 import org.jboss.tools.vscode.java.internal.managers.ProjectsManager;
+import org.jboss.tools.vscode.java.internal.metrics.MethodMetrics;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics;
 import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
 import org.jboss.tools.vscode.java.internal.preferences.Preferences;
 
@@ -71,6 +76,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	private ProjectsManager pm;
 	private LanguageServerWorkingCopyOwner workingCopyOwner;
 	private PreferenceManager preferenceManager;
+	private final RequestMetrics metrics = new RequestMetrics();
+	private final RequestScheduler scheduler = new RequestScheduler(metrics);
 
 	public LanguageServerWorkingCopyOwner getWorkingCopyOwner() {
 		return workingCopyOwner;
@@ -82,10 +89,11 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	}
 
 	public void connectClient(JavaLanguageClient client) {
-		this.client = new JavaClientConnection(client);
+		this.client = new JavaClientConnection(client, metrics);
 		this.workingCopyOwner = new LanguageServerWorkingCopyOwner(this.client);
 		pm.setConnection(client);
 		WorkingCopyOwner.setPrimaryBufferProvider(this.workingCopyOwner);
+		metrics.startDumping();
 	}
 
 	/* (non-Javadoc)
@@ -95,7 +103,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
 		logInfo(">> initialize");
 		InitHandler handler= new InitHandler(pm, preferenceManager, client);
-		return CompletableFuture.completedFuture(handler.initialize(params));
+		return CompletableFuture.completedFuture(metrics.compute("initialize", () -> handler.initialize(params)));
 	}
 
 	/* (non-Javadoc)
@@ -104,6 +112,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		logInfo(">> shutdown");
+		scheduler.shutdown();
+		metrics.stopDumping();
 		JavaLanguageServerPlugin.getLanguageServer().shutdown();
 		return CompletableFuture.completedFuture(new Object());
 	}
@@ -144,8 +154,9 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
 		logInfo(">> workspace/symbol");
-		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler();
-		return CompletableFuture.supplyAsync(()->{return handler.search(params.getQuery());});
+		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager);
+		return scheduler.computeAsync(Lane.BACKGROUND, "workspace/symbol", "workspace",
+				cc -> handler.search(params.getQuery(), new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -155,12 +166,14 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didChangeConfiguration(DidChangeConfigurationParams params) {
 		logInfo(">> workspace/didChangeConfiguration");
 		Object settings = params.getSettings();
-		if (settings instanceof Map) {
-			@SuppressWarnings("unchecked")
-			Map<String, Object> javaConfig = MapFlattener.flatten((Map<String, Object>)settings);
-			Preferences prefs = Preferences.createFrom(javaConfig);
-			preferenceManager.update(prefs);
-		}
+		metrics.run("workspace/didChangeConfiguration", () -> {
+			if (settings instanceof Map) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> javaConfig = MapFlattener.flatten((Map<String, Object>)settings);
+				Preferences prefs = Preferences.createFrom(javaConfig);
+				preferenceManager.update(prefs);
+			}
+		});
 		logInfo(">>New configuration: "+settings);
 	}
 
@@ -171,7 +184,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
 		logInfo(">> workspace/didChangeWatchedFiles");
 		WorkspaceEventsHandler handler= new WorkspaceEventsHandler(pm, client);
-		handler.didChangeWatchedFiles(params);
+		metrics.run("workspace/didChangeWatchedFiles", () -> handler.didChangeWatchedFiles(params));
 	}
 
 	/* (non-Javadoc)
@@ -180,8 +193,9 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<CompletionList> completion(TextDocumentPositionParams position) {
 		logInfo(">> document/completion");
-		CompletionHandler handler = new CompletionHandler();
-		return handler.completion(position);
+		CompletionHandler handler = new CompletionHandler(preferenceManager);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/completion", position.getTextDocument().getUri(),
+				cc -> handler.completion(position, new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -191,7 +205,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
 		logInfo(">> document/resolveCompletionItem");
 		CompletionResolveHandler handler = new CompletionResolveHandler();
-		return CompletableFuture.supplyAsync(()->handler.resolve(unresolved));
+		return scheduler.computeAsync(Lane.INTERACTIVE, "completionItem/resolve", cc -> handler.resolve(unresolved));
 	}
 
 	/* (non-Javadoc)
@@ -201,7 +215,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams position) {
 		logInfo(">> document/hover");
 		HoverHandler handler = new HoverHandler();
-		return handler.hover(position);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/hover", position.getTextDocument().getUri(),
+				cc -> handler.hover(position, new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -221,7 +236,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position) {
 		logInfo(">> document/definition");
 		NavigateToDefinitionHandler handler = new NavigateToDefinitionHandler();
-		return handler.definition(position);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/definition", cc -> handler.getDefinition(position));
 	}
 
 	/* (non-Javadoc)
@@ -230,8 +245,9 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		logInfo(">> document/references");
-		ReferencesHandler handler = new ReferencesHandler();
-		return CompletableFuture.supplyAsync(()->handler.findReferences(params));
+		ReferencesHandler handler = new ReferencesHandler(preferenceManager);
+		return scheduler.computeAsync(Lane.BACKGROUND, "textDocument/references",
+				cc -> handler.findReferences(params, new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -241,7 +257,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position) {
 		logInfo(">> document/documentHighlight");
 		DocumentHighlightHandler handler = new DocumentHighlightHandler();
-		return handler.documentHighlight(position);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/documentHighlight", position.getTextDocument().getUri(),
+				cc -> handler.documentHighlight(position, new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -251,7 +268,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends SymbolInformation>> documentSymbol(DocumentSymbolParams params) {
 		logInfo(">> document/documentSymbol");
 		DocumentSymbolHandler handler = new DocumentSymbolHandler();
-		return handler.documentSymbol(params);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/documentSymbol", params.getTextDocument().getUri(),
+				cc -> handler.documentSymbol(params));
 	}
 
 	/* (non-Javadoc)
@@ -271,7 +289,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
 		logInfo(">> document/codeLens");
 		CodeLensHandler handler = new CodeLensHandler();
-		return CompletableFuture.supplyAsync(()->handler.getCodeLensSymbols(params.getTextDocument().getUri()));
+		return scheduler.computeAsync(Lane.BACKGROUND, "textDocument/codeLens", params.getTextDocument().getUri(),
+				cc -> handler.getCodeLensSymbols(params.getTextDocument().getUri()));
 	}
 
 	/* (non-Javadoc)
@@ -281,7 +300,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
 		CodeLensHandler handler = new CodeLensHandler();
-		return CompletableFuture.supplyAsync(()->handler.resolve(unresolved));
+		return scheduler.computeAsync(Lane.BACKGROUND, "codeLens/resolve", cc -> handler.resolve(unresolved, new CancellableProgressMonitor(cc)));
 	}
 
 	/* (non-Javadoc)
@@ -291,7 +310,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
 		logInfo(">> document/formatting");
 		FormatterHandler handler = new FormatterHandler();
-		return handler.formatting(params);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/formatting", cc -> handler.formatting(params));
 	}
 
 	/* (non-Javadoc)
@@ -301,7 +320,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
 		logInfo(">> document/rangeFormatting");
 		FormatterHandler handler = new FormatterHandler();
-		return handler.rangeFormatting(params);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "textDocument/rangeFormatting", cc -> handler.rangeFormatting(params));
 	}
 
 	/* (non-Javadoc)
@@ -331,7 +350,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didOpen(DidOpenTextDocumentParams params) {
 		logInfo(">> document/didOpen");
 		DocumentLifeCycleHandler handler = new DocumentLifeCycleHandler(client, preferenceManager);
-		handler.didOpen(params);
+		metrics.run("textDocument/didOpen", () -> handler.didOpen(params));
 	}
 
 	/* (non-Javadoc)
@@ -341,7 +360,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didChange(DidChangeTextDocumentParams params) {
 		logInfo(">> document/didChange");
 		DocumentLifeCycleHandler handler = new DocumentLifeCycleHandler(client, preferenceManager);
-		handler.didChange(params);
+		metrics.run("textDocument/didChange", () -> handler.didChange(params));
 	}
 
 	/* (non-Javadoc)
@@ -351,7 +370,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didClose(DidCloseTextDocumentParams params) {
 		logInfo(">> document/didClose");
 		DocumentLifeCycleHandler handler = new DocumentLifeCycleHandler(client, preferenceManager);
-		handler.didClose(params);
+		metrics.run("textDocument/didClose", () -> handler.didClose(params));
 	}
 
 	/* (non-Javadoc)
@@ -361,7 +380,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void didSave(DidSaveTextDocumentParams params) {
 		logInfo(">> document/didSave");
 		DocumentLifeCycleHandler handler = new DocumentLifeCycleHandler(client, preferenceManager);
-		handler.didSave(params);
+		metrics.run("textDocument/didSave", () -> handler.didSave(params));
 	}
 
 	/* (non-Javadoc)
@@ -371,7 +390,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<String> classFileContents(TextDocumentIdentifier param) {
 		logInfo(">> java/classFileContents");
 		ClassfileContentHandler handler = new ClassfileContentHandler();
-		return  handler.contents(param);
+		return scheduler.computeAsync(Lane.INTERACTIVE, "java/classFileContents", cc -> handler.contents(param, cc));
 	}
 
 	/* (non-Javadoc)
@@ -381,7 +400,16 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public void projectConfigurationUpdate(TextDocumentIdentifier param) {
 		logInfo(">> java/projectConfigurationUpdate");
 		ProjectConfigurationUpdateHandler handler = new ProjectConfigurationUpdateHandler(pm);
-		handler.updateConfiguration(param);
+		metrics.run("java/projectConfigurationUpdate", () -> handler.updateConfiguration(param));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jboss.tools.vscode.java.internal.JavaProtocolExtensions#serverMetrics()
+	 */
+	@Override
+	public CompletableFuture<List<MethodMetrics>> serverMetrics() {
+		logInfo(">> java/serverMetrics");
+		return CompletableFuture.completedFuture(metrics.getSnapshot());
 	}
 
 	public void sendStatus(ServiceStatus serverStatus, String status) {
@@ -10,47 +10,84 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.handlers;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.eclipse.jdt.core.IBuffer;
-import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jdt.core.IBufferChangedListener;
 import org.eclipse.jface.text.IDocument;
+import org.jboss.tools.vscode.java.internal.DocumentAdapter;
+import org.jboss.tools.vscode.java.internal.LineIndex;
 
 final public class JsonRpcHelpers {
 
+	/**
+	 * Line indexes of the buffers that are not {@link DocumentAdapter}s, i.e.
+	 * class files. They are discarded whenever their buffer changes.
+	 */
+	private static final Map<IBuffer, LineIndex> lineIndexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private static final IBufferChangedListener lineIndexInvalidator = event -> lineIndexes.remove(event.getBuffer());
+
 	/**
 	 * Convert line, column to a document offset.
 	 * @param buffer
 	 * @param line
 	 * @param column
-	 * @return
+	 * @return the offset, or -1 if the line does not exist
 	 */
 	public static int toOffset(IBuffer buffer, int line, int column){
-		try {
-			return toDocument(buffer).getLineOffset(line) + column;
-		} catch (BadLocationException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return -1;
+		return getLineIndex(buffer).toOffset(line, column);
 	}
 
 	/**
 	 * Convert offset to line number and column.
 	 * @param buffer
-	 * @param line
-	 * @param column
-	 * @return
+	 * @param offset
+	 * @return <code>{line, column}</code>, or <code>null</code> if the offset is out of the buffer
 	 */
 	public static int[] toLine(IBuffer buffer, int offset){
-		IDocument document = toDocument(buffer);
-		try {
-			int line = document.getLineOfOffset(offset);
-			int column = offset - document.getLineOffset(line);
-			return new int[] {line, column};
-		} catch (BadLocationException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+		return getLineIndex(buffer).toPosition(offset);
+	}
+
+	/**
+	 * Converts offsets to line numbers and columns, i.e. for the start and
+	 * end of a range or for a list of search matches.
+	 *
+	 * @param buffer a buffer
+	 * @param offsets the offsets to convert
+	 * @return the <code>{line, column}</code> of each offset, in the same
+	 *         order, <code>null</code> for the offsets out of the buffer
+	 */
+	public static int[][] toLines(IBuffer buffer, int... offsets){
+		return getLineIndex(buffer).toPositions(offsets);
+	}
+
+	/**
+	 * Returns the line index of the given buffer. The index of a
+	 * {@link DocumentAdapter} is maintained incrementally, other buffers have
+	 * their index cached until they change.
+	 *
+	 * @param buffer a buffer
+	 * @return the line index of the buffer contents
+	 */
+	public static LineIndex getLineIndex(IBuffer buffer) {
+		if (buffer instanceof DocumentAdapter) {
+			LineIndex lineIndex = ((DocumentAdapter) buffer).getLineIndex();
+			return lineIndex != null ? lineIndex : new LineIndex(buffer.getContents());
+		}
+		if (buffer == null) {
+			return new LineIndex(null);
+		}
+		LineIndex lineIndex = lineIndexes.get(buffer);
+		// a change may have been missed while the index was being built
+		if (lineIndex == null || lineIndex.getLength() != buffer.getLength()) {
+			buffer.addBufferChangedListener(lineIndexInvalidator);
+			lineIndex = new LineIndex(buffer.getContents());
+			lineIndexes.put(buffer, lineIndex);
 		}
-		return null;
+		return lineIndex;
 	}
 
 	/**
@@ -64,8 +101,8 @@ final public class JsonRpcHelpers {
 	public static IDocument toDocument(IBuffer buffer) {
 		if (buffer instanceof IDocument) {
 			return (IDocument) buffer;
-		} else if (buffer instanceof org.jboss.tools.vscode.java.internal.DocumentAdapter) {
-			IDocument document = ((org.jboss.tools.vscode.java.internal.DocumentAdapter) buffer).getDocument();
+		} else if (buffer instanceof DocumentAdapter) {
+			IDocument document = ((DocumentAdapter) buffer).getDocument();
 			if (document != null) {
 				return document;
 			}
@@ -12,7 +12,6 @@ package org.jboss.tools.vscode.java.internal.handlers;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -27,12 +26,6 @@ import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 
 public class NavigateToDefinitionHandler {
 
-	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position){
-		return CompletableFuture.supplyAsync(()->{
-			return getDefinition(position);
-		});
-	}
-
 	public List<? extends Location> getDefinition(TextDocumentPositionParams position){
 		ITypeRoot unit = JDTUtils.resolveTypeRoot(position.getTextDocument().getUri());
 		Location location = null;
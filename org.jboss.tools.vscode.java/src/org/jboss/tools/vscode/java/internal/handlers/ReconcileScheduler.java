@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
+
+/**
+ * Coalesces reconcile requests for open documents. Changes are applied to the
+ * working copy buffers right away, while the (expensive) reconcile runs once,
+ * after a configurable quiet period has elapsed since the last change.
+ * <p>
+ * The scheduler also tracks the LSP version of each document: an in-flight
+ * reconcile is cancelled as soon as a newer version is queued, and its
+ * diagnostics are considered stale.
+ * </p>
+ */
+public class ReconcileScheduler {
+
+	private final Set<ICompilationUnit> pending = new LinkedHashSet<>();
+	private final Map<ICompilationUnit, Integer> versions = new ConcurrentHashMap<>();
+	private final Map<ICompilationUnit, Integer> reconciled = new ConcurrentHashMap<>();
+	private final Map<ICompilationUnit, Reconcile> inFlight = new ConcurrentHashMap<>();
+	private final PreferenceManager preferenceManager;
+	private final Job reconcileJob;
+
+	/**
+	 * A reconcile in progress, for a given document version.
+	 */
+	private static class Reconcile extends NullProgressMonitor {
+		private final Integer version;
+		private final IProgressMonitor parent;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile boolean completed;
+
+		Reconcile(Integer version, IProgressMonitor parent) {
+			this.version = version;
+			this.parent = parent;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || (parent != null && parent.isCanceled());
+		}
+
+		/**
+		 * Waits for this reconcile to finish.
+		 *
+		 * @return <code>true</code> if the reconcile ran to completion,
+		 *         <code>false</code> if it was cancelled or failed
+		 */
+		boolean await() {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			return completed;
+		}
+	}
+
+	public ReconcileScheduler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+		this.reconcileJob = new Job("Reconcile documents") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				reconcilePending(monitor);
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == ReconcileScheduler.class;
+			}
+		};
+		this.reconcileJob.setSystem(true);
+		this.reconcileJob.setPriority(Job.SHORT);
+	}
+
+	/**
+	 * Queues a reconcile for the given version of a working copy. Subsequent
+	 * calls made before the quiet period elapses are coalesced into a single
+	 * reconcile. A reconcile of an older version still in progress is
+	 * cancelled.
+	 *
+	 * @param unit a working copy whose buffer has changed
+	 * @param version the document version, or <code>null</code> if unknown
+	 */
+	public void schedule(ICompilationUnit unit, Integer version) {
+		updateVersion(unit, version);
+		synchronized (pending) {
+			pending.add(unit);
+		}
+		cancelInFlight(unit);
+		// A running job is rescheduled by the job manager once it completes,
+		// otherwise restart the quiet period.
+		if (reconcileJob.getState() != Job.RUNNING) {
+			reconcileJob.cancel();
+		}
+		reconcileJob.schedule(getDelay());
+	}
+
+	/**
+	 * Reconciles the given version of a working copy immediately, in the
+	 * calling thread, i.e. when the document is opened.
+	 *
+	 * @param unit a working copy
+	 * @param version the document version, or <code>null</code> if unknown
+	 */
+	public void reconcileNow(ICompilationUnit unit, Integer version) {
+		updateVersion(unit, version);
+		synchronized (pending) {
+			pending.remove(unit);
+		}
+		cancelInFlight(unit);
+		reconcile(unit, null);
+	}
+
+	/**
+	 * Brings the java model of the given working copy up to date, in the
+	 * calling thread. A reconcile already running for the unit is waited for;
+	 * the unit is then reconciled if it has a pending reconcile, or if the
+	 * last completed reconcile is older than the latest document version.
+	 * Used by requests that need an up to date java model, like completion or
+	 * hover.
+	 *
+	 * @param unit a working copy
+	 */
+	public void flush(ICompilationUnit unit) {
+		if (unit == null) {
+			return;
+		}
+		boolean needed;
+		synchronized (pending) {
+			needed = pending.remove(unit);
+		}
+		Reconcile running = inFlight.get(unit);
+		if (running != null && !running.await()) {
+			needed = true;
+		}
+		if (needed || isBehind(unit)) {
+			reconcile(unit, null);
+		}
+	}
+
+	/**
+	 * Drops any pending or in-flight reconcile for the given working copy,
+	 * i.e. when the document is closed.
+	 *
+	 * @param unit a working copy
+	 */
+	public void remove(ICompilationUnit unit) {
+		synchronized (pending) {
+			pending.remove(unit);
+		}
+		cancelInFlight(unit);
+		versions.remove(unit);
+		reconciled.remove(unit);
+	}
+
+	/**
+	 * @param unit a working copy
+	 * @return the last version received for the document, or
+	 *         <code>null</code> if unknown
+	 */
+	public Integer getVersion(ICompilationUnit unit) {
+		return versions.get(unit);
+	}
+
+	/**
+	 * Checks whether the reconcile currently running for the given working
+	 * copy has been superseded by a newer document version. Results computed
+	 * by a stale reconcile, like diagnostics, must not be sent to the client.
+	 *
+	 * @param unit a working copy
+	 * @return <code>true</code> if a newer version of the document was received
+	 */
+	public boolean isStale(ICompilationUnit unit) {
+		Reconcile reconcile = inFlight.get(unit);
+		if (reconcile == null) {
+			return false;
+		}
+		if (reconcile.isCanceled()) {
+			return true;
+		}
+		Integer latest = versions.get(unit);
+		return reconcile.version != null && latest != null && reconcile.version.intValue() < latest.intValue();
+	}
+
+	private boolean isBehind(ICompilationUnit unit) {
+		Integer latest = versions.get(unit);
+		if (latest == null) {
+			return false;
+		}
+		Integer last = reconciled.get(unit);
+		return last == null || last.intValue() < latest.intValue();
+	}
+
+	private void updateVersion(ICompilationUnit unit, Integer version) {
+		if (version != null) {
+			versions.put(unit, version);
+		}
+	}
+
+	private void cancelInFlight(ICompilationUnit unit) {
+		Reconcile reconcile = inFlight.get(unit);
+		if (reconcile != null) {
+			reconcile.setCanceled(true);
+		}
+	}
+
+	private void reconcilePending(IProgressMonitor monitor) {
+		List<ICompilationUnit> units;
+		synchronized (pending) {
+			units = new ArrayList<>(pending);
+			pending.clear();
+		}
+		for (ICompilationUnit unit : units) {
+			reconcile(unit, monitor);
+		}
+	}
+
+	private void reconcile(ICompilationUnit unit, IProgressMonitor monitor) {
+		if (!unit.isWorkingCopy()) {
+			return;
+		}
+		Reconcile reconcile = new Reconcile(versions.get(unit), monitor);
+		inFlight.put(unit, reconcile);
+		try {
+			JavaLanguageServerPlugin.getSharedASTProvider().reconcile(unit, JavaLanguageServerPlugin.getInstance().getWorkingCopyOwner(), reconcile);
+			if (!reconcile.isCanceled()) {
+				reconcile.completed = true;
+				// the document may have been closed meanwhile
+				if (reconcile.version != null && versions.containsKey(unit)) {
+					reconciled.merge(unit, reconcile.version, Math::max);
+				}
+			}
+		} catch (OperationCanceledException e) {
+			// a newer version was queued, it will be reconciled next
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Failed to reconcile " + unit.getElementName(), e);
+		} finally {
+			inFlight.remove(unit, reconcile);
+			reconcile.done.countDown();
+		}
+	}
+
+	private long getDelay() {
+		if (preferenceManager == null || preferenceManager.getPreferences() == null) {
+			return Preferences.DEFAULT_RECONCILE_DELAY;
+		}
+		return preferenceManager.getPreferences().getReconcileDelay();
+	}
+}
@@ -10,17 +10,30 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.handlers;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
@@ -34,16 +47,130 @@ import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
-
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
+
+/**
+ * Finds the references of the element at a position. The search scope is
+ * narrowed to where the element is visible: its compilation unit for private
+ * and local elements, its package for package-private ones, and its project
+ * and the projects depending on it for the others. At most
+ * {@link Preferences#getMaxReferences()} references are returned.
+ */
 public class ReferencesHandler {
 
+	private static final int PRIVATE = 0;
+	private static final int PACKAGE = 1;
+	private static final int PUBLIC = 2;
+
+	private final PreferenceManager preferenceManager;
+
+	public ReferencesHandler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+	}
+
+	/**
+	 * Creates the scope where the given element can be referenced from.
+	 */
+	IJavaSearchScope createSearchScope(IJavaElement element) throws JavaModelException {
+		IJavaProject javaProject = element.getJavaProject();
+		if (element.getResource() == null || javaProject == null) {
+			// i.e. a library element, referenced from any project
+			IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+			return SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES);
+		}
+		int visibility = getVisibility(element);
+		if (visibility == PRIVATE) {
+			IJavaElement unit = element.getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (unit != null) {
+				return SearchEngine.createJavaSearchScope(new IJavaElement[] { unit });
+			}
+		}
+		Set<IJavaProject> javaProjects = getDependentProjects(javaProject);
+		IPackageFragment fragment = (IPackageFragment) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT);
+		if (visibility != PUBLIC && fragment != null) {
+			// the package may be split across source folders and projects
+			Set<IJavaElement> fragments = new LinkedHashSet<>();
+			fragments.add(fragment);
+			for (IJavaProject dependent : javaProjects) {
+				for (IPackageFragmentRoot packageRoot : dependent.getPackageFragmentRoots()) {
+					if (packageRoot.getKind() == IPackageFragmentRoot.K_SOURCE) {
+						IPackageFragment candidate = packageRoot.getPackageFragment(fragment.getElementName());
+						if (candidate.exists()) {
+							fragments.add(candidate);
+						}
+					}
+				}
+			}
+			return SearchEngine.createJavaSearchScope(fragments.toArray(new IJavaElement[fragments.size()]));
+		}
+		// source elements can not be referenced from libraries
+		return SearchEngine.createJavaSearchScope(javaProjects.toArray(new IJavaProject[javaProjects.size()]), IJavaSearchScope.SOURCES);
+	}
+
+	/**
+	 * Returns the given project followed by the projects requiring it,
+	 * directly or not. The required projects are looked up in reverse from
+	 * the resolved classpaths JDT keeps for each project, so nothing is
+	 * resolved again for each request.
+	 */
+	private static Set<IJavaProject> getDependentProjects(IJavaProject javaProject) throws JavaModelException {
+		Map<String, List<IJavaProject>> dependents = new HashMap<>();
+		for (IJavaProject project : javaProject.getJavaModel().getJavaProjects()) {
+			for (String required : project.getRequiredProjectNames()) {
+				dependents.computeIfAbsent(required, name -> new ArrayList<>()).add(project);
+			}
+		}
+		Set<IJavaProject> projects = new LinkedHashSet<>();
+		projects.add(javaProject);
+		Deque<IJavaProject> queue = new ArrayDeque<>(projects);
+		while (!queue.isEmpty()) {
+			for (IJavaProject dependent : dependents.getOrDefault(queue.poll().getElementName(), Collections.emptyList())) {
+				if (projects.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+		return projects;
+	}
 
-	private IJavaSearchScope createSearchScope() throws JavaModelException {
-		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
-		return SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES);
+	/**
+	 * @return the visibility of the given element, from its own modifiers
+	 *         only: the public and protected members of a package-private
+	 *         type can still be referenced from other packages, through a
+	 *         public subtype
+	 */
+	private static int getVisibility(IJavaElement element) throws JavaModelException {
+		if (element.getElementType() == IJavaElement.LOCAL_VARIABLE || element.getElementType() == IJavaElement.TYPE_PARAMETER) {
+			return PRIVATE;
+		}
+		if (!(element instanceof IMember)) {
+			return PUBLIC;
+		}
+		IMember member = (IMember) element;
+		if (member instanceof IType && (((IType) member).isLocal() || ((IType) member).isAnonymous())) {
+			return PRIVATE;
+		}
+		IType declaringType = member.getDeclaringType();
+		int flags = member.getFlags();
+		if ((declaringType != null && declaringType.isInterface()) || (Flags.isEnum(flags) && member.getElementType() == IJavaElement.FIELD)) {
+			// interface members and enum constants are implicitly public
+			return PUBLIC;
+		}
+		if (Flags.isPrivate(flags)) {
+			return PRIVATE;
+		}
+		if (!Flags.isPublic(flags) && !Flags.isProtected(flags)) {
+			return PACKAGE;
+		}
+		return PUBLIC;
 	}
 
 	List<Location> findReferences(ReferenceParams param) {
+		return findReferences(param, new NullProgressMonitor());
+	}
+
+	List<Location> findReferences(ReferenceParams param, IProgressMonitor monitor) {
 		SearchEngine engine = new SearchEngine();
 
 		try {
@@ -54,36 +181,51 @@ public class ReferencesHandler {
 			if(elementToSearch == null)
 				return Collections.emptyList();
 
+			int maxResults = preferenceManager == null ? Preferences.DEFAULT_MAX_REFERENCES
+					: preferenceManager.getPreferences().getMaxReferences();
 			SearchPattern pattern = SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
 			List<Location> locations = new ArrayList<>();
-			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
-					createSearchScope(), new SearchRequestor() {
-
+			// cancelled by the requestor once the maximum number of references is found
+			IProgressMonitor searchMonitor = new NullProgressMonitor() {
 				@Override
-				public void acceptSearchMatch(SearchMatch match) throws CoreException {
-					Object o = match.getElement();
-					if (o instanceof IJavaElement) {
-						IJavaElement element = (IJavaElement) o;
-						ICompilationUnit compilationUnit = (ICompilationUnit) element
-								.getAncestor(IJavaElement.COMPILATION_UNIT);
-						Location location = null;
-						if (compilationUnit != null) {
-							location = JDTUtils.toLocation(compilationUnit, match.getOffset(),
-									match.getLength());
-						}
-						else{
-							IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
-							if (cf != null && cf.getSourceRange() != null) {
-								location = JDTUtils.toLocation(cf, match.getOffset(), match.getLength());
+				public boolean isCanceled() {
+					return locations.size() >= maxResults || (monitor != null && monitor.isCanceled());
+				}
+			};
+			try {
+				engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+						createSearchScope(elementToSearch), new SearchRequestor() {
+
+					@Override
+					public void acceptSearchMatch(SearchMatch match) throws CoreException {
+						Object o = match.getElement();
+						if (o instanceof IJavaElement && locations.size() < maxResults) {
+							IJavaElement element = (IJavaElement) o;
+							ICompilationUnit compilationUnit = (ICompilationUnit) element
+									.getAncestor(IJavaElement.COMPILATION_UNIT);
+							Location location = null;
+							if (compilationUnit != null) {
+								location = JDTUtils.toLocation(compilationUnit, match.getOffset(),
+										match.getLength());
 							}
+							else{
+								IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
+								if (cf != null && cf.getSourceRange() != null) {
+									location = JDTUtils.toLocation(cf, match.getOffset(), match.getLength());
+								}
+							}
+							if (location != null )
+								locations.add(location);
+
 						}
-						if (location != null )
-							locations.add(location);
 
 					}
-
+				}, searchMonitor);
+			} catch (OperationCanceledException e) {
+				if (locations.size() < maxResults) {
+					throw e;
 				}
-			}, new NullProgressMonitor());
+			}
 
 			return locations;
 		} catch (CoreException e) {
@@ -93,6 +235,3 @@ public class ReferencesHandler {
 	}
 
 }
-
-
-
@@ -10,14 +10,22 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.handlers;
 
-import java.util.Collections;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection;
 import org.jboss.tools.vscode.java.internal.managers.ProjectsManager;
@@ -47,22 +55,63 @@ public class WorkspaceEventsHandler {
 	}
 
 	void didChangeWatchedFiles(DidChangeWatchedFilesParams param){
-		List<FileEvent> changes = param.getChanges();
-		for (FileEvent fileEvent : changes) {
-			CHANGE_TYPE changeType = toChangeType(fileEvent.getType());
-			if(changeType==CHANGE_TYPE.DELETED){
-				cleanUpDiagnostics(fileEvent.getUri());
+		Map<String, CHANGE_TYPE> changes = collapse(param.getChanges());
+		Set<IPath> workingCopies = getWorkingCopyLocations();
+		for (Iterator<Map.Entry<String, CHANGE_TYPE>> it = changes.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, CHANGE_TYPE> change = it.next();
+			if (change.getValue() == CHANGE_TYPE.DELETED) {
+				cleanUpDiagnostics(change.getKey());
 			}
-			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(fileEvent.getUri());
-			if (unit != null && unit.isWorkingCopy()) {
-				continue;
+			// open documents are owned by the client
+			if (!workingCopies.isEmpty() && workingCopies.contains(toLocation(change.getKey()))) {
+				it.remove();
 			}
-			pm.fileChanged(fileEvent.getUri(), changeType);
 		}
+		pm.filesChanged(changes);
+	}
+
+	/**
+	 * Reduces the events of each file to a single change, in the order the
+	 * files were first changed. A file created then deleted is dropped, a
+	 * file deleted then created is changed.
+	 */
+	Map<String, CHANGE_TYPE> collapse(List<FileEvent> events) {
+		Map<String, CHANGE_TYPE> changes = new LinkedHashMap<>();
+		for (FileEvent event : events) {
+			String uri = event.getUri();
+			CHANGE_TYPE current = toChangeType(event.getType());
+			CHANGE_TYPE previous = changes.get(uri);
+			if (previous == null) {
+				changes.put(uri, current);
+			} else if (previous == CHANGE_TYPE.CREATED && current == CHANGE_TYPE.DELETED) {
+				changes.remove(uri);
+			} else if (previous == CHANGE_TYPE.DELETED && current == CHANGE_TYPE.CREATED) {
+				changes.put(uri, CHANGE_TYPE.CHANGED);
+			} else if (previous != CHANGE_TYPE.CREATED) {
+				changes.put(uri, current);
+			}
+		}
+		return changes;
+	}
+
+	private static Set<IPath> getWorkingCopyLocations() {
+		Set<IPath> locations = new HashSet<>();
+		for (ICompilationUnit unit : JavaCore.getWorkingCopies(null)) {
+			IResource resource = unit.getResource();
+			if (resource != null && resource.getLocation() != null) {
+				locations.add(resource.getLocation());
+			}
+		}
+		return locations;
+	}
+
+	private static IPath toLocation(String uriString) {
+		URI uri = JDTUtils.toURI(uriString);
+		return uri == null || !"file".equals(uri.getScheme()) ? null : URIUtil.toPath(uri);
 	}
 
 	private void cleanUpDiagnostics(String uri){
-		this.connection.publishDiagnostics(new PublishDiagnosticsParams(uri, Collections.emptyList()));
+		this.connection.clearDiagnostics(uri);
 	}
 
 }
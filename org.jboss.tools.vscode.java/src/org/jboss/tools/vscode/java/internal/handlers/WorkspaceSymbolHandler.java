@@ -12,13 +12,18 @@ package org.jboss.tools.vscode.java.internal.handlers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -29,35 +34,236 @@ import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.SymbolIndex;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
 
+/**
+ * Searches the types, methods and fields of the workspace matching a query,
+ * by prefix or camel case. Only the best
+ * {@link Preferences#getMaxWorkspaceSymbols()} matches are returned, best
+ * first.
+ * <p>
+ * Queries run against the {@link SymbolIndex}. Until it has indexed the whole
+ * workspace, only types are searched, in the JDT indexes, without waiting for
+ * them to be ready: while the workspace is being indexed, the matches found in
+ * the indexes available so far are returned.
+ * </p>
+ */
 public class WorkspaceSymbolHandler{
 
-	List<SymbolInformation> search(String query) {
-		try {
-			ArrayList<SymbolInformation> symbols = new ArrayList<>();
+	static final int EXACT_MATCH = 1000;
+	static final int EXACT_MATCH_IGNORE_CASE = 900;
+	static final int PREFIX_MATCH = 800;
+	static final int PREFIX_MATCH_IGNORE_CASE = 700;
+	static final int CAMEL_CASE_MATCH = 600;
+	static final int PATTERN_MATCH = 500;
+
+	/**
+	 * A match, either a type found by the JDT search or a symbol of the
+	 * {@link SymbolIndex.View}
+	 */
+	private static class Candidate {
+		private final TypeNameMatch match;
+		private final int position;
+		private final String name;
+		private final int score;
+
+		Candidate(TypeNameMatch match, int position, String name, int score) {
+			this.match = match;
+			this.position = position;
+			this.name = name;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * Orders candidates from the best to the worst: highest score, then
+	 * shortest name, then alphabetically
+	 */
+	private static final Comparator<Candidate> BEST_FIRST = Comparator.<Candidate> comparingInt(c -> -c.score)
+			.thenComparingInt(c -> c.name.length())
+			.thenComparing(c -> c.name);
+
+	/**
+	 * Keeps the best candidates found so far, the worst of them at the head
+	 */
+	private static class TopCandidates {
+		private final int max;
+		private final PriorityQueue<Candidate> best;
+
+		TopCandidates(int max) {
+			this.max = max;
+			this.best = new PriorityQueue<>(max + 1, BEST_FIRST.reversed());
+		}
+
+		void add(Candidate candidate) {
+			if (best.size() < max) {
+				best.add(candidate);
+			} else if (BEST_FIRST.compare(candidate, best.peek()) < 0) {
+				best.poll();
+				best.add(candidate);
+			}
+		}
+
+		/**
+		 * @return whether no better candidate can be found
+		 */
+		boolean isComplete() {
+			return best.size() == max && best.peek().score == EXACT_MATCH;
+		}
+
+		List<Candidate> toList() {
+			List<Candidate> candidates = new ArrayList<>(best);
+			candidates.sort(BEST_FIRST);
+			return candidates;
+		}
+	}
+
+	private final PreferenceManager preferenceManager;
+
+	public WorkspaceSymbolHandler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+	}
+
+	List<SymbolInformation> search(String query, IProgressMonitor monitor) {
+		if (query == null || query.trim().isEmpty()) {
+			return Collections.emptyList();
+		}
+		String pattern = query.trim();
+		int maxResults = preferenceManager == null ? Preferences.DEFAULT_MAX_WORKSPACE_SYMBOLS
+				: preferenceManager.getPreferences().getMaxWorkspaceSymbols();
+		SymbolIndex index = JavaLanguageServerPlugin.getSymbolIndex();
+		if (index != null) {
+			index.initialize();
+			if (index.isReady()) {
+				return searchIndex(index.getView(), pattern, maxResults, monitor);
+			}
+		}
+		return searchTypes(pattern, maxResults, monitor);
+	}
+
+	static List<SymbolInformation> searchIndex(SymbolIndex.View view, String pattern, int maxResults, IProgressMonitor monitor) {
+		boolean wildcards = isPattern(pattern);
+		char[] patternChars = wildcards ? pattern.toCharArray() : null;
+		int start = 0;
+		int end = view.size();
+		if (!wildcards || (pattern.charAt(0) != '*' && pattern.charAt(0) != '?')) {
+			// all the matches share the first character of the query
+			int[] range = view.getRange(pattern.charAt(0));
+			start = range[0];
+			end = range[1];
+		}
+		TopCandidates best = new TopCandidates(maxResults);
+		for (int i = start; i < end && !best.isComplete(); i++) {
+			if ((i & 0xFFF) == 0 && monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			String name = view.getName(i);
+			int score = wildcards ? (CharOperation.match(patternChars, name.toCharArray(), false) ? PATTERN_MATCH : -1) : score(pattern, name);
+			if (score >= 0) {
+				best.add(new Candidate(null, i, name, score));
+			}
+		}
+		List<Candidate> candidates = best.toList();
+		List<SymbolInformation> symbols = new ArrayList<>(candidates.size());
+		for (Candidate candidate : candidates) {
+			int i = candidate.position;
+			SymbolInformation symbolInformation = new SymbolInformation();
+			symbolInformation.setContainerName(view.getContainerName(i));
+			symbolInformation.setName(candidate.name);
+			symbolInformation.setKind(view.getKind(i));
+			Location location = new Location();
+			location.setUri(view.getUri(i));
+			int line = view.getLine(i);
+			int column = view.getColumn(i);
+			location.setRange(new Range(new Position(line, column), new Position(line, column + candidate.name.length())));
+			symbolInformation.setLocation(location);
+			symbols.add(symbolInformation);
+		}
+		return symbols;
+	}
 
-			new SearchEngine().searchAllTypeNames(null,SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_PREFIX_MATCH,IJavaSearchConstants.TYPE, createSearchScope(),new TypeNameMatchRequestor() {
+	private List<SymbolInformation> searchTypes(String pattern, int maxResults, IProgressMonitor monitor) {
+		boolean wildcards = isPattern(pattern);
+		int matchRule = wildcards ? SearchPattern.R_PATTERN_MATCH : SearchPattern.R_CAMELCASE_MATCH;
+		TopCandidates best = new TopCandidates(maxResults);
+		// cancelled by the requestor once no better candidate can be found
+		IProgressMonitor searchMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return best.isComplete() || (monitor != null && monitor.isCanceled());
+			}
+		};
+		try {
+			new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, pattern.toCharArray(), matchRule, IJavaSearchConstants.TYPE, createSearchScope(), new TypeNameMatchRequestor() {
 
 				@Override
 				public void acceptTypeNameMatch(TypeNameMatch match) {
-					SymbolInformation symbolInformation = new SymbolInformation();
-					symbolInformation.setContainerName(match.getTypeContainerName());
-					symbolInformation.setName(match.getSimpleTypeName());
-					symbolInformation.setKind(DocumentSymbolHandler.mapKind(match.getType()));
-					Location location = new Location();
-					location.setUri(match.getType().getResource().getLocationURI().toString());
-					location.setRange(new Range(new Position(0,0), new Position(0, 0)));
-					symbolInformation.setLocation(location);
-					symbols.add(symbolInformation);
+					String name = match.getSimpleTypeName();
+					int score = wildcards ? PATTERN_MATCH : score(pattern, name);
+					if (score >= 0) {
+						best.add(new Candidate(match, -1, name, score));
+					}
 				}
-			}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, new NullProgressMonitor());
-
-			return symbols;
+			}, IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH, searchMonitor);
+		} catch (OperationCanceledException e) {
+			if (!best.isComplete()) {
+				throw e;
+			}
 		} catch (JavaModelException e) {
-			JavaLanguageServerPlugin.logException("Problem getting search for" +  query, e);
+			JavaLanguageServerPlugin.logException("Problem getting search for" +  pattern, e);
+			return Collections.emptyList();
+		}
+		List<Candidate> candidates = best.toList();
+		List<SymbolInformation> symbols = new ArrayList<>(candidates.size());
+		for (Candidate candidate : candidates) {
+			TypeNameMatch match = candidate.match;
+			if (match.getType().getResource() == null) {
+				continue;
+			}
+			SymbolInformation symbolInformation = new SymbolInformation();
+			symbolInformation.setContainerName(match.getTypeContainerName());
+			symbolInformation.setName(candidate.name);
+			symbolInformation.setKind(DocumentSymbolHandler.mapKind(match.getType()));
+			Location location = new Location();
+			location.setUri(JDTUtils.getFileURI(match.getType().getResource()));
+			location.setRange(new Range(new Position(0,0), new Position(0, 0)));
+			symbolInformation.setLocation(location);
+			symbols.add(symbolInformation);
+		}
+		return symbols;
+	}
+
+	private static boolean isPattern(String query) {
+		return query.indexOf('*') >= 0 || query.indexOf('?') >= 0;
+	}
+
+	/**
+	 * Scores how well a type name matches the query.
+	 *
+	 * @return the score, the higher the better, or -1 if the name does not
+	 *         match
+	 */
+	static int score(String query, String name) {
+		if (name.equals(query)) {
+			return EXACT_MATCH;
+		}
+		if (name.equalsIgnoreCase(query)) {
+			return EXACT_MATCH_IGNORE_CASE;
+		}
+		if (name.startsWith(query)) {
+			return PREFIX_MATCH;
+		}
+		if (name.regionMatches(true, 0, query, 0, query.length())) {
+			return PREFIX_MATCH_IGNORE_CASE;
+		}
+		if (SearchPattern.camelCaseMatch(query, name)) {
+			return CAMEL_CASE_MATCH;
 		}
-		return Collections.emptyList();
+		return -1;
 	}
 
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
@@ -65,4 +271,4 @@ public class WorkspaceSymbolHandler{
 		return SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES);
 	}
 
-}
\ No newline at end of file
+}
@@ -13,57 +13,81 @@ package org.jboss.tools.vscode.java.internal.javadoc;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-import com.overzealous.remark.Options;
-import com.overzealous.remark.Options.Tables;
-import com.overzealous.remark.Remark;
+import org.eclipse.jdt.core.dom.TagElement;
+import org.jboss.tools.vscode.java.internal.javadoc.MarkdownWriter.Mode;
 
 /**
  * Converts JavaDoc tags into Markdown equivalent.
+ * <p>
+ * The Javadoc content, its inline tags and its HTML subset are tokenized in a
+ * single pass and written as Markdown directly, there is no intermediate HTML
+ * document.
+ * </p>
  *
  * @author Fred Bricon
  */
 public class JavaDoc2MarkdownConverter {
 
-	private static Remark remark;
+	/**
+	 * Buffers above this capacity are not kept for the next conversion.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
 
-	private String markDown;
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+	private static final Map<String, String> ENTITIES;
 
 	static {
-		Options options = new Options();
-		options.tables = Tables.CONVERT_TO_CODE_BLOCK;
-		options.hardwraps = true;
-		options.inlineLinks = true;
-		options.autoLinks = true;
-		options.reverseHtmlSmartPunctuation = true;
-		remark = new Remark(options);
+		Map<String, String> entities = new HashMap<>();
+		entities.put("lt", "<");
+		entities.put("gt", ">");
+		entities.put("amp", "&");
+		entities.put("quot", "\"");
+		entities.put("apos", "'");
+		entities.put("nbsp", " ");
+		entities.put("lsquo", "'");
+		entities.put("rsquo", "'");
+		entities.put("ldquo", "\"");
+		entities.put("rdquo", "\"");
+		entities.put("ndash", "--");
+		entities.put("mdash", "---");
+		entities.put("hellip", "...");
+		entities.put("copy", "\u00a9");
+		entities.put("reg", "\u00ae");
+		entities.put("trade", "\u2122");
+		ENTITIES = Collections.unmodifiableMap(entities);
 	}
 
-	private JavaDoc2HTMLTextReader reader;
+	private Reader reader;
+
+	private String javadoc;
+
+	private String markDown;
 
 	private boolean read;
 
 	public JavaDoc2MarkdownConverter(Reader reader) {
-		setJavaDoc2HTMLTextReader(reader);
+		this.reader = reader;
 	}
 
 
 	public JavaDoc2MarkdownConverter(String javadoc) {
-		setJavaDoc2HTMLTextReader(javadoc== null? null:new StringReader(javadoc));
-	}
-
-	private void setJavaDoc2HTMLTextReader(Reader reader) {
-		if (reader == null || reader instanceof JavaDoc2HTMLTextReader)  {
-			this.reader = (JavaDoc2HTMLTextReader) reader;
-		} else {
-			this.reader = new JavaDoc2HTMLTextReader(reader);
-		}
+		this.javadoc = javadoc;
 	}
 
 	public String getAsString() throws IOException {
-		if (!read && reader != null) {
-			String rawHtml = reader.getString();
-			markDown = remark.convert(rawHtml);
+		if (!read) {
+			if (javadoc == null && reader != null) {
+				javadoc = read(reader);
+			}
+			markDown = javadoc == null ? null : convert(javadoc);
+			read = true;
 		}
 		return markDown;
 	}
@@ -72,4 +96,652 @@ public class JavaDoc2MarkdownConverter {
 		String m = getAsString();
 		return m == null ? null : new StringReader(m);
 	}
+
+	private static String read(Reader reader) throws IOException {
+		StringBuilder buffer = new StringBuilder();
+		char[] chars = new char[1024];
+		int length;
+		while ((length = reader.read(chars)) != -1) {
+			buffer.append(chars, 0, length);
+		}
+		return buffer.toString();
+	}
+
+	private static String convert(String javadoc) {
+		StringBuilder buffer = BUFFER.get();
+		buffer.setLength(0);
+		try {
+			MarkdownWriter writer = new MarkdownWriter(buffer);
+			int tags = render(writer, javadoc, 0, javadoc.length(), true);
+			if (tags < javadoc.length()) {
+				writer.endAll();
+				renderBlockTags(writer, javadoc, tags);
+			}
+			return writer.toMarkdown();
+		} finally {
+			if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+				BUFFER.remove();
+			} else {
+				buffer.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * Renders the given range of Javadoc content.
+	 *
+	 * @param blockTags
+	 *            whether to stop at the first block tag
+	 * @return the offset of the first block tag, or <code>end</code>
+	 */
+	private static int render(MarkdownWriter writer, String text, int start, int end, boolean blockTags) {
+		boolean lineStart = true;
+		int i = start;
+		while (i < end) {
+			char c = text.charAt(i);
+			if (c == '@' && blockTags && lineStart && i + 1 < end && Character.isLetter(text.charAt(i + 1))) {
+				return i;
+			}
+			if (c == '\n') {
+				lineStart = true;
+			} else if (!Character.isWhitespace(c)) {
+				lineStart = false;
+			}
+			if (c == '{' && i + 1 < end && text.charAt(i + 1) == '@') {
+				i = renderInlineTag(writer, text, i, end);
+			} else if (c == '<') {
+				i = renderHtmlTag(writer, text, i, end);
+			} else if (c == '&') {
+				i = renderEntity(writer, text, i, end);
+			} else {
+				writer.text(c);
+				i++;
+			}
+		}
+		return end;
+	}
+
+	private static void render(MarkdownWriter writer, String text) {
+		render(writer, text, 0, text.length(), false);
+	}
+
+	// ----- inline tags
+
+	/*
+	 * A '{@' has been read, renders the inline tag and returns the offset
+	 * after it
+	 */
+	private static int renderInlineTag(MarkdownWriter writer, String text, int start, int end) {
+		int nameEnd = start + 2;
+		while (nameEnd < end && Character.isLetter(text.charAt(nameEnd))) {
+			nameEnd++;
+		}
+		int close = getInlineTagEnd(text, nameEnd, end);
+		String tag = text.substring(start + 1, nameEnd);
+		String tagContent = text.substring(nameEnd, close);
+
+		if (TagElement.TAG_LINK.equals(tag) || TagElement.TAG_LINKPLAIN.equals(tag)) {
+			String label = substituteQualification(tagContent.substring(getLabelStart(tagContent)));
+			if (TagElement.TAG_LINK.equals(tag)) {
+				writer.code(label);
+			} else {
+				render(writer, label);
+			}
+		} else if (TagElement.TAG_CODE.equals(tag)) {
+			writer.code(trimLeading(tagContent));
+		} else if (TagElement.TAG_LITERAL.equals(tag)) {
+			writer.text(trimLeading(tagContent));
+		} else {
+			// If something went wrong at least replace the {} with the content
+			render(writer, substituteQualification(tagContent));
+		}
+		return close < end ? close + 1 : end;
+	}
+
+	/*
+	 * Returns the offset of the '}' closing an inline tag, braces in its
+	 * content are balanced
+	 */
+	private static int getInlineTagEnd(String text, int start, int end) {
+		int depth = 1;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '{') {
+				depth++;
+			} else if (c == '}' && --depth == 0) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	private static int getLabelStart(String tagContent) {
+		boolean inParentheses = false;
+		int labelStart = 0;
+		for (int i = 0; i < tagContent.length(); i++) {
+			char nextChar = tagContent.charAt(i);
+
+			// tagContent always has a leading space
+			if (i == 0 && Character.isWhitespace(nextChar)) {
+				labelStart = 1;
+				continue;
+			}
+
+			if (nextChar == '(') {
+				inParentheses = true;
+				continue;
+			}
+
+			if (nextChar == ')') {
+				inParentheses = false;
+				continue;
+			}
+
+			// Stop at first whitespace that is not in parentheses
+			if (!inParentheses && Character.isWhitespace(nextChar)) {
+				labelStart = i + 1;
+				break;
+			}
+		}
+		return labelStart;
+	}
+
+	private static String trimLeading(String s) {
+		int i = 0;
+		while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+			i++;
+		}
+		return s.substring(i);
+	}
+
+	private static String substituteQualification(String qualification) {
+		String result;
+		if (qualification.indexOf("<a") == -1) { //$NON-NLS-1$
+			// No tag at all, use smart way
+			result = qualification.replace('#', '.');
+		} else {
+			// Handle tags
+			StringBuilder buffer = new StringBuilder(qualification);
+			boolean insideTag = false;
+			for (int i = 0; i < buffer.length(); i++) {
+				char charAt = buffer.charAt(i);
+				if (charAt == '<' && i + 1 < buffer.length() && buffer.charAt(i + 1) == 'a') {
+					insideTag = true;
+				}
+				if (charAt == '>') {
+					insideTag = false;
+				}
+				if (charAt == '#' && !insideTag) {
+					buffer.setCharAt(i, '.');
+				}
+			}
+			result = buffer.toString();
+		}
+
+		if (result.startsWith(".")) { //$NON-NLS-1$
+			result = result.substring(1);
+		}
+		return result;
+	}
+
+	// ----- HTML
+
+	/*
+	 * A '<' has been read, renders the HTML tag and returns the offset after
+	 * it. A '<' that does not start a tag is rendered as is.
+	 */
+	private static int renderHtmlTag(MarkdownWriter writer, String text, int start, int end) {
+		if (text.startsWith("<!--", start)) {
+			int close = text.indexOf("-->", start + 4);
+			return close < 0 || close + 3 > end ? end : close + 3;
+		}
+		int i = start + 1;
+		boolean closing = i < end && text.charAt(i) == '/';
+		if (closing) {
+			i++;
+		}
+		int nameStart = i;
+		while (i < end && Character.isLetterOrDigit(text.charAt(i))) {
+			i++;
+		}
+		if (i == nameStart || !Character.isLetter(text.charAt(nameStart))) {
+			writer.text('<');
+			return start + 1;
+		}
+		int nameEnd = i;
+		char quote = 0;
+		while (i < end) {
+			char c = text.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				break;
+			}
+			i++;
+		}
+		if (i >= end) {
+			writer.text('<');
+			return start + 1;
+		}
+		handleHtmlTag(writer, text.substring(nameStart, nameEnd).toLowerCase(), closing, text.substring(nameEnd, i));
+		return i + 1;
+	}
+
+	private static void handleHtmlTag(MarkdownWriter writer, String name, boolean closing, String attributes) {
+		Mode mode = writer.getMode();
+		if (mode == Mode.PRE) {
+			if ("pre".equals(name) && closing) {
+				writer.endPre();
+			} else if ("br".equals(name)) {
+				writer.lineBreak();
+			}
+			return;
+		}
+		if (mode == Mode.TABLE) {
+			switch (name) {
+			case "table":
+				if (closing) {
+					writer.endTable();
+				}
+				break;
+			case "tr":
+				if (!closing) {
+					writer.startRow();
+				}
+				break;
+			case "th":
+			case "td":
+				if (closing) {
+					writer.endCell();
+				} else {
+					writer.startCell("th".equals(name));
+				}
+				break;
+			case "br":
+				writer.lineBreak();
+				break;
+			default:
+				// only the text of the cells is kept
+			}
+			return;
+		}
+		if (writer.isInCode() && !(closing && isCodeTag(name))) {
+			if ("br".equals(name)) {
+				writer.lineBreak();
+			}
+			return;
+		}
+		switch (name) {
+		case "b":
+		case "strong":
+			if (closing) {
+				writer.closeBold();
+			} else {
+				writer.openBold();
+			}
+			break;
+		case "i":
+		case "em":
+		case "cite":
+		case "var":
+		case "dfn":
+			if (closing) {
+				writer.closeItalic();
+			} else {
+				writer.openItalic();
+			}
+			break;
+		case "code":
+		case "tt":
+		case "kbd":
+		case "samp":
+			if (closing) {
+				writer.closeCode();
+			} else {
+				writer.openCode();
+			}
+			break;
+		case "a":
+			if (closing) {
+				writer.closeLink();
+			} else {
+				writer.openLink(getAttribute(attributes, "href"));
+			}
+			break;
+		case "img":
+			writer.image(getAttribute(attributes, "alt"), getAttribute(attributes, "src"));
+			break;
+		case "br":
+			writer.lineBreak();
+			break;
+		case "p":
+		case "div":
+		case "dl":
+		case "dt":
+		case "dd":
+			writer.paragraph();
+			break;
+		case "h1":
+		case "h2":
+		case "h3":
+		case "h4":
+		case "h5":
+		case "h6":
+			if (closing) {
+				writer.paragraph();
+			} else {
+				writer.heading(name.charAt(1) - '0');
+			}
+			break;
+		case "pre":
+			if (!closing) {
+				writer.startPre();
+			}
+			break;
+		case "ul":
+		case "ol":
+			if (closing) {
+				writer.endList();
+			} else {
+				writer.startList("ol".equals(name));
+			}
+			break;
+		case "li":
+			if (closing) {
+				writer.endItem();
+			} else {
+				writer.startItem();
+			}
+			break;
+		case "blockquote":
+			if (closing) {
+				writer.endQuote();
+			} else {
+				writer.startQuote();
+			}
+			break;
+		case "table":
+			if (!closing) {
+				writer.startTable();
+			}
+			break;
+		case "hr":
+			writer.rule();
+			break;
+		default:
+			// unsupported tags are dropped, their content is kept
+		}
+	}
+
+	private static boolean isCodeTag(String name) {
+		return "code".equals(name) || "tt".equals(name) || "kbd".equals(name) || "samp".equals(name);
+	}
+
+	/*
+	 * Returns the decoded value of an attribute, null if it is not set
+	 */
+	private static String getAttribute(String attributes, String name) {
+		int length = attributes.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && (Character.isWhitespace(attributes.charAt(i)) || attributes.charAt(i) == '/')) {
+				i++;
+			}
+			int nameStart = i;
+			while (i < length && !Character.isWhitespace(attributes.charAt(i)) && attributes.charAt(i) != '=' && attributes.charAt(i) != '/') {
+				i++;
+			}
+			String attribute = attributes.substring(nameStart, i);
+			while (i < length && Character.isWhitespace(attributes.charAt(i))) {
+				i++;
+			}
+			String value = "";
+			if (i < length && attributes.charAt(i) == '=') {
+				i++;
+				while (i < length && Character.isWhitespace(attributes.charAt(i))) {
+					i++;
+				}
+				int valueStart;
+				int valueEnd;
+				if (i < length && (attributes.charAt(i) == '"' || attributes.charAt(i) == '\'')) {
+					valueStart = i + 1;
+					valueEnd = attributes.indexOf(attributes.charAt(i), valueStart);
+					if (valueEnd < 0) {
+						valueEnd = length;
+					}
+					i = valueEnd + 1;
+				} else {
+					valueStart = i;
+					while (i < length && !Character.isWhitespace(attributes.charAt(i))) {
+						i++;
+					}
+					valueEnd = i;
+				}
+				value = attributes.substring(valueStart, valueEnd);
+			}
+			if (attribute.equalsIgnoreCase(name)) {
+				return decodeEntities(value);
+			}
+			if (attribute.isEmpty()) {
+				i++;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * A '&' has been read, renders the character entity and returns the
+	 * offset after it. A '&' that does not start an entity is rendered as is.
+	 */
+	private static int renderEntity(MarkdownWriter writer, String text, int start, int end) {
+		int semicolon = getEntityEnd(text, start, end);
+		String decoded = semicolon < 0 ? null : decodeEntity(text.substring(start + 1, semicolon));
+		if (decoded == null) {
+			writer.text('&');
+			return start + 1;
+		}
+		writer.text(decoded);
+		return semicolon + 1;
+	}
+
+	private static int getEntityEnd(String text, int start, int end) {
+		int limit = Math.min(end, start + 10);
+		for (int i = start + 1; i < limit; i++) {
+			char c = text.charAt(i);
+			if (c == ';') {
+				return i > start + 1 ? i : -1;
+			}
+			if (!Character.isLetterOrDigit(c) && c != '#') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private static String decodeEntity(String name) {
+		if (name.charAt(0) != '#') {
+			return ENTITIES.get(name);
+		}
+		try {
+			int codePoint;
+			if (name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')) {
+				codePoint = Integer.parseInt(name.substring(2), 16);
+			} else {
+				codePoint = Integer.parseInt(name.substring(1));
+			}
+			return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String decodeEntities(String value) {
+		if (value.indexOf('&') < 0) {
+			return value;
+		}
+		StringBuilder buffer = new StringBuilder(value.length());
+		int i = 0;
+		while (i < value.length()) {
+			char c = value.charAt(i);
+			int semicolon = c == '&' ? getEntityEnd(value, i, value.length()) : -1;
+			String decoded = semicolon < 0 ? null : decodeEntity(value.substring(i + 1, semicolon));
+			if (decoded == null) {
+				buffer.append(c);
+				i++;
+			} else {
+				buffer.append(decoded);
+				i = semicolon + 1;
+			}
+		}
+		return buffer.toString();
+	}
+
+	// ----- block tags
+
+	/*
+	 * A line starting with '@' has been read, renders the block tags as a
+	 * list, in the same order as the Javadoc hover
+	 */
+	private static void renderBlockTags(MarkdownWriter writer, String text, int start) {
+		List<String> parameters = new ArrayList<>();
+		List<String> exceptions = new ArrayList<>();
+		List<String> authors = new ArrayList<>();
+		List<String> sees = new ArrayList<>();
+		List<String> since = new ArrayList<>();
+		List<String> returns = new ArrayList<>(1);
+		List<String[]> rest = new ArrayList<>();
+
+		int end = text.length();
+		int i = start;
+		while (i < end) {
+			int nameEnd = i + 1;
+			while (nameEnd < end && (Character.isLetter(text.charAt(nameEnd)) || text.charAt(nameEnd) == '.')) {
+				nameEnd++;
+			}
+			String tag = text.substring(i, nameEnd);
+			i = getNextBlockTag(text, nameEnd, end);
+			String tagContent = text.substring(nameEnd, i).trim();
+
+			if (TagElement.TAG_PARAM.equals(tag)) {
+				parameters.add(tagContent);
+			} else if (TagElement.TAG_RETURN.equals(tag)) {
+				returns.clear();
+				returns.add(tagContent);
+			} else if (TagElement.TAG_EXCEPTION.equals(tag) || TagElement.TAG_THROWS.equals(tag)) {
+				exceptions.add(tagContent);
+			} else if (TagElement.TAG_AUTHOR.equals(tag)) {
+				authors.add(substituteQualification(tagContent));
+			} else if (TagElement.TAG_SEE.equals(tag)) {
+				sees.add(substituteQualification(tagContent));
+			} else if (TagElement.TAG_SINCE.equals(tag)) {
+				since.add(substituteQualification(tagContent));
+			} else {
+				rest.add(new String[] { tag, tagContent });
+			}
+		}
+
+		writer.startList(false);
+		print(writer, "See Also:", sees, false);
+		print(writer, "Parameters:", parameters, true);
+		print(writer, "Returns:", returns, false);
+		print(writer, "Throws:", exceptions, false);
+		print(writer, "Author:", authors, false);
+		print(writer, "Since:", since, false);
+		for (String[] pair : rest) {
+			writer.startItem();
+			writer.text(pair[0]);
+			printDefinitions(writer, Collections.singletonList(pair[1]), false);
+			writer.endItem();
+		}
+		writer.endList();
+	}
+
+	/*
+	 * Returns the offset of the next '@' starting a line, skipping the inline
+	 * tags
+	 */
+	private static int getNextBlockTag(String text, int start, int end) {
+		boolean lineStart = false;
+		int i = start;
+		while (i < end) {
+			char c = text.charAt(i);
+			if (c == '@' && lineStart && i + 1 < end && Character.isLetter(text.charAt(i + 1))) {
+				return i;
+			}
+			if (c == '\n') {
+				lineStart = true;
+			} else if (!Character.isWhitespace(c)) {
+				lineStart = false;
+			}
+			if (c == '{' && i + 1 < end && text.charAt(i + 1) == '@') {
+				i = Math.min(end, getInlineTagEnd(text, i + 2, end) + 1);
+			} else {
+				i++;
+			}
+		}
+		return end;
+	}
+
+	private static void print(MarkdownWriter writer, String tag, List<String> elements, boolean firstword) {
+		if (!elements.isEmpty()) {
+			writer.startItem();
+			writer.bold(tag);
+			printDefinitions(writer, elements, firstword);
+			writer.endItem();
+		}
+	}
+
+	private static void printDefinitions(MarkdownWriter writer, List<String> elements, boolean firstword) {
+		boolean started = false;
+		for (String element : elements) {
+			if (element.isEmpty()) {
+				continue;
+			}
+			if (!started) {
+				writer.startList(false);
+				started = true;
+			}
+			writer.startItem();
+			if (firstword) {
+				int i = Math.min(getParamEndOffset(element), element.length());
+				writer.bold(element.substring(0, i));
+				render(writer, element.substring(i));
+			} else {
+				render(writer, element);
+			}
+			writer.endItem();
+		}
+		if (started) {
+			writer.endList();
+		}
+	}
+
+	private static int getParamEndOffset(String s) {
+		int i = 0;
+		final int length = s.length();
+		// \s*
+		while (i < length && Character.isWhitespace(s.charAt(i)))
+			++i;
+		if (i < length && s.charAt(i) == '<') {
+			// generic type parameter
+			// read <\s*\w*\s*>
+			while (i < length && Character.isWhitespace(s.charAt(i)))
+				++i;
+			while (i < length && Character.isJavaIdentifierPart(s.charAt(i)))
+				++i;
+			while (i < length && s.charAt(i) != '>')
+				++i;
+			++i; // >
+		} else {
+			// simply read an identifier
+			while (i < length && Character.isJavaIdentifierPart(s.charAt(i)))
+				++i;
+		}
+
+		return i;
+	}
 }
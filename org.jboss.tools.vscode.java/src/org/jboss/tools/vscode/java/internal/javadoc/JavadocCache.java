@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+
+/**
+ * Caches the Markdown rendered from the Javadoc of java elements, so that
+ * hovers and completion resolves do not run the Javadoc to Markdown
+ * conversion, nor search overridden methods, again for the same element.
+ * <p>
+ * Entries are keyed by the element handle identifier, the rendering options
+ * and a stamp of the element source: the path, modification time and source
+ * attachment of its archive or folder for binary elements, the modification
+ * stamp of its compilation unit otherwise. The entries of source elements
+ * are discarded as soon as a compilation unit changes, working copies
+ * included, since their documentation may be inherited from another unit.
+ * Changes of classpaths or archives discard all the entries.
+ * </p>
+ * <p>
+ * The entries are kept in memory, the least recently used being evicted
+ * first. The documentation of binary elements can also be stored on disk,
+ * see {@link org.jboss.tools.vscode.java.internal.preferences.Preferences#isJavadocCacheOnDisk()},
+ * so that it survives restarts.
+ * </p>
+ */
+public class JavadocCache implements IElementChangedListener {
+
+	/**
+	 * Computes the documentation of an element on a cache miss.
+	 */
+	@FunctionalInterface
+	public interface ContentProvider {
+		Reader getContent() throws JavaModelException;
+	}
+
+	private static final int MAX_CACHE_SIZE = 2000;
+
+	private static final int MAX_DISK_ENTRIES = 20000;
+
+	private static final int STRUCTURAL_CHANGES = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED;
+
+	private static final int CONTENT_CHANGES = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN
+			| IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_PRIMARY_RESOURCE;
+
+	/**
+	 * Prefix of the content of the disk entries of elements having no documentation.
+	 */
+	private static final char NO_CONTENT = 'N';
+
+	/**
+	 * Prefix of the content of the disk entries of documented elements.
+	 */
+	private static final char CONTENT = 'D';
+
+	private static class Entry {
+		private final String content;
+		private final boolean source;
+
+		Entry(String content, boolean source) {
+			this.content = content;
+			this.source = source;
+		}
+	}
+
+	private final Map<String, Entry> cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	private final PreferenceManager preferenceManager;
+
+	private final File diskLocation;
+
+	/**
+	 * Incremented on every invalidation, so that a rendering started before an
+	 * invalidation can not cache its, possibly stale, result
+	 */
+	private long generation;
+
+	private boolean installed;
+
+	private boolean pruned;
+
+	/**
+	 * @param preferenceManager the preferences enabling the disk entries, may be <code>null</code>
+	 * @param diskLocation the folder of the disk entries, may be <code>null</code>
+	 */
+	public JavadocCache(PreferenceManager preferenceManager, File diskLocation) {
+		this.preferenceManager = preferenceManager;
+		this.diskLocation = diskLocation;
+	}
+
+	/**
+	 * Gets the documentation of an element, from the cache if it was rendered
+	 * before with the same options and the element source did not change.
+	 *
+	 * @param element a member or package fragment
+	 * @param options the rendering options, part of the key
+	 * @param provider renders the documentation on a cache miss
+	 * @return a reader for the documentation, or <code>null</code> if the element has none
+	 * @throws JavaModelException thrown by the provider
+	 */
+	public Reader getContent(IJavaElement element, String options, ContentProvider provider) throws JavaModelException {
+		install();
+		IPackageFragmentRoot root = (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		String stamp = root == null ? null : getStamp(element, root);
+		if (stamp == null) {
+			return provider.getContent();
+		}
+		boolean source = root.getKind() == IPackageFragmentRoot.K_SOURCE;
+		String key = element.getHandleIdentifier() + '#' + options + '@' + stamp;
+		long expectedGeneration;
+		synchronized (cache) {
+			Entry entry = cache.get(key);
+			if (entry != null) {
+				return toReader(entry.content);
+			}
+			expectedGeneration = generation;
+		}
+		File file = source ? null : getDiskEntry(key);
+		Entry entry = file == null ? null : read(file);
+		if (entry == null) {
+			entry = new Entry(toString(provider.getContent()), source);
+			if (file != null) {
+				write(file, entry);
+			}
+		}
+		synchronized (cache) {
+			if (generation == expectedGeneration) {
+				cache.put(key, entry);
+			}
+		}
+		return toReader(entry.content);
+	}
+
+	/**
+	 * Discards all the entries kept in memory.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			generation++;
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the number of entries kept in memory
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	private synchronized void install() {
+		if (!installed) {
+			installed = true;
+			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+	}
+
+	/**
+	 * Stops listening to java element changes and discards the entries kept in memory.
+	 */
+	public synchronized void dispose() {
+		if (installed) {
+			JavaCore.removeElementChangedListener(this);
+			installed = false;
+		}
+		clear();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		if (element.getElementType() == IJavaElement.COMPILATION_UNIT) {
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CONTENT_CHANGES) != 0) {
+				invalidateSources();
+			}
+			return;
+		}
+		if (element.getElementType() > IJavaElement.COMPILATION_UNIT) {
+			return;
+		}
+		if ((delta.getFlags() & STRUCTURAL_CHANGES) != 0
+				|| (element.getElementType() <= IJavaElement.PACKAGE_FRAGMENT_ROOT && element.getElementType() != IJavaElement.JAVA_MODEL
+						&& delta.getKind() != IJavaElementDelta.CHANGED)) {
+			clear();
+			return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	/**
+	 * Discards the entries of the source elements.
+	 */
+	private void invalidateSources() {
+		synchronized (cache) {
+			generation++;
+			for (Iterator<Entry> iterator = cache.values().iterator(); iterator.hasNext();) {
+				if (iterator.next().source) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a stamp of the source of the element, or <code>null</code> if it
+	 *         can not be computed and the element should not be cached
+	 */
+	private static String getStamp(IJavaElement element, IPackageFragmentRoot root) {
+		try {
+			if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+				ICompilationUnit unit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+				IResource resource = unit == null ? null : unit.getResource();
+				return resource == null ? null : Long.toString(resource.getModificationStamp());
+			}
+			StringBuilder stamp = new StringBuilder();
+			appendFileStamp(stamp, root.getResource() == null ? root.getPath() : root.getResource().getLocation());
+			IPath sourceAttachment = root.getSourceAttachmentPath();
+			if (sourceAttachment != null) {
+				stamp.append('|');
+				IResource resource = root.getJavaModel().getWorkspace().getRoot().findMember(sourceAttachment);
+				appendFileStamp(stamp, resource == null ? sourceAttachment : resource.getLocation());
+			}
+			return stamp.toString();
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private static void appendFileStamp(StringBuilder stamp, IPath path) {
+		if (path != null) {
+			File file = path.toFile();
+			stamp.append(file.getAbsolutePath()).append(':').append(file.lastModified());
+		}
+	}
+
+	private boolean isDiskEnabled() {
+		return diskLocation != null && preferenceManager != null && preferenceManager.getPreferences().isJavadocCacheOnDisk();
+	}
+
+	/**
+	 * @return the file of the disk entry of the given key, or <code>null</code>
+	 *         if the disk entries are disabled
+	 */
+	private File getDiskEntry(String key) {
+		if (!isDiskEnabled()) {
+			return null;
+		}
+		prune();
+		try {
+			// the rendering may change with the server version
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest((JavaLanguageServerPlugin.getVersion() + '|' + key).getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder();
+			for (byte b : digest) {
+				name.append(String.format("%02x", b));
+			}
+			return new File(diskLocation, name.append(".md").toString());
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the oldest half of the disk entries once they outnumber the
+	 * limit, on the first access.
+	 */
+	private synchronized void prune() {
+		if (pruned) {
+			return;
+		}
+		pruned = true;
+		File[] files = diskLocation.listFiles();
+		if (files == null || files.length <= MAX_DISK_ENTRIES) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length / 2; i++) {
+			files[i].delete();
+		}
+	}
+
+	private static Entry read(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			if (content.isEmpty()) {
+				return null;
+			}
+			return new Entry(content.charAt(0) == CONTENT ? content.substring(1) : null, false);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to read " + file, e);
+			return null;
+		}
+	}
+
+	private static void write(File file, Entry entry) {
+		String content = entry.content == null ? String.valueOf(NO_CONTENT) : CONTENT + entry.content;
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+			Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+			Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to write " + file, e);
+		}
+	}
+
+	private static Reader toReader(String content) {
+		return content == null ? null : new StringReader(content);
+	}
+
+	private static String toString(Reader reader) throws JavaModelException {
+		if (reader == null) {
+			return null;
+		}
+		StringBuilder buf = new StringBuilder();
+		char[] buffer = new char[1024];
+		int count;
+		try {
+			while ((count = reader.read(buffer)) != -1) {
+				buf.append(buffer, 0, count);
+			}
+		} catch (IOException e) {
+			throw new JavaModelException(e, IJavaModelStatusConstants.UNKNOWN_JAVADOC_FORMAT);
+		}
+		return buf.toString();
+	}
+}
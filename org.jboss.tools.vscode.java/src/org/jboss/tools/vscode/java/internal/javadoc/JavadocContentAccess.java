@@ -35,6 +35,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.PackageDeclaration;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 
 /**
  * Helper needed to get the content of a Javadoc comment.
@@ -205,6 +206,15 @@ public class JavadocContentAccess {
 	 * @since 3.2
 	 */
 	public static Reader getHTMLContentReader(IMember member, boolean allowInherited, boolean useAttachedJavadoc) throws JavaModelException {
+		JavadocCache cache= JavaLanguageServerPlugin.getJavadocCache();
+		if (cache == null) {
+			return internalGetHTMLContentReader(member, allowInherited, useAttachedJavadoc);
+		}
+		String options= (allowInherited ? "i" : "") + (useAttachedJavadoc ? "a" : ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		return cache.getContent(member, options, () -> internalGetHTMLContentReader(member, allowInherited, useAttachedJavadoc));
+	}
+
+	private static Reader internalGetHTMLContentReader(IMember member, boolean allowInherited, boolean useAttachedJavadoc) throws JavaModelException {
 		Reader contentReader= internalGetContentReader(member);
 		if (contentReader != null) {
 			try {
@@ -240,6 +250,14 @@ public class JavadocContentAccess {
 	 * @since 3.2
 	 */
 	public static Reader getHTMLContentReader(IPackageFragment fragment, boolean useAttachedJavadoc) throws JavaModelException {
+		JavadocCache cache= JavaLanguageServerPlugin.getJavadocCache();
+		if (cache == null) {
+			return internalGetHTMLContentReader(fragment, useAttachedJavadoc);
+		}
+		return cache.getContent(fragment, useAttachedJavadoc ? "a" : "", () -> internalGetHTMLContentReader(fragment, useAttachedJavadoc)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static Reader internalGetHTMLContentReader(IPackageFragment fragment, boolean useAttachedJavadoc) throws JavaModelException {
 		Reader contentReader= internalGetContentReader(fragment);
 		if (contentReader != null) {
 			try {
@@ -0,0 +1,718 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.javadoc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Streams Markdown into a buffer, from the block and inline events produced
+ * by {@link JavaDoc2MarkdownConverter}.
+ * <p>
+ * Whitespace is collapsed as a browser would, blocks are separated by a
+ * blank line, lists use <code>" *  "</code> markers with a four spaces
+ * indentation, and tables and preformatted text become indented code blocks.
+ * </p>
+ */
+final class MarkdownWriter {
+
+	enum Mode {
+		NORMAL, PRE, TABLE
+	}
+
+	private static final String INDENT = "    ";
+	private static final String BULLET = " *  ";
+	private static final String ESCAPED_CHARS = "\\`*_[]";
+
+	private static final int BOLD = 0;
+	private static final int ITALIC = 1;
+	private static final int CODE = 2;
+	private static final int LINK = 3;
+	private static final int CELL = 4;
+
+	private static final int LIST = 0;
+	private static final int ITEM = 1;
+	private static final int QUOTE = 2;
+
+	/**
+	 * An inline element, its content is buffered until it is closed.
+	 */
+	private static class Frame {
+		final int kind;
+		final String href;
+		final StringBuilder text = new StringBuilder();
+		boolean leadingSpace;
+		boolean pendingSpace;
+
+		Frame(int kind, String href) {
+			this.kind = kind;
+			this.href = href;
+		}
+	}
+
+	/**
+	 * A block that prefixes its lines.
+	 */
+	private static class Container {
+		final int kind;
+		final String indent;
+		final boolean ordered;
+		int items;
+
+		Container(int kind, String indent, boolean ordered) {
+			this.kind = kind;
+			this.indent = indent;
+			this.ordered = ordered;
+		}
+	}
+
+	private final StringBuilder out;
+	private final Deque<Container> containers = new ArrayDeque<>();
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private Mode mode = Mode.NORMAL;
+	private String indent = "";
+	private int pendingBreaks;
+	private boolean pendingSpace;
+	private boolean lineHasContent;
+	private boolean atItemStart;
+	private String pendingPrefix;
+
+	private StringBuilder pre;
+	private List<List<String>> rows;
+	private List<Boolean> headerRows;
+	private boolean cellHeader;
+
+	MarkdownWriter(StringBuilder out) {
+		this.out = out;
+	}
+
+	Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return whether the current inline element is a code span, which
+	 *         ignores the markup it contains
+	 */
+	boolean isInCode() {
+		Frame frame = frames.peek();
+		return frame != null && frame.kind == CODE;
+	}
+
+	// ----- text
+
+	void text(char c) {
+		if (mode == Mode.PRE) {
+			if (c != '\r') {
+				pre.append(c);
+			}
+			return;
+		}
+		if (mode == Mode.TABLE && frames.isEmpty()) {
+			return;
+		}
+		if (Character.isWhitespace(c)) {
+			space();
+			return;
+		}
+		Frame frame = frames.peek();
+		if (frame != null) {
+			if (frame.pendingSpace) {
+				frame.text.append(' ');
+				frame.pendingSpace = false;
+			}
+			if (frame.kind != CODE && frame.kind != CELL && ESCAPED_CHARS.indexOf(c) >= 0) {
+				frame.text.append('\\');
+			}
+			frame.text.append(c);
+			return;
+		}
+		startContent();
+		if (ESCAPED_CHARS.indexOf(c) >= 0 || (!lineHasContent && (c == '#' || c == '>'))) {
+			out.append('\\');
+		}
+		out.append(c);
+		lineHasContent = true;
+	}
+
+	void text(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			text(s.charAt(i));
+		}
+	}
+
+	/**
+	 * Writes a code span, or the plain text when already in a literal context.
+	 */
+	void code(String s) {
+		if (mode != Mode.NORMAL || isInCode()) {
+			text(s);
+			return;
+		}
+		String content = collapse(s);
+		if (!content.isEmpty()) {
+			inline(codeSpan(content));
+		}
+	}
+
+	void bold(String s) {
+		if (mode != Mode.NORMAL || isInCode()) {
+			text(s);
+			return;
+		}
+		open(BOLD, null);
+		text(s);
+		close(BOLD);
+	}
+
+	void image(String alt, String src) {
+		if (mode != Mode.NORMAL || isInCode() || src == null) {
+			return;
+		}
+		StringBuilder image = new StringBuilder("![");
+		if (alt != null) {
+			escape(image, collapse(alt));
+		}
+		inline(image.append("](").append(src).append(')').toString());
+	}
+
+	void lineBreak() {
+		if (mode == Mode.PRE) {
+			pre.append('\n');
+		} else if (mode == Mode.TABLE || !frames.isEmpty()) {
+			text(' ');
+		} else if (out.length() > 0) {
+			flushBreaks();
+			out.append('\n').append(indent);
+			lineHasContent = false;
+			pendingSpace = false;
+			atItemStart = false;
+		}
+	}
+
+	// ----- inline elements
+
+	void openBold() {
+		open(BOLD, null);
+	}
+
+	void closeBold() {
+		close(BOLD);
+	}
+
+	void openItalic() {
+		open(ITALIC, null);
+	}
+
+	void closeItalic() {
+		close(ITALIC);
+	}
+
+	void openCode() {
+		open(CODE, null);
+	}
+
+	void closeCode() {
+		close(CODE);
+	}
+
+	/**
+	 * @param href
+	 *            the link target, <code>null</code> for an anchor
+	 */
+	void openLink(String href) {
+		open(LINK, href);
+	}
+
+	void closeLink() {
+		close(LINK);
+	}
+
+	private void open(int kind, String href) {
+		if (mode == Mode.NORMAL && !isInCode()) {
+			frames.push(new Frame(kind, href));
+		}
+	}
+
+	private void close(int kind) {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		for (Frame frame : frames) {
+			if (frame.kind == kind) {
+				while (frames.peek() != frame) {
+					finish(frames.pop());
+				}
+				finish(frames.pop());
+				return;
+			}
+		}
+	}
+
+	private void closeFrames() {
+		while (!frames.isEmpty() && frames.peek().kind != CELL) {
+			finish(frames.pop());
+		}
+	}
+
+	private void finish(Frame frame) {
+		String content = frame.text.toString();
+		String markdown;
+		switch (frame.kind) {
+		case BOLD:
+			markdown = content.isEmpty() ? content : "**" + content + "**";
+			break;
+		case ITALIC:
+			markdown = content.isEmpty() ? content : "*" + content + "*";
+			break;
+		case CODE:
+			frame.leadingSpace = false;
+			frame.pendingSpace = false;
+			markdown = content.isEmpty() ? content : codeSpan(content);
+			break;
+		case LINK:
+			if (frame.href == null || frame.href.isEmpty()) {
+				markdown = content;
+			} else if (content.isEmpty() || content.equals(escape(new StringBuilder(), frame.href).toString())) {
+				markdown = "<" + frame.href + ">";
+			} else {
+				markdown = "[" + content + "](" + frame.href + ")";
+			}
+			break;
+		default:
+			markdown = content;
+		}
+		if (frame.leadingSpace) {
+			space();
+		}
+		if (!markdown.isEmpty()) {
+			inline(markdown);
+		}
+		if (frame.pendingSpace) {
+			space();
+		}
+	}
+
+	/**
+	 * Appends already formatted Markdown to the current inline element, or to
+	 * the current block.
+	 */
+	private void inline(String markdown) {
+		Frame frame = frames.peek();
+		if (frame != null) {
+			if (frame.pendingSpace) {
+				frame.text.append(' ');
+				frame.pendingSpace = false;
+			}
+			frame.text.append(markdown);
+			return;
+		}
+		startContent();
+		out.append(markdown);
+		lineHasContent = true;
+	}
+
+	private void space() {
+		Frame frame = frames.peek();
+		if (frame == null) {
+			pendingSpace = true;
+		} else if (frame.text.length() == 0) {
+			frame.leadingSpace = true;
+		} else {
+			frame.pendingSpace = true;
+		}
+	}
+
+	// ----- blocks
+
+	void paragraph() {
+		if (mode == Mode.NORMAL) {
+			blockBoundary();
+		}
+	}
+
+	void heading(int level) {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		StringBuilder prefix = new StringBuilder(level + 1);
+		for (int i = 0; i < level; i++) {
+			prefix.append('#');
+		}
+		pendingPrefix = prefix.append(' ').toString();
+	}
+
+	void rule() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		inline("* * *");
+		blockBoundary();
+	}
+
+	void startList(boolean ordered) {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		containers.push(new Container(LIST, indent, ordered));
+	}
+
+	void endList() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		end(LIST);
+	}
+
+	void startItem() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		closeFrames();
+		if (!containers.isEmpty() && containers.peek().kind == ITEM) {
+			endItem();
+		}
+		if (containers.isEmpty() || containers.peek().kind != LIST) {
+			startList(false);
+		}
+		Container list = containers.peek();
+		if (list.items > 0 || atItemStart) {
+			pendingBreaks = 1;
+		}
+		pendingSpace = false;
+		pendingPrefix = null;
+		flushBreaks();
+		list.items++;
+		if (list.ordered) {
+			String marker = list.items + ". ";
+			for (int i = marker.length(); i < INDENT.length(); i++) {
+				out.append(' ');
+			}
+			out.append(marker);
+		} else {
+			out.append(BULLET);
+		}
+		indent = list.indent + INDENT;
+		containers.push(new Container(ITEM, indent, false));
+		lineHasContent = false;
+		atItemStart = true;
+	}
+
+	void endItem() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		closeFrames();
+		if (!containers.isEmpty() && containers.peek().kind == ITEM) {
+			containers.pop();
+			indent = containers.isEmpty() ? "" : containers.peek().indent;
+			atItemStart = false;
+		}
+	}
+
+	void startQuote() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		flushBreaks();
+		out.append("> ");
+		indent = indent + "> ";
+		containers.push(new Container(QUOTE, indent, false));
+		lineHasContent = false;
+		atItemStart = false;
+	}
+
+	void endQuote() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		end(QUOTE);
+	}
+
+	private void end(int kind) {
+		closeFrames();
+		for (Container container : containers) {
+			if (container.kind == kind) {
+				Container popped;
+				do {
+					popped = containers.pop();
+				} while (popped != container);
+				indent = containers.isEmpty() ? "" : containers.peek().indent;
+				atItemStart = false;
+				blockBoundary();
+				return;
+			}
+		}
+	}
+
+	void startPre() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		mode = Mode.PRE;
+		pre = new StringBuilder();
+	}
+
+	void endPre() {
+		if (mode != Mode.PRE) {
+			return;
+		}
+		mode = Mode.NORMAL;
+		String content = pre.toString();
+		pre = null;
+		if (content.startsWith("\n")) {
+			content = content.substring(1);
+		}
+		int end = content.length();
+		while (end > 0 && Character.isWhitespace(content.charAt(end - 1))) {
+			end--;
+		}
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		while (start < end) {
+			int newLine = content.indexOf('\n', start);
+			if (newLine < 0 || newLine > end) {
+				newLine = end;
+			}
+			lines.add(content.substring(start, newLine));
+			start = newLine + 1;
+		}
+		codeBlock(lines);
+	}
+
+	void startTable() {
+		if (mode != Mode.NORMAL) {
+			return;
+		}
+		blockBoundary();
+		mode = Mode.TABLE;
+		rows = new ArrayList<>();
+		headerRows = new ArrayList<>();
+	}
+
+	void startRow() {
+		if (mode != Mode.TABLE) {
+			return;
+		}
+		endCell();
+		rows.add(new ArrayList<>());
+		headerRows.add(Boolean.FALSE);
+	}
+
+	void startCell(boolean header) {
+		if (mode != Mode.TABLE) {
+			return;
+		}
+		endCell();
+		if (rows.isEmpty()) {
+			startRow();
+		}
+		cellHeader = header;
+		frames.push(new Frame(CELL, null));
+	}
+
+	void endCell() {
+		if (mode != Mode.TABLE || frames.isEmpty()) {
+			return;
+		}
+		Frame cell = frames.pop();
+		int row = rows.size() - 1;
+		rows.get(row).add(cell.text.toString());
+		if (cellHeader) {
+			headerRows.set(row, Boolean.TRUE);
+		}
+	}
+
+	void endTable() {
+		if (mode != Mode.TABLE) {
+			return;
+		}
+		endCell();
+		mode = Mode.NORMAL;
+		int[] widths = new int[0];
+		for (List<String> row : rows) {
+			if (row.size() > widths.length) {
+				int[] grown = new int[row.size()];
+				System.arraycopy(widths, 0, grown, 0, widths.length);
+				widths = grown;
+			}
+			for (int i = 0; i < row.size(); i++) {
+				widths[i] = Math.max(widths[i], Math.max(3, row.get(i).length()));
+			}
+		}
+		List<String> lines = new ArrayList<>(rows.size() + 1);
+		boolean header = true;
+		for (int r = 0; r < rows.size(); r++) {
+			List<String> row = rows.get(r);
+			if (row.isEmpty()) {
+				continue;
+			}
+			StringBuilder line = new StringBuilder("|");
+			for (int i = 0; i < widths.length; i++) {
+				String cell = i < row.size() ? row.get(i) : "";
+				line.append(' ').append(cell);
+				for (int j = cell.length(); j < widths[i]; j++) {
+					line.append(' ');
+				}
+				line.append(" |");
+			}
+			lines.add(line.toString());
+			if (header && !headerRows.get(r)) {
+				header = false;
+			} else if (header && (r + 1 == rows.size() || !headerRows.get(r + 1))) {
+				header = false;
+				line.setLength(0);
+				line.append('|');
+				for (int width : widths) {
+					line.append(' ');
+					for (int j = 0; j < width; j++) {
+						line.append('-');
+					}
+					line.append(" |");
+				}
+				lines.add(line.toString());
+			}
+		}
+		rows = null;
+		headerRows = null;
+		codeBlock(lines);
+	}
+
+	private void codeBlock(List<String> lines) {
+		if (lines.isEmpty()) {
+			blockBoundary();
+			return;
+		}
+		if (atItemStart) {
+			pendingBreaks = 1;
+		}
+		flushBreaks();
+		for (int i = 0; i < lines.size(); i++) {
+			if (i > 0) {
+				out.append('\n').append(indent);
+			}
+			out.append(INDENT).append(lines.get(i));
+		}
+		lineHasContent = true;
+		atItemStart = false;
+		blockBoundary();
+	}
+
+	/**
+	 * Ends the current block, the next content starts after a blank line.
+	 */
+	private void blockBoundary() {
+		closeFrames();
+		if (!atItemStart) {
+			pendingBreaks = 2;
+		}
+		pendingSpace = false;
+		pendingPrefix = null;
+	}
+
+	private void startContent() {
+		flushBreaks();
+		if (pendingPrefix != null) {
+			out.append(pendingPrefix);
+			pendingPrefix = null;
+		}
+		if (pendingSpace && lineHasContent) {
+			out.append(' ');
+		}
+		pendingSpace = false;
+		atItemStart = false;
+	}
+
+	private void flushBreaks() {
+		if (pendingBreaks == 0) {
+			return;
+		}
+		if (out.length() == 0) {
+			out.append(indent);
+		} else {
+			for (int i = 0; i < pendingBreaks; i++) {
+				out.append('\n').append(indent);
+			}
+		}
+		pendingBreaks = 0;
+		pendingSpace = false;
+		lineHasContent = false;
+	}
+
+	/**
+	 * Closes all the open elements, e.g. before the block tags section.
+	 */
+	void endAll() {
+		endPre();
+		endTable();
+		closeFrames();
+		containers.clear();
+		indent = "";
+		atItemStart = false;
+		blockBoundary();
+	}
+
+	/**
+	 * @return the Markdown written so far, without trailing whitespace
+	 */
+	String toMarkdown() {
+		endAll();
+		int end = out.length();
+		while (end > 0 && Character.isWhitespace(out.charAt(end - 1))) {
+			end--;
+		}
+		out.setLength(end);
+		return out.toString();
+	}
+
+	private static String codeSpan(String content) {
+		if (content.indexOf('`') < 0) {
+			return "`" + content + "`";
+		}
+		return "`` " + content + " ``";
+	}
+
+	private static String collapse(String s) {
+		StringBuilder result = new StringBuilder(s.length());
+		boolean space = false;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = result.length() > 0;
+			} else {
+				if (space) {
+					result.append(' ');
+					space = false;
+				}
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	private static StringBuilder escape(StringBuilder buffer, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (ESCAPED_CHARS.indexOf(c) >= 0) {
+				buffer.append('\\');
+			}
+			buffer.append(c);
+		}
+		return buffer;
+	}
+}
@@ -13,10 +13,14 @@ package org.jboss.tools.vscode.java.internal.managers;
 import java.io.File;
 import java.util.Objects;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 public abstract class AbstractProjectImporter implements IProjectImporter {
 
 	protected File rootFolder;
 
+	private ProjectDiscovery discovery;
+
 	@Override
 	public void initialize(File rootFolder) {
 		if (!Objects.equals(this.rootFolder, rootFolder)) {
@@ -25,6 +29,30 @@ public abstract class AbstractProjectImporter implements IProjectImporter {
 		this.rootFolder = rootFolder;
 	}
 
+	/**
+	 * Shares the walk of the root folder with other importers.
+	 *
+	 * @param discovery the discovery of the root folder
+	 */
+	public void setDiscovery(ProjectDiscovery discovery) {
+		if (this.discovery != discovery) {
+			reset();
+		}
+		this.discovery = discovery;
+	}
+
+	/**
+	 * @param monitor a progress monitor
+	 * @return the build files found under the root folder
+	 * @throws InterruptedException if the walk was cancelled
+	 */
+	protected ProjectDiscovery getDiscovery(IProgressMonitor monitor) throws InterruptedException {
+		if (discovery == null || !Objects.equals(discovery.getRootFolder(), rootFolder)) {
+			discovery = new ProjectDiscovery(rootFolder);
+		}
+		return discovery.scan(monitor);
+	}
+
 	@Override
 	public void reset() {
 		// No-Op
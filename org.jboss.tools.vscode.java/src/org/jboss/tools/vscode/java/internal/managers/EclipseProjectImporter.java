@@ -11,26 +11,25 @@
 package org.jboss.tools.vscode.java.internal.managers;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.JavaCore;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.managers.ProjectDiscovery.Marker;
 
 public class EclipseProjectImporter extends AbstractProjectImporter {
 
@@ -55,10 +54,7 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 	}
 
 	Collection<File> collectProjectFiles(IProgressMonitor monitor) throws InterruptedException {
-		Set<File> files = new LinkedHashSet<>();
-		Set<String> visitedDirectories = new HashSet<>();
-		collectProjectFilesFromDirectory(files, rootFolder, visitedDirectories, true, monitor);
-		return files;
+		return getDiscovery(monitor).getProjectFiles(Marker.ECLIPSE);
 	}
 
 	@Override
@@ -75,18 +71,63 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 			return;
 		}
 		JavaLanguageServerPlugin.logInfo("Importing Eclipse project(s)");
-		int projectSize = files.size();
-		subMonitor.setWorkRemaining(projectSize);
-		for(File file : files) {
-			if (monitor.isCanceled()) {
-				throw new InterruptedException();
-			}
-			createProject(file, subMonitor.split(1));
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		List<IProject> projects = new ArrayList<>(files.size());
+		List<IProject> existingProjects = new ArrayList<>();
+		try {
+			importProjects(workspace, files, projects, existingProjects, monitor, subMonitor);
+		} catch (OperationCanceledException e) {
+			throw new InterruptedException();
 		}
 		subMonitor.done();
 	}
 
-	IProject createProject(File file, IProgressMonitor m) throws CoreException {
+	private void importProjects(IWorkspace workspace, Collection<File> files, List<IProject> projects, List<IProject> existingProjects,
+			IProgressMonitor monitor, SubMonitor subMonitor) throws CoreException, InterruptedException {
+		// Creating a project only writes its metadata, but changes the workspace root:
+		// all the projects are created, unique names included, in a single operation
+		workspace.run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor m) throws CoreException {
+				SubMonitor createMonitor = SubMonitor.convert(m, files.size());
+				for (File file : files) {
+					if (createMonitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					IProject project = createProject(file, existingProjects, createMonitor.split(1));
+					if (project != null) {
+						projects.add(project);
+					}
+				}
+			}
+		}, workspace.getRoot(), IWorkspace.AVOID_UPDATE, subMonitor.split(10));
+		checkCanceled(monitor);
+		// Opening a new project reads its whole content from disk
+		openProjects(projects, monitor, subMonitor.split(70));
+		checkCanceled(monitor);
+		// Projects already in the workspace are refreshed in one batched operation,
+		// so that listeners receive a single resource delta
+		if (!existingProjects.isEmpty()) {
+			workspace.run(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor m) throws CoreException {
+					SubMonitor refreshMonitor = SubMonitor.convert(m, existingProjects.size());
+					for (IProject project : existingProjects) {
+						project.refreshLocal(IResource.DEPTH_INFINITE, refreshMonitor.split(1));
+					}
+				}
+			}, workspace.getRoot(), IWorkspace.AVOID_UPDATE, subMonitor.split(15));
+		}
+	}
+
+	/**
+	 * Creates, without opening it, the project described by the given
+	 * .project file. A project already imported from the same location is
+	 * reused and added to <code>existingProjects</code>.
+	 *
+	 * @return the project, or <code>null</code> if it is not a Java project
+	 */
+	IProject createProject(File file, Collection<IProject> existingProjects, IProgressMonitor m) throws CoreException {
 		SubMonitor monitor = SubMonitor.convert(m, 100);
 		IWorkspace workspace = ResourcesPlugin.getWorkspace();
 		IPath dotProjectPath = new Path(file.getAbsolutePath());
@@ -99,8 +140,7 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 		if (project.exists()) {
 			IPath existingProjectPath = project.getLocation();
 			if (existingProjectPath.equals(dotProjectPath.removeLastSegments(1))) {
-				project.open(IResource.NONE, monitor);
-				project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+				existingProjects.add(project);
 				return project;
 			} else {
 				project = findUniqueProject(workspace, name);
@@ -108,11 +148,38 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 			}
 		}
 		project.create(descriptor, monitor);
-		project.open(IResource.NONE, monitor);
 		monitor.done();
 		return project;
 	}
 
+	/**
+	 * Opens the given projects in a single workspace operation, so that
+	 * listeners receive a single resource delta. Opening the projects
+	 * concurrently would not help: workspace operations are serialized by the
+	 * workspace lock.
+	 */
+	private void openProjects(List<IProject> projects, IProgressMonitor monitor, SubMonitor subMonitor) throws CoreException {
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		workspace.run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor m) throws CoreException {
+				SubMonitor openMonitor = SubMonitor.convert(m, projects.size());
+				for (IProject project : projects) {
+					if (monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					project.open(IResource.NONE, openMonitor.split(1));
+				}
+			}
+		}, workspace.getRoot(), IWorkspace.AVOID_UPDATE, subMonitor);
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) throws InterruptedException {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new InterruptedException();
+		}
+	}
+
 	//XXX should be package protected. Temporary fix (ahaha!) until test fragment can work in tycho builds
 	public IProject findUniqueProject(IWorkspace workspace, String basename) {
 		IProject project = null;
@@ -123,87 +190,4 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 		}
 		return project;
 	}
-
-	/**
-	 * Collect the list of .project files that are under directory into files.
-	 *
-	 * Copied from org.eclipse.ui.internal.wizards.datatransfer.WizardProjectsImportPage
-	 *
-	 * @param files
-	 * @param directory
-	 * @param directoriesVisited
-	 *            Set of canonical paths of directories, used as recursion guard
-	 * @param nestedProjects
-	 *            whether to look for nested projects
-	 * @param monitor
-	 *            The monitor to report to
-	 * @return boolean <code>true</code> if the operation was completed.
-	 * @throws InterruptedException
-	 */
-	static boolean collectProjectFilesFromDirectory(Collection<File> files, File directory,
-			Set<String> directoriesVisited, boolean nestedProjects, IProgressMonitor monitor) throws InterruptedException {
-
-		if (monitor.isCanceled()) {
-			throw new InterruptedException();
-		}
-		if (directory == null) {
-			return true;
-		}
-		//monitor.subTask(NLS.bind(
-		//		DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
-		//		directory.getPath()));
-		File[] contents = directory.listFiles();
-		if (contents == null) {
-			return false;
-		}
-
-		// Initialize recursion guard for recursive symbolic links
-		if (directoriesVisited == null) {
-			directoriesVisited = new HashSet<>();
-			try {
-				directoriesVisited.add(directory.getCanonicalPath());
-			} catch (IOException exception) {
-				//StatusManager.getManager().handle(
-				//		StatusUtil.newStatus(IStatus.ERROR, exception
-				//				.getLocalizedMessage(), exception));
-			}
-		}
-
-		// first look for project description files
-		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
-		List<File> directories = new ArrayList<>();
-		for (File file : contents) {
-			if(file.isDirectory()){
-				directories.add(file);
-			} else if (file.getName().equals(dotProject) && file.isFile()) {
-				files.add(file);
-				if (!nestedProjects) {
-					// don't search sub-directories since we can't have nested
-					// projects
-					return true;
-				}
-			}
-		}
-		// no project description found or search for nested projects enabled,
-		// so recurse into sub-directories
-		for (File dir : directories) {
-			if (!dir.getName().equals(METADATA_FOLDER)) {
-				try {
-					String canonicalPath = dir.getCanonicalPath();
-					if (!directoriesVisited.add(canonicalPath)) {
-						// already been here --> do not recurse
-						continue;
-					}
-				} catch (IOException exception) {
-					//StatusManager.getManager().handle(
-					//		StatusUtil.newStatus(IStatus.ERROR, exception
-					//				.getLocalizedMessage(), exception));
-
-				}
-				collectProjectFilesFromDirectory(files, dir,
-						directoriesVisited, nestedProjects, monitor);
-			}
-		}
-		return true;
-	}
-}
\ No newline at end of file
+}
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.managers;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.workspace.GradleBuild;
 import org.eclipse.buildship.core.workspace.NewProjectHandler;
@@ -45,6 +49,30 @@ public class GradleBuildSupport implements IBuildSupport {
 		}
 	}
 
+	/**
+	 * Synchronizes each Gradle build once, synchronizing a build updates all
+	 * its projects.
+	 */
+	@Override
+	public void update(Collection<IProject> projects, IProgressMonitor monitor) throws CoreException {
+		Set<GradleBuild> builds = new LinkedHashSet<>();
+		for (IProject project : projects) {
+			if (applies(project)) {
+				Optional<GradleBuild> build = CorePlugin.gradleWorkspaceManager().getGradleBuild(project);
+				if (build.isPresent()) {
+					builds.add(build.get());
+				}
+			}
+		}
+		if (builds.isEmpty()) {
+			return;
+		}
+		JavaLanguageServerPlugin.logInfo("Starting Gradle update for " + projects.size() + " project(s)");
+		for (GradleBuild build : builds) {
+			build.synchronize(NewProjectHandler.IMPORT_AND_MERGE);
+		}
+	}
+
 	@Override
 	public boolean isBuildFile(IResource resource) {
 		return resource != null
@@ -20,6 +20,7 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.managers.ProjectDiscovery.Marker;
 
 import com.gradleware.tooling.toolingclient.GradleDistribution;
 import com.gradleware.tooling.toolingmodel.repository.FixedRequestAttributes;
@@ -37,7 +38,7 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 	 */
 	@Override
 	public boolean applies(IProgressMonitor monitor) throws InterruptedException, CoreException {
-		return (rootFolder != null && new File(rootFolder, "build.gradle").exists());
+		return rootFolder != null && !getDiscovery(monitor).getProjectFiles(Marker.GRADLE).isEmpty();
 	}
 
 	/* (non-Javadoc)
@@ -48,12 +49,15 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		if (!applies(monitor)) {
 			return;
 		}
-		GradleDistribution distribution = DEFAULT_DISTRIBUTION;
-		if (new File(rootFolder, "gradlew").exists()) {
-			distribution = GradleDistributionWrapper.from(DistributionType.WRAPPER, null).toGradleDistribution();
-		}
 		JavaLanguageServerPlugin.logInfo("Importing Gradle project(s)");
-		startSynchronization(rootFolder, distribution, NewProjectHandler.IMPORT_AND_MERGE);
+		for (File buildFile : getDiscovery(monitor).getProjectFiles(Marker.GRADLE)) {
+			File location = buildFile.getParentFile();
+			GradleDistribution distribution = DEFAULT_DISTRIBUTION;
+			if (new File(location, "gradlew").exists()) {
+				distribution = GradleDistributionWrapper.from(DistributionType.WRAPPER, null).toGradleDistribution();
+			}
+			startSynchronization(location, distribution, NewProjectHandler.IMPORT_AND_MERGE);
+		}
 	}
 
 	protected void startSynchronization(File location, GradleDistribution distribution, NewProjectHandler newProjectHandler) {
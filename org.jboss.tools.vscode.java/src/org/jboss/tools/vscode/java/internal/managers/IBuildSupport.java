@@ -10,10 +10,13 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.managers;
 
+import java.util.Collection;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 
 /**
  * @author Fred Bricon
@@ -26,4 +29,15 @@ public interface IBuildSupport {
 	boolean isBuildFile(IResource resource);
 
 	void update(IProject resource, IProgressMonitor monitor) throws CoreException;
+
+	/**
+	 * Updates the given projects, as a single batch when the build system
+	 * supports it.
+	 */
+	default void update(Collection<IProject> projects, IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, projects.size());
+		for (IProject project : projects) {
+			update(project, subMonitor.split(1));
+		}
+	}
 }
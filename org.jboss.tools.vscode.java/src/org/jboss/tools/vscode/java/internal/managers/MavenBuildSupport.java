@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.managers;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -33,13 +38,24 @@ public class MavenBuildSupport implements IBuildSupport {
 
 	@Override
 	public void update(IProject project, IProgressMonitor monitor) throws CoreException {
-		if (!applies(project)) {
+		update(Collections.singleton(project), monitor);
+	}
+
+	/**
+	 * Updates all the given Maven projects with a single request. The
+	 * dependents of a modified project, i.e. the modules of a parent, are
+	 * expected to be part of the given projects, see
+	 * {@link ProjectDependencyGraph#getAffectedProjects(Collection)}.
+	 */
+	@Override
+	public void update(Collection<IProject> projects, IProgressMonitor monitor) throws CoreException {
+		IProject[] mavenProjects = projects.stream().filter(this::applies).toArray(IProject[]::new);
+		if (mavenProjects.length == 0) {
 			return;
 		}
-		JavaLanguageServerPlugin.logInfo("Starting Maven update for "+project.getName());
-		//TODO collect dependent projects and update them as well? i.e in case a parent project was modified
+		JavaLanguageServerPlugin.logInfo("Starting Maven update for " + Arrays.stream(mavenProjects).map(IProject::getName).collect(Collectors.joining(", ")));
 		IProjectConfigurationManager configurationManager = MavenPlugin.getProjectConfigurationManager();
-		MavenUpdateRequest request = new MavenUpdateRequest(project, MavenPlugin.getMavenConfiguration().isOffline(), true);
+		MavenUpdateRequest request = new MavenUpdateRequest(mavenProjects, MavenPlugin.getMavenConfiguration().isOffline(), true);
 		configurationManager.updateProjectConfiguration(request, monitor);
 	}
 
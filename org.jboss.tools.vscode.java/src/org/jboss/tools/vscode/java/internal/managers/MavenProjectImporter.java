@@ -11,6 +11,7 @@
 package org.jboss.tools.vscode.java.internal.managers;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -36,6 +37,7 @@ import org.eclipse.m2e.core.project.MavenProjectInfo;
 import org.eclipse.m2e.core.project.MavenUpdateRequest;
 import org.eclipse.m2e.core.project.ProjectImportConfiguration;
 import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.managers.ProjectDiscovery.Marker;
 
 public class MavenProjectImporter extends AbstractProjectImporter {
 
@@ -56,8 +58,8 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 
 	@Override
 	public boolean applies(IProgressMonitor monitor) throws InterruptedException, CoreException {
-		Set<MavenProjectInfo> files = getMavenProjectInfo(monitor);
-		return files != null && !files.isEmpty();
+		// the Maven models are only read when importing
+		return rootFolder != null && !getDiscovery(monitor).getProjectFiles(Marker.MAVEN).isEmpty();
 	}
 
 	synchronized Set<MavenProjectInfo> getMavenProjectInfo(IProgressMonitor monitor) throws InterruptedException {
@@ -116,9 +118,17 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		if (directory == null) {
 			return Collections.emptySet();
 		}
-		LocalProjectScanner scanner = new LocalProjectScanner(directory.getParentFile(), directory.toString(), false, modelManager);
-		scanner.run(monitor);
-		return collectProjects(scanner.getProjects());
+		// The discovery already found the outermost pom.xml files, the scanner
+		// only has to read them and follow their modules
+		List<File> pomFiles = getDiscovery(monitor).getProjectFiles(Marker.MAVEN);
+		List<MavenProjectInfo> projects = new ArrayList<>();
+		for (File pomFile : pomFiles) {
+			File projectDirectory = pomFile.getParentFile();
+			LocalProjectScanner scanner = new LocalProjectScanner(projectDirectory.getParentFile(), projectDirectory.toString(), false, modelManager);
+			scanner.run(monitor);
+			projects.addAll(scanner.getProjects());
+		}
+		return collectProjects(projects);
 	}
 
 	public boolean isMavenProject() {
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.IMavenProjectRegistry;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.ProjectUtils;
+
+/**
+ * The dependencies between the projects of the workspace, used to find the
+ * projects affected by a change to a build file.
+ * <p>
+ * A project depends on the projects on its resolved classpath, which covers
+ * the workspace dependencies resolved by m2e and Buildship, and a Maven
+ * project also depends on its parent project.
+ * </p>
+ */
+public class ProjectDependencyGraph {
+
+	private final Map<IProject, Set<IProject>> dependents = new HashMap<>();
+
+	/**
+	 * Builds the graph of the accessible projects of the given workspace.
+	 *
+	 * @param root the workspace root
+	 * @return the dependency graph
+	 */
+	public static ProjectDependencyGraph create(IWorkspaceRoot root) {
+		ProjectDependencyGraph graph = new ProjectDependencyGraph();
+		IMavenProjectRegistry registry = MavenPlugin.getMavenProjectRegistry();
+		for (IProject project : root.getProjects()) {
+			if (!project.isAccessible()) {
+				continue;
+			}
+			if (ProjectUtils.isJavaProject(project)) {
+				try {
+					for (IClasspathEntry entry : JavaCore.create(project).getResolvedClasspath(true)) {
+						if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+							graph.addDependency(project, root.getProject(entry.getPath().lastSegment()));
+						}
+					}
+				} catch (JavaModelException e) {
+					JavaLanguageServerPlugin.logException("Failed to resolve the classpath of " + project.getName(), e);
+				}
+			}
+			if (ProjectUtils.isMavenProject(project)) {
+				IMavenProjectFacade facade = registry.getProject(project);
+				Parent parent = facade == null ? null : getParent(facade);
+				if (parent != null) {
+					IMavenProjectFacade parentFacade = registry.getMavenProject(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+					if (parentFacade != null) {
+						graph.addDependency(project, parentFacade.getProject());
+					}
+				}
+			}
+		}
+		return graph;
+	}
+
+	private static Parent getParent(IMavenProjectFacade facade) {
+		MavenProject mavenProject = facade.getMavenProject();
+		if (mavenProject != null) {
+			return mavenProject.getModel().getParent();
+		}
+		// the project is not loaded, only read its pom
+		try {
+			Model model = MavenPlugin.getMavenModelManager().readMavenModel(facade.getPom());
+			return model.getParent();
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Failed to read " + facade.getPom(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Records that <code>dependent</code> depends on <code>dependency</code>.
+	 */
+	public void addDependency(IProject dependent, IProject dependency) {
+		if (dependent.equals(dependency)) {
+			return;
+		}
+		dependents.computeIfAbsent(dependency, p -> new LinkedHashSet<>()).add(dependent);
+	}
+
+	/**
+	 * @param project a project
+	 * @return the projects directly depending on the given project
+	 */
+	public Set<IProject> getDependents(IProject project) {
+		Set<IProject> result = dependents.get(project);
+		return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+	}
+
+	/**
+	 * @param projects changed projects
+	 * @return the given projects followed by all the projects depending on
+	 *         them, directly or not
+	 */
+	public Set<IProject> getAffectedProjects(Collection<IProject> projects) {
+		Set<IProject> affected = new LinkedHashSet<>(projects);
+		Deque<IProject> queue = new ArrayDeque<>(projects);
+		while (!queue.isEmpty()) {
+			for (IProject dependent : getDependents(queue.poll())) {
+				if (affected.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+		return affected;
+	}
+}
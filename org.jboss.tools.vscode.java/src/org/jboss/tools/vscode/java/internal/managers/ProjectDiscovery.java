@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Walks a folder once, in parallel, and collects the build files marking the
+ * projects of all the supported build systems, so that the importers do not
+ * have to walk the folder themselves. The other files the import depends on
+ * (.classpath, settings.gradle, .settings...) are collected along, see
+ * {@link #getBuildFiles()}.
+ * <p>
+ * Folders matching one of the exclusion globs are not visited. The globs are
+ * matched against the folder name and against its path relative to the root,
+ * i.e. <code>node_modules</code> or <code>docs/**</code>. Symbolic links are
+ * followed, loops being detected using the file keys of the visited folders.
+ * </p>
+ */
+public class ProjectDiscovery {
+
+	/**
+	 * Folders which are not visited unless configured otherwise
+	 */
+	public static final List<String> DEFAULT_EXCLUSIONS = Collections.unmodifiableList(Arrays.asList(
+			".git", "node_modules", "target", "build", "bin", EclipseProjectImporter.METADATA_FOLDER));
+
+	private static final Set<String> BUILD_FILE_NAMES = new HashSet<>(Arrays.asList(
+			"pom.xml", IProjectDescription.DESCRIPTION_FILE_NAME, ".classpath", "gradle.properties", "gradle-wrapper.properties"));
+
+	private static final String SETTINGS_FOLDER = ".settings";
+
+	/**
+	 * The build files looked for, in order of precedence
+	 */
+	public static enum Marker {
+		GRADLE("build.gradle"),
+		MAVEN("pom.xml"),
+		ECLIPSE(IProjectDescription.DESCRIPTION_FILE_NAME);
+
+		private final String fileName;
+
+		private Marker(String fileName) {
+			this.fileName = fileName;
+		}
+
+		public String getFileName() {
+			return fileName;
+		}
+
+		static Marker fromFileName(String name) {
+			for (Marker marker : values()) {
+				if (marker.fileName.equals(name)) {
+					return marker;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final File rootFolder;
+	private final List<String> globs;
+	private final List<PathMatcher> exclusions;
+	private Map<Marker, List<File>> files;
+	private List<File> buildFiles;
+
+	/**
+	 * Creates a discovery excluding the {@link #DEFAULT_EXCLUSIONS}.
+	 *
+	 * @param rootFolder the folder to walk, may be <code>null</code>
+	 */
+	public ProjectDiscovery(File rootFolder) {
+		this(rootFolder, DEFAULT_EXCLUSIONS);
+	}
+
+	/**
+	 * @param rootFolder the folder to walk, may be <code>null</code>
+	 * @param exclusions globs of the folders not to visit
+	 */
+	public ProjectDiscovery(File rootFolder, List<String> exclusions) {
+		this.rootFolder = rootFolder;
+		this.globs = exclusions == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(exclusions));
+		FileSystem fileSystem = rootFolder == null ? null : rootFolder.toPath().getFileSystem();
+		this.exclusions = new ArrayList<>();
+		if (fileSystem != null && exclusions != null) {
+			for (String glob : exclusions) {
+				this.exclusions.add(fileSystem.getPathMatcher("glob:" + glob));
+			}
+		}
+	}
+
+	public File getRootFolder() {
+		return rootFolder;
+	}
+
+	/**
+	 * @return the globs of the folders not visited
+	 */
+	public List<String> getExclusions() {
+		return globs;
+	}
+
+	/**
+	 * Walks the root folder, unless it was already walked.
+	 *
+	 * @param monitor a progress monitor, may be <code>null</code>
+	 * @return this discovery
+	 * @throws InterruptedException if the walk was cancelled
+	 */
+	public synchronized ProjectDiscovery scan(IProgressMonitor monitor) throws InterruptedException {
+		if (files != null) {
+			return this;
+		}
+		IProgressMonitor progress = monitor == null ? new NullProgressMonitor() : monitor;
+		Map<Marker, Set<File>> found = new EnumMap<>(Marker.class);
+		for (Marker marker : Marker.values()) {
+			found.put(marker, ConcurrentHashMap.newKeySet());
+		}
+		Set<File> foundBuildFiles = ConcurrentHashMap.newKeySet();
+		if (rootFolder != null && rootFolder.isDirectory()) {
+			Path root = rootFolder.toPath();
+			Set<Object> visited = ConcurrentHashMap.newKeySet();
+			visited.add(getKey(root, null));
+			ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+			try {
+				pool.invoke(new DirectoryTask(root, root, visited, found, foundBuildFiles, progress));
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+		if (progress.isCanceled()) {
+			throw new InterruptedException();
+		}
+		files = new EnumMap<>(Marker.class);
+		for (Map.Entry<Marker, Set<File>> entry : found.entrySet()) {
+			List<File> sorted = new ArrayList<>(entry.getValue());
+			Collections.sort(sorted);
+			files.put(entry.getKey(), Collections.unmodifiableList(sorted));
+		}
+		List<File> sorted = new ArrayList<>(foundBuildFiles);
+		Collections.sort(sorted);
+		buildFiles = Collections.unmodifiableList(sorted);
+		return this;
+	}
+
+	/**
+	 * @param marker a kind of build file
+	 * @return all the build files of the given kind, sorted by path
+	 * @throws IllegalStateException if the folder was not scanned yet
+	 */
+	public synchronized List<File> getFiles(Marker marker) {
+		if (files == null) {
+			throw new IllegalStateException("Project discovery did not run");
+		}
+		return files.get(marker);
+	}
+
+	/**
+	 * @return all the files the import of the projects depends on: the
+	 *         build files of every kind, .classpath, *.gradle,
+	 *         gradle.properties and the .settings files, sorted by path
+	 * @throws IllegalStateException if the folder was not scanned yet
+	 */
+	public synchronized List<File> getBuildFiles() {
+		if (buildFiles == null) {
+			throw new IllegalStateException("Project discovery did not run");
+		}
+		return buildFiles;
+	}
+
+	/**
+	 * @param marker a kind of build file
+	 * @return the build files of the given kind which are not nested in the
+	 *         folder of another build file of the same kind, sorted by path
+	 * @throws IllegalStateException if the folder was not scanned yet
+	 */
+	public List<File> getRootFiles(Marker marker) {
+		List<File> all = getFiles(marker);
+		Set<File> folders = new HashSet<>();
+		for (File file : all) {
+			folders.add(file.getParentFile());
+		}
+		List<File> roots = new ArrayList<>();
+		for (File file : all) {
+			if (!isNested(file.getParentFile(), folders)) {
+				roots.add(file);
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Classifies the build files, so that the projects of a mixed workspace
+	 * are imported once, by the importer of the build system of highest
+	 * precedence. That is:
+	 * <ul>
+	 * <li>Gradle: the outermost build.gradle files</li>
+	 * <li>Maven: the outermost pom.xml files which are not in a Gradle
+	 * build</li>
+	 * <li>Eclipse: the .project files which are in neither a Gradle build nor
+	 * a Maven project, Maven and Gradle projects having their own generated
+	 * .project files</li>
+	 * </ul>
+	 *
+	 * @param marker a kind of build file
+	 * @return the build files of the projects to import with the given build
+	 *         system, sorted by path
+	 * @throws IllegalStateException if the folder was not scanned yet
+	 */
+	public List<File> getProjectFiles(Marker marker) {
+		Set<File> claimed = new HashSet<>();
+		for (Marker other : Marker.values()) {
+			if (other == marker) {
+				break;
+			}
+			for (File file : getRootFiles(other)) {
+				claimed.add(file.getParentFile());
+			}
+		}
+		List<File> files = marker == Marker.ECLIPSE ? getFiles(marker) : getRootFiles(marker);
+		if (claimed.isEmpty()) {
+			return files;
+		}
+		List<File> projectFiles = new ArrayList<>();
+		for (File file : files) {
+			File folder = file.getParentFile();
+			if (!claimed.contains(folder) && !isNested(folder, claimed)) {
+				projectFiles.add(file);
+			}
+		}
+		return projectFiles;
+	}
+
+	private boolean isNested(File folder, Set<File> folders) {
+		for (File parent = folder.getParentFile(); parent != null; parent = parent.getParentFile()) {
+			if (folders.contains(parent)) {
+				return true;
+			}
+			if (parent.equals(rootFolder)) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	boolean isExcluded(Path root, Path directory) {
+		Path name = directory.getFileName();
+		Path relative = root.relativize(directory);
+		for (PathMatcher matcher : exclusions) {
+			if ((name != null && matcher.matches(name)) || matcher.matches(relative)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isBuildFile(Path file, String name) {
+		Path parent = file.getParent();
+		return BUILD_FILE_NAMES.contains(name) || name.endsWith(".gradle")
+				|| (parent != null && parent.getFileName() != null && SETTINGS_FOLDER.equals(parent.getFileName().toString()));
+	}
+
+	private static Object getKey(Path directory, BasicFileAttributes attributes) {
+		try {
+			BasicFileAttributes attrs = attributes == null ? Files.readAttributes(directory, BasicFileAttributes.class) : attributes;
+			if (attrs.fileKey() != null) {
+				return attrs.fileKey();
+			}
+			// file keys are not available on every platform
+			return directory.toRealPath();
+		} catch (IOException e) {
+			return directory.toAbsolutePath().normalize();
+		}
+	}
+
+	private class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path root;
+		private final Path directory;
+		private final Set<Object> visited;
+		private final Map<Marker, Set<File>> found;
+		private final Set<File> buildFiles;
+		private final IProgressMonitor monitor;
+
+		DirectoryTask(Path root, Path directory, Set<Object> visited, Map<Marker, Set<File>> found, Set<File> buildFiles, IProgressMonitor monitor) {
+			this.root = root;
+			this.directory = directory;
+			this.visited = visited;
+			this.found = found;
+			this.buildFiles = buildFiles;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			List<DirectoryTask> subTasks = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path child : stream) {
+					BasicFileAttributes attributes;
+					try {
+						// follows symbolic links
+						attributes = Files.readAttributes(child, BasicFileAttributes.class);
+					} catch (IOException e) {
+						// broken link or unreadable file
+						continue;
+					}
+					if (attributes.isDirectory()) {
+						if (!isExcluded(root, child) && visited.add(getKey(child, attributes))) {
+							subTasks.add(new DirectoryTask(root, child, visited, found, buildFiles, monitor));
+						}
+					} else if (attributes.isRegularFile()) {
+						String name = child.getFileName().toString();
+						Marker marker = Marker.fromFileName(name);
+						if (marker != null) {
+							found.get(marker).add(child.toFile());
+						}
+						if (isBuildFile(child, name)) {
+							buildFiles.add(child.toFile());
+						}
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				// unreadable folder, skipped
+			}
+			invokeAll(subTasks);
+		}
+	}
+}
@@ -13,16 +13,27 @@ package org.jboss.tools.vscode.java.internal.managers;
 import static java.util.Arrays.asList;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
@@ -32,6 +43,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
@@ -59,6 +71,19 @@ public class ProjectsManager {
 
 	public enum CHANGE_TYPE { CREATED, CHANGED, DELETED};
 
+	/**
+	 * Delay, in milliseconds, during which project updates are coalesced
+	 */
+	public static final long UPDATE_DELAY = 500;
+
+	/**
+	 * Number of changed files from which their folder is refreshed instead
+	 */
+	private static final int FOLDER_REFRESH_THRESHOLD = 10;
+
+	private final Set<IProject> pendingUpdates = new LinkedHashSet<>();
+	private final UpdateProjectsJob updateJob = new UpdateProjectsJob();
+
 	public ProjectsManager(PreferenceManager preferenceManager) {
 		this.preferenceManager = preferenceManager;
 	}
@@ -70,9 +95,10 @@ public class ProjectsManager {
 
 			File userProjectRoot = (projectName == null)?null:new File(projectName);
 
-			IProjectImporter importer = getImporter(userProjectRoot, subMonitor.split(20));
-			if (importer != null) {
-				importer.importToWorkspace(subMonitor.split(70));
+			List<IProjectImporter> importers = getImporters(userProjectRoot, subMonitor.split(20));
+			SubMonitor importMonitor = subMonitor.split(70).setWorkRemaining(importers.size());
+			for (IProjectImporter importer : importers) {
+				importer.importToWorkspace(importMonitor.split(1));
 			}
 			return Status.OK_STATUS;
 		} catch (CoreException e) {
@@ -84,6 +110,34 @@ public class ProjectsManager {
 		}
 	}
 
+	/**
+	 * Brings the projects restored from the workspace up to date with the
+	 * file system, without importing them again.
+	 *
+	 * @param monitor a progress monitor
+	 * @return the status of the refresh
+	 */
+	public IStatus refreshProjects(IProgressMonitor monitor) {
+		IProject[] projects = getWorkspaceRoot().getProjects();
+		SubMonitor subMonitor = SubMonitor.convert(monitor, projects.length);
+		try {
+			for (IProject project : projects) {
+				if (project.isAccessible()) {
+					project.refreshLocal(IResource.DEPTH_INFINITE, subMonitor.split(1));
+				} else {
+					subMonitor.worked(1);
+				}
+			}
+			return Status.OK_STATUS;
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Problem refreshing the workspace", e);
+			return StatusFactory.newErrorStatus("Refresh failed: " + e.getMessage(), e);
+		} catch (OperationCanceledException e) {
+			JavaLanguageServerPlugin.logInfo("Refresh cancelled");
+			return Status.CANCEL_STATUS;
+		}
+	}
+
 	private static IWorkspaceRoot getWorkspaceRoot() {
 		return ResourcesPlugin.getWorkspace().getRoot();
 	}
@@ -92,43 +146,94 @@ public class ProjectsManager {
 		if (uriString == null) {
 			return;
 		}
-		IResource resource = JDTUtils.findFile(uriString);
-		if (resource == null) {
-			return;
+		filesChanged(Collections.singletonMap(uriString, changeType));
+	}
+
+	/**
+	 * Handles a batch of file changes. The changed resources are refreshed in
+	 * a single workspace operation, so that resource listeners and the auto
+	 * build run once for the whole batch, then the projects of the changed
+	 * build files are updated.
+	 *
+	 * @param changes the change of each file uri, one change per file
+	 */
+	public void filesChanged(Map<String, CHANGE_TYPE> changes) {
+		Map<IResource, Integer> refreshes = new LinkedHashMap<>();
+		Map<IContainer, List<IFile>> changedFiles = new LinkedHashMap<>();
+		Map<IProject, String> changedBuildFiles = new LinkedHashMap<>();
+		IWorkspaceRoot root = getWorkspaceRoot();
+		for (Map.Entry<String, CHANGE_TYPE> change : changes.entrySet()) {
+			IFile file = JDTUtils.findFile(change.getKey());
+			if (file == null) {
+				continue;
+			}
+			if (change.getValue() == CHANGE_TYPE.DELETED) {
+				refreshes.put(file.getParent(), IResource.DEPTH_ONE);
+				continue;
+			}
+			if (file.getLocation() != null && file.getLocation().toFile().isDirectory()) {
+				refreshes.put(root.getFolder(file.getFullPath()), IResource.DEPTH_INFINITE);
+			} else {
+				changedFiles.computeIfAbsent(file.getParent(), f -> new ArrayList<>()).add(file);
+			}
+			if (isBuildFile(file)) {
+				changedBuildFiles.putIfAbsent(file.getProject(), change.getKey());
+			}
 		}
-		try {
-			if (changeType == CHANGE_TYPE.DELETED) {
-				resource = resource.getParent();
+		// many changes in a folder, i.e. after a checkout, are cheaper to pick up with one refresh of the folder
+		for (Map.Entry<IContainer, List<IFile>> folderChanges : changedFiles.entrySet()) {
+			IContainer folder = folderChanges.getKey();
+			if (refreshes.containsKey(folder)) {
+				continue;
 			}
-			if (resource != null) {
-				resource.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+			if (folderChanges.getValue().size() >= FOLDER_REFRESH_THRESHOLD) {
+				refreshes.put(folder, IResource.DEPTH_ONE);
+			} else {
+				for (IFile file : folderChanges.getValue()) {
+					refreshes.put(file, IResource.DEPTH_ZERO);
+				}
 			}
-			if (isBuildFile(resource)) {
-				FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
-				switch (status) {
-				case automatic:
-					updateProject(resource.getProject());
-					break;
-				case disabled:
-					break;
-				default:
-					if (client != null) {
-						String cmd = "java.projectConfiguration.status";
-						TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
-						ActionableNotification updateProjectConfigurationNotification = new ActionableNotification()
-								.withSeverity(MessageType.Info)
-								.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?")
-								.withCommands(asList(
-										new Command("Never", cmd, asList(uri,FeatureStatus.disabled)),
-										new Command("Now", cmd, asList(uri, FeatureStatus.interactive)),
-										new Command("Always", cmd, asList(uri, FeatureStatus.automatic))
-										));
-						client.sendActionableNotification(updateProjectConfigurationNotification);
+		}
+		if (!refreshes.isEmpty()) {
+			try {
+				ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+					@Override
+					public void run(IProgressMonitor monitor) throws CoreException {
+						SubMonitor subMonitor = SubMonitor.convert(monitor, refreshes.size());
+						for (Map.Entry<IResource, Integer> refresh : refreshes.entrySet()) {
+							refresh.getKey().refreshLocal(refresh.getValue(), subMonitor.split(1));
+						}
 					}
-				}
+				}, root, IWorkspace.AVOID_UPDATE, new NullProgressMonitor());
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
+			}
+		}
+		changedBuildFiles.forEach((project, uri) -> buildFileChanged(project, uri));
+	}
+
+	private void buildFileChanged(IProject project, String uriString) {
+		FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
+		switch (status) {
+		case automatic:
+			updateProject(project);
+			break;
+		case disabled:
+			break;
+		default:
+			if (client != null) {
+				String cmd = "java.projectConfiguration.status";
+				TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
+				ActionableNotification updateProjectConfigurationNotification = new ActionableNotification()
+						.withSeverity(MessageType.Info)
+						.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?")
+						.withCommands(asList(
+								new Command("Never", cmd, asList(uri,FeatureStatus.disabled)),
+								new Command("Now", cmd, asList(uri, FeatureStatus.interactive)),
+								new Command("Always", cmd, asList(uri, FeatureStatus.automatic))
+								));
+				client.sendActionableNotification(updateProjectConfigurationNotification);
 			}
-		} catch (CoreException e) {
-			JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 		}
 	}
 
@@ -136,16 +241,38 @@ public class ProjectsManager {
 		return buildSupports().filter(bs -> bs.isBuildFile(resource)).findAny().isPresent();
 	}
 
-	private IProjectImporter getImporter(File rootFolder, IProgressMonitor monitor) throws InterruptedException, CoreException {
+	/**
+	 * Returns all the importers having projects to import under the given
+	 * folder. In a mixed workspace, each importer only imports the subtrees
+	 * that are not claimed by an importer of higher precedence, see
+	 * {@link ProjectDiscovery#getProjectFiles(ProjectDiscovery.Marker)}.
+	 */
+	private List<IProjectImporter> getImporters(File rootFolder, IProgressMonitor monitor) throws InterruptedException, CoreException {
 		Collection<IProjectImporter> importers = importers();
-		SubMonitor subMonitor = SubMonitor.convert(monitor, importers.size());
+		SubMonitor subMonitor = SubMonitor.convert(monitor, importers.size() + 1);
+		// a single walk of the root folder serves all the importers
+		ProjectDiscovery discovery = createDiscovery(rootFolder);
+		discovery.scan(subMonitor.split(1));
+		List<IProjectImporter> applicable = new ArrayList<>();
 		for (IProjectImporter importer : importers) {
 			importer.initialize(rootFolder);
+			if (importer instanceof AbstractProjectImporter) {
+				((AbstractProjectImporter) importer).setDiscovery(discovery);
+			}
 			if (importer.applies(subMonitor.split(1))) {
-				return importer;
+				applicable.add(importer);
 			}
 		}
-		return null;
+		return applicable;
+	}
+
+	/**
+	 * @param rootFolder the folder to walk, may be <code>null</code>
+	 * @return a discovery of the given folder honoring the configured import
+	 *         exclusions, not scanned yet
+	 */
+	public ProjectDiscovery createDiscovery(File rootFolder) {
+		return new ProjectDiscovery(rootFolder, preferenceManager.getPreferences().getImportExclusions());
 	}
 
 	public IProject getDefaultProject() {
@@ -197,37 +324,69 @@ public class ProjectsManager {
 		return project;
 	}
 
+	/**
+	 * Updates the configuration of the given project, and of the projects
+	 * depending on it. Updates requested within {@link #UPDATE_DELAY} are
+	 * coalesced into a single batch per build system.
+	 *
+	 * @param project a Maven or Gradle project
+	 */
 	public void updateProject(IProject project) {
 		if (!ProjectUtils.isMavenProject(project) && !ProjectUtils.isGradleProject(project)) {
 			return;
 		}
 		JavaLanguageServerPlugin.sendStatus(ServiceStatus.Message, "Updating "+ project.getName() + " configuration");
-		WorkspaceJob job = new WorkspaceJob("Update project "+project.getName()) {
-			@Override
-			public IStatus runInWorkspace(IProgressMonitor monitor) {
-				IStatus status = Status.OK_STATUS;
-				String projectName = project.getName();
+		synchronized (pendingUpdates) {
+			pendingUpdates.add(project);
+		}
+		// A running job is rescheduled by the job manager once it completes,
+		// otherwise restart the delay: scheduling a sleeping job keeps its
+		// original wake up time.
+		if (updateJob.getState() != Job.RUNNING) {
+			updateJob.cancel();
+		}
+		updateJob.schedule(UPDATE_DELAY);
+	}
+
+	private class UpdateProjectsJob extends WorkspaceJob {
+
+		UpdateProjectsJob() {
+			super("Update projects");
+		}
+
+		@Override
+		public IStatus runInWorkspace(IProgressMonitor monitor) {
+			Set<IProject> projects;
+			synchronized (pendingUpdates) {
+				projects = new LinkedHashSet<>(pendingUpdates);
+				pendingUpdates.clear();
+			}
+			if (projects.isEmpty()) {
+				return Status.OK_STATUS;
+			}
+			long start = System.currentTimeMillis();
+			Set<IProject> affected = ProjectDependencyGraph.create(getWorkspaceRoot()).getAffectedProjects(projects);
+			List<IBuildSupport> buildSupports = buildSupports().collect(Collectors.toList());
+			SubMonitor subMonitor = SubMonitor.convert(monitor, buildSupports.size());
+			IStatus status = Status.OK_STATUS;
+			for (IBuildSupport buildSupport : buildSupports) {
+				List<IProject> supported = affected.stream().filter(buildSupport::applies).collect(Collectors.toList());
+				if (supported.isEmpty()) {
+					subMonitor.worked(1);
+					continue;
+				}
 				try {
-					long start = System.currentTimeMillis();
-					Optional<IBuildSupport> buildSupport = getBuildSupport(project);
-					if (buildSupport.isPresent()) {
-						buildSupport.get().update(project, monitor);
-					}
-					long elapsed = System.currentTimeMillis() - start;
-					JavaLanguageServerPlugin.logInfo("Updated "+projectName + " in "+ elapsed +" ms");
+					buildSupport.update(supported, subMonitor.split(1));
 				} catch (CoreException e) {
-					String msg = "Error updating "+projectName;
+					String msg = "Error updating " + supported.stream().map(IProject::getName).collect(Collectors.joining(", "));
 					JavaLanguageServerPlugin.logError(msg);
 					status = StatusFactory.newErrorStatus(msg, e);
 				}
-				return status;
 			}
-		};
-		job.schedule();
-	}
-
-	private Optional<IBuildSupport> getBuildSupport(IProject project) {
-		return buildSupports().filter(bs -> bs.applies(project)).findFirst();
+			long elapsed = System.currentTimeMillis() - start;
+			JavaLanguageServerPlugin.logInfo("Updated " + affected.size() + " project(s) in " + elapsed + " ms");
+			return status;
+		}
 	}
 
 	private Stream<IBuildSupport> buildSupports() {
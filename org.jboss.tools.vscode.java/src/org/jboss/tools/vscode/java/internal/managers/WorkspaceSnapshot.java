@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Records, at the end of a successful import, the state the workspace was
+ * imported from: the root folder, the import exclusions, the digests of the
+ * build files (pom.xml, *.gradle, .project, .classpath...) found under it by
+ * the {@link ProjectDiscovery}, the imported projects and the server version.
+ * <p>
+ * The projects, their resolved classpaths and the build state are persisted
+ * by the workspace itself, see {@link #save(File, IProgressMonitor)}. When
+ * none of the recorded inputs changed since, the server can reuse them: it
+ * only has to refresh the projects and run an incremental build instead of
+ * re-importing everything and running a full build.
+ * </p>
+ */
+public class WorkspaceSnapshot {
+
+	public static final String FILE_NAME = "workspace-snapshot.json";
+
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The persisted state
+	 */
+	private static class State {
+		private int format = FORMAT_VERSION;
+		private String serverVersion;
+		private String root;
+		private List<String> exclusions = new ArrayList<>();
+		private List<String> projects = new ArrayList<>();
+		private Map<String, String> buildFiles = new TreeMap<>();
+	}
+
+	private final File file;
+
+	/**
+	 * @param file the file the snapshot is persisted to
+	 */
+	public WorkspaceSnapshot(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * @return the snapshot stored in the state location of the language server
+	 */
+	public static WorkspaceSnapshot getDefault() {
+		return new WorkspaceSnapshot(JavaLanguageServerPlugin.getStateLocation().append(FILE_NAME).toFile());
+	}
+
+	/**
+	 * Checks whether the workspace still matches the snapshot: same server
+	 * version, same root folder, same import exclusions, same build files and
+	 * all the projects imported from it still in the workspace.
+	 *
+	 * @param discovery the discovery of the root folder of the projects to
+	 *            import, scanned unless it already was
+	 * @param monitor a progress monitor
+	 * @return <code>true</code> if the import can be skipped
+	 */
+	public boolean isUpToDate(ProjectDiscovery discovery, IProgressMonitor monitor) {
+		File root = discovery.getRootFolder();
+		if (root == null || !file.isFile()) {
+			return false;
+		}
+		State saved = read();
+		if (saved == null || saved.format != FORMAT_VERSION
+				|| !Objects.equals(saved.serverVersion, JavaLanguageServerPlugin.getVersion())
+				|| !Objects.equals(saved.root, root.getAbsolutePath())
+				|| !Objects.equals(saved.exclusions, discovery.getExclusions())) {
+			return false;
+		}
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+		for (String name : saved.projects) {
+			IProject project = workspaceRoot.getProject(name);
+			if (!project.exists() || !project.isOpen()) {
+				return false;
+			}
+		}
+		try {
+			return saved.buildFiles.equals(digestBuildFiles(discovery, monitor));
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to check build files of " + root, e);
+			return false;
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Records the current state of the workspace, and saves the workspace so
+	 * that the projects, classpaths and build state survive a restart.
+	 *
+	 * @param discovery a discovery of the root folder the projects were
+	 *            imported from, not scanned yet: the import may have created
+	 *            build files, i.e. the .project files of Maven projects
+	 * @param monitor a progress monitor
+	 */
+	public void save(ProjectDiscovery discovery, IProgressMonitor monitor) {
+		File root = discovery.getRootFolder();
+		if (root == null) {
+			return;
+		}
+		State state = new State();
+		state.serverVersion = JavaLanguageServerPlugin.getVersion();
+		state.root = root.getAbsolutePath();
+		state.exclusions.addAll(discovery.getExclusions());
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			if (!ProjectsManager.DEFAULT_PROJECT_NAME.equals(project.getName())) {
+				state.projects.add(project.getName());
+			}
+		}
+		try {
+			state.buildFiles.putAll(digestBuildFiles(discovery, monitor));
+			ResourcesPlugin.getWorkspace().save(true, monitor);
+			write(state);
+		} catch (IOException | CoreException | InterruptedException e) {
+			JavaLanguageServerPlugin.logException("Failed to save the workspace snapshot", e);
+			invalidate();
+		}
+	}
+
+	/**
+	 * Deletes the snapshot, forcing the next start to import the projects.
+	 */
+	public void invalidate() {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to delete " + file, e);
+		}
+	}
+
+	/**
+	 * Computes the SHA-1 digests of the build files found by the given
+	 * discovery, keyed by their path relative to its root folder.
+	 */
+	static Map<String, String> digestBuildFiles(ProjectDiscovery discovery, IProgressMonitor monitor) throws IOException, InterruptedException {
+		Map<String, String> digests = new TreeMap<>();
+		Path rootPath = discovery.getRootFolder().toPath();
+		for (File buildFile : discovery.scan(monitor).getBuildFiles()) {
+			Path path = buildFile.toPath();
+			digests.put(rootPath.relativize(path).toString().replace(File.separatorChar, '/'), digest(path));
+		}
+		return digests;
+	}
+
+	private static String digest(Path path) throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+				byte[] buffer = new byte[8192];
+				while (in.read(buffer) != -1) {
+					// digesting
+				}
+			}
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private State read() {
+		try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			return new Gson().fromJson(reader, State.class);
+		} catch (IOException | JsonParseException e) {
+			JavaLanguageServerPlugin.logException("Failed to read " + file, e);
+			return null;
+		}
+	}
+
+	private void write(State state) throws IOException {
+		Files.createDirectories(file.getParentFile().toPath());
+		File tmp = new File(file.getPath() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(state, writer);
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.metrics;
+
+/**
+ * Snapshot of the metrics of a protocol method, sent to the client as a
+ * response to <code>java/serverMetrics</code>. Durations are in microseconds.
+ */
+public class MethodMetrics {
+
+	private String method;
+	private long count;
+	private long errors;
+	private long cancellations;
+	private long suppressed;
+	private long queueP50;
+	private long queueP95;
+	private long queueP99;
+	private long executionP50;
+	private long executionP95;
+	private long executionP99;
+	private long executionMean;
+	private long executionMax;
+
+	public MethodMetrics(String method) {
+		this.method = method;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getCancellations() {
+		return cancellations;
+	}
+
+	/**
+	 * @return the number of notifications that were not sent, being identical
+	 *         to the previous ones, i.e. diagnostics
+	 */
+	public long getSuppressed() {
+		return suppressed;
+	}
+
+	public long getQueueP50() {
+		return queueP50;
+	}
+
+	public long getQueueP95() {
+		return queueP95;
+	}
+
+	public long getQueueP99() {
+		return queueP99;
+	}
+
+	public long getExecutionP50() {
+		return executionP50;
+	}
+
+	public long getExecutionP95() {
+		return executionP95;
+	}
+
+	public long getExecutionP99() {
+		return executionP99;
+	}
+
+	public long getExecutionMean() {
+		return executionMean;
+	}
+
+	public long getExecutionMax() {
+		return executionMax;
+	}
+
+	MethodMetrics withCounts(long count, long errors, long cancellations) {
+		this.count = count;
+		this.errors = errors;
+		this.cancellations = cancellations;
+		return this;
+	}
+
+	MethodMetrics withSuppressed(long suppressed) {
+		this.suppressed = suppressed;
+		return this;
+	}
+
+	MethodMetrics withQueueTime(LatencyHistogram histogram) {
+		this.queueP50 = histogram.getPercentile(50);
+		this.queueP95 = histogram.getPercentile(95);
+		this.queueP99 = histogram.getPercentile(99);
+		return this;
+	}
+
+	MethodMetrics withExecutionTime(LatencyHistogram histogram) {
+		this.executionP50 = histogram.getPercentile(50);
+		this.executionP95 = histogram.getPercentile(95);
+		this.executionP99 = histogram.getPercentile(99);
+		this.executionMean = histogram.getMean();
+		this.executionMax = histogram.getMax();
+		return this;
+	}
+}
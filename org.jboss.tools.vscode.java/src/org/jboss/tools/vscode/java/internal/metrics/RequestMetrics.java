@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Collects request counts, queue and execution time histograms, error and
+ * cancellation counts for each protocol method.
+ * <p>
+ * If the <code>metrics.file</code> system property is set, the metrics are
+ * periodically written to that file, as JSON, every
+ * <code>metrics.interval</code> seconds (60 by default).
+ * </p>
+ */
+public class RequestMetrics {
+
+	public static enum Outcome {
+		COMPLETED, CANCELLED, FAILED
+	}
+
+	private static class Method {
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong cancellations = new AtomicLong();
+		private final AtomicLong suppressed = new AtomicLong();
+		private final LatencyHistogram queueTime = new LatencyHistogram();
+		private final LatencyHistogram executionTime = new LatencyHistogram();
+	}
+
+	private final ConcurrentMap<String, Method> methods = new ConcurrentHashMap<>();
+	private Job dumpJob;
+
+	/**
+	 * Records a request.
+	 *
+	 * @param method the protocol method, i.e. <code>textDocument/completion</code>
+	 * @param queueNanos the time spent waiting for a thread, in nanoseconds
+	 * @param executionNanos the time spent running the request, in nanoseconds,
+	 *            negative if it never started
+	 * @param outcome how the request ended
+	 */
+	public void record(String method, long queueNanos, long executionNanos, Outcome outcome) {
+		Method m = methods.computeIfAbsent(method, k -> new Method());
+		m.count.incrementAndGet();
+		m.queueTime.record(TimeUnit.NANOSECONDS.toMicros(queueNanos));
+		if (executionNanos >= 0) {
+			m.executionTime.record(TimeUnit.NANOSECONDS.toMicros(executionNanos));
+		}
+		if (outcome == Outcome.CANCELLED) {
+			m.cancellations.incrementAndGet();
+		} else if (outcome == Outcome.FAILED) {
+			m.errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records a notification that was not sent, being identical to the
+	 * previous one.
+	 *
+	 * @param method the protocol method, i.e. <code>textDocument/publishDiagnostics</code>
+	 */
+	public void recordSuppressed(String method) {
+		methods.computeIfAbsent(method, k -> new Method()).suppressed.incrementAndGet();
+	}
+
+	/**
+	 * Runs and records a request handled in the calling thread, i.e. a
+	 * notification.
+	 *
+	 * @param method the protocol method
+	 * @param runnable the request
+	 */
+	public void run(String method, Runnable runnable) {
+		compute(method, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Computes and records a request handled in the calling thread.
+	 *
+	 * @param method the protocol method
+	 * @param supplier the request
+	 * @return the request result
+	 */
+	public <T> T compute(String method, Supplier<T> supplier) {
+		long start = System.nanoTime();
+		Outcome outcome = Outcome.FAILED;
+		try {
+			T result = supplier.get();
+			outcome = Outcome.COMPLETED;
+			return result;
+		} finally {
+			record(method, 0, System.nanoTime() - start, outcome);
+		}
+	}
+
+	/**
+	 * @return a snapshot of the metrics of all the methods called so far,
+	 *         sorted by method name
+	 */
+	public List<MethodMetrics> getSnapshot() {
+		List<MethodMetrics> snapshot = new ArrayList<>(methods.size());
+		methods.forEach((name, m) -> snapshot.add(new MethodMetrics(name)
+				.withCounts(m.count.get(), m.errors.get(), m.cancellations.get())
+				.withSuppressed(m.suppressed.get())
+				.withQueueTime(m.queueTime)
+				.withExecutionTime(m.executionTime)));
+		Collections.sort(snapshot, Comparator.comparing(MethodMetrics::getMethod));
+		return snapshot;
+	}
+
+	/**
+	 * Starts writing the metrics to the file set by the <code>metrics.file</code>
+	 * system property, if any.
+	 */
+	public void startDumping() {
+		String path = System.getProperty("metrics.file");
+		if (path == null || path.isEmpty()) {
+			return;
+		}
+		long interval = TimeUnit.SECONDS.toMillis(Long.getLong("metrics.interval", 60L));
+		File file = new File(path);
+		dumpJob = new Job("Dump server metrics") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				dump(file);
+				if (!monitor.isCanceled()) {
+					schedule(interval);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		dumpJob.setSystem(true);
+		dumpJob.schedule(interval);
+	}
+
+	/**
+	 * Stops writing the metrics to a file.
+	 */
+	public void stopDumping() {
+		if (dumpJob != null) {
+			dumpJob.cancel();
+			dumpJob = null;
+		}
+	}
+
+	/**
+	 * Writes the current metrics to the given file, as JSON.
+	 *
+	 * @param file the destination file
+	 */
+	public void dump(File file) {
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		try {
+			File tmp = new File(file.getPath() + ".tmp");
+			try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+				gson.toJson(getSnapshot(), writer);
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to write server metrics to " + file, e);
+		}
+	}
+}
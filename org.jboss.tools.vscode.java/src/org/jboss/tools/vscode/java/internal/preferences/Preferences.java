@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.jboss.tools.vscode.java.internal.preferences;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.lsp4j.MessageType;
+import org.jboss.tools.vscode.java.internal.managers.ProjectDiscovery;
 
 /**
  * Preferences model
@@ -22,8 +26,36 @@ import org.eclipse.lsp4j.MessageType;
  */
 public class Preferences {
 
+	/**
+	 * Default quiet period, in milliseconds, before changed documents are reconciled.
+	 */
+	public static final long DEFAULT_RECONCILE_DELAY = 300;
+
+	/**
+	 * Default maximum number of workspace symbols returned for a query.
+	 */
+	public static final int DEFAULT_MAX_WORKSPACE_SYMBOLS = 200;
+
+	/**
+	 * Default maximum number of references returned for an element.
+	 */
+	public static final int DEFAULT_MAX_REFERENCES = 1000;
+
+	/**
+	 * Default maximum number of items returned for a completion request.
+	 */
+	public static final int DEFAULT_MAX_COMPLETION_RESULTS = 500;
+
 	private Severity incompleteClasspathSeverity;
 	private FeatureStatus updateBuildConfigurationStatus;
+	private long reconcileDelay;
+	private List<String> importExclusions;
+	private int maxWorkspaceSymbols;
+	private int maxReferences;
+	private boolean deferImportEdits;
+	private boolean completionLazyResolve;
+	private int maxCompletionResults;
+	private boolean javadocCacheOnDisk;
 
 	public static enum Severity {
 		ignore, log, info, warning, error;
@@ -70,6 +102,11 @@ public class Preferences {
 	public Preferences() {
 		incompleteClasspathSeverity = Severity.warning;
 		updateBuildConfigurationStatus = FeatureStatus.interactive;
+		reconcileDelay = DEFAULT_RECONCILE_DELAY;
+		importExclusions = ProjectDiscovery.DEFAULT_EXCLUSIONS;
+		maxWorkspaceSymbols = DEFAULT_MAX_WORKSPACE_SYMBOLS;
+		maxReferences = DEFAULT_MAX_REFERENCES;
+		maxCompletionResults = DEFAULT_MAX_COMPLETION_RESULTS;
 	}
 
 	/**
@@ -89,6 +126,52 @@ public class Preferences {
 		if (updateBuildConfiguration != null) {
 			prefs.setUpdateBuildConfigurationStatus(FeatureStatus.fromString(updateBuildConfiguration.toString(), FeatureStatus.interactive));
 		}
+
+		Object reconcileDelay = configuration.get("java.reconcile.delay");
+		if (reconcileDelay != null) {
+			prefs.setReconcileDelay(toLong(reconcileDelay, DEFAULT_RECONCILE_DELAY));
+		}
+
+		Object importExclusions = configuration.get("java.import.exclusions");
+		if (importExclusions instanceof Collection) {
+			List<String> exclusions = new ArrayList<>();
+			for (Object exclusion : (Collection<?>) importExclusions) {
+				if (exclusion != null) {
+					exclusions.add(exclusion.toString());
+				}
+			}
+			prefs.setImportExclusions(exclusions);
+		}
+
+		Object maxWorkspaceSymbols = configuration.get("java.workspaceSymbols.maxResults");
+		if (maxWorkspaceSymbols != null) {
+			prefs.setMaxWorkspaceSymbols((int) toLong(maxWorkspaceSymbols, DEFAULT_MAX_WORKSPACE_SYMBOLS));
+		}
+
+		Object maxReferences = configuration.get("java.references.maxResults");
+		if (maxReferences != null) {
+			prefs.setMaxReferences((int) toLong(maxReferences, DEFAULT_MAX_REFERENCES));
+		}
+
+		Object deferImportEdits = configuration.get("java.completion.deferImportEdits");
+		if (deferImportEdits != null) {
+			prefs.setDeferImportEdits(Boolean.parseBoolean(deferImportEdits.toString().trim()));
+		}
+
+		Object completionLazyResolve = configuration.get("java.completion.lazyResolve");
+		if (completionLazyResolve != null) {
+			prefs.setCompletionLazyResolve(Boolean.parseBoolean(completionLazyResolve.toString().trim()));
+		}
+
+		Object maxCompletionResults = configuration.get("java.completion.maxResults");
+		if (maxCompletionResults != null) {
+			prefs.setMaxCompletionResults((int) toLong(maxCompletionResults, DEFAULT_MAX_COMPLETION_RESULTS));
+		}
+
+		Object javadocCacheOnDisk = configuration.get("java.javadoc.cacheOnDisk");
+		if (javadocCacheOnDisk != null) {
+			prefs.setJavadocCacheOnDisk(Boolean.parseBoolean(javadocCacheOnDisk.toString().trim()));
+		}
 		return prefs;
 	}
 
@@ -97,6 +180,58 @@ public class Preferences {
 		return this;
 	}
 
+	private static long toLong(Object value, long defaultValue) {
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		try {
+			return Long.parseLong(value.toString().trim());
+		} catch (NumberFormatException e) {
+			//fall back to default value
+		}
+		return defaultValue;
+	}
+
+	private Preferences setReconcileDelay(long delay) {
+		this.reconcileDelay = delay < 0 ? 0 : delay;
+		return this;
+	}
+
+	private Preferences setMaxWorkspaceSymbols(int max) {
+		this.maxWorkspaceSymbols = max <= 0 ? DEFAULT_MAX_WORKSPACE_SYMBOLS : max;
+		return this;
+	}
+
+	private Preferences setMaxReferences(int max) {
+		this.maxReferences = max <= 0 ? DEFAULT_MAX_REFERENCES : max;
+		return this;
+	}
+
+	private Preferences setJavadocCacheOnDisk(boolean onDisk) {
+		this.javadocCacheOnDisk = onDisk;
+		return this;
+	}
+
+	private Preferences setMaxCompletionResults(int max) {
+		this.maxCompletionResults = max <= 0 ? DEFAULT_MAX_COMPLETION_RESULTS : max;
+		return this;
+	}
+
+	private Preferences setDeferImportEdits(boolean defer) {
+		this.deferImportEdits = defer;
+		return this;
+	}
+
+	private Preferences setCompletionLazyResolve(boolean lazy) {
+		this.completionLazyResolve = lazy;
+		return this;
+	}
+
+	private Preferences setImportExclusions(List<String> exclusions) {
+		this.importExclusions = exclusions;
+		return this;
+	}
+
 	private Preferences setIncompleteClasspathSeverity(Severity severity) {
 		this.incompleteClasspathSeverity = severity;
 		return this;
@@ -109,4 +244,65 @@ public class Preferences {
 	public FeatureStatus getUpdateBuildConfigurationStatus() {
 		return updateBuildConfigurationStatus;
 	}
+
+	/**
+	 * @return the quiet period, in milliseconds, to wait after the last change
+	 *         before a document is reconciled. 0 means reconcile immediately.
+	 */
+	public long getReconcileDelay() {
+		return reconcileDelay;
+	}
+
+	/**
+	 * @return the globs of the folders not searched for projects to import
+	 */
+	public List<String> getImportExclusions() {
+		return importExclusions;
+	}
+
+	/**
+	 * @return the maximum number of symbols returned by a workspace symbol query
+	 */
+	public int getMaxWorkspaceSymbols() {
+		return maxWorkspaceSymbols;
+	}
+
+	/**
+	 * @return the maximum number of references returned for an element
+	 */
+	public int getMaxReferences() {
+		return maxReferences;
+	}
+
+	/**
+	 * @return whether the import edits of the completion items are only
+	 *         computed when the items are resolved
+	 */
+	public boolean isDeferImportEdits() {
+		return deferImportEdits;
+	}
+
+	/**
+	 * @return whether the completion items are only labelled, their edits,
+	 *         detail and documentation being computed when they are resolved
+	 */
+	public boolean isCompletionLazyResolve() {
+		return completionLazyResolve;
+	}
+
+	/**
+	 * @return the maximum number of items returned for a completion request,
+	 *         the list being marked incomplete when more items matched
+	 */
+	public int getMaxCompletionResults() {
+		return maxCompletionResults;
+	}
+
+	/**
+	 * @return whether the javadoc rendered for library elements is also
+	 *         cached on disk, to survive restarts
+	 */
+	public boolean isJavadocCacheOnDisk() {
+		return javadocCacheOnDisk;
+	}
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.jboss.tools.vscode.java.internal.metrics.RequestMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+public class DiagnosticsPublisherTest {
+
+	private final List<PublishDiagnosticsParams> published = new CopyOnWriteArrayList<>();
+	private final CountDownLatch sending = new CountDownLatch(1);
+	private final CountDownLatch resume = new CountDownLatch(1);
+	private DiagnosticsPublisher publisher;
+
+	@After
+	public void tearDown() {
+		resume.countDown();
+		if (publisher != null) {
+			publisher.dispose();
+		}
+	}
+
+	@Test
+	public void testLastPublishWins() throws Exception {
+		publisher = new DiagnosticsPublisher(this::send, null, 10, 0);
+		// blocks the publisher thread while sending the first notification
+		publisher.publish(diagnostics("file:///A.java", "first"));
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+		publisher.publish(diagnostics("file:///B.java", "old"));
+		publisher.publish(diagnostics("file:///C.java", "c"));
+		publisher.publish(diagnostics("file:///B.java", "new"));
+		assertEquals(2, publisher.getPendingCount());
+		resume.countDown();
+		publisher.dispose();
+
+		assertEquals(3, published.size());
+		assertEquals("file:///A.java", published.get(0).getUri());
+		assertEquals("file:///B.java", published.get(1).getUri());
+		assertEquals("new", published.get(1).getDiagnostics().get(0).getMessage());
+		assertEquals("file:///C.java", published.get(2).getUri());
+	}
+
+	@Test
+	public void testBatches() throws Exception {
+		publisher = new DiagnosticsPublisher(this::send, null, 2, 10000);
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		publisher.publish(diagnostics("file:///B.java", "b"));
+		publisher.publish(diagnostics("file:///C.java", "c"));
+		publisher.publish(diagnostics("file:///D.java", "d"));
+		resume.countDown();
+		// the next batch waits for the interval to elapse
+		Thread.sleep(200);
+		assertEquals(1, published.size());
+		assertEquals(3, publisher.getPendingCount());
+		// disposing flushes the remaining batches without throttling
+		publisher.dispose();
+		assertEquals(4, published.size());
+	}
+
+	@Test
+	public void testIdenticalDiagnosticsAreSuppressed() throws Exception {
+		RequestMetrics metrics = new RequestMetrics();
+		publisher = new DiagnosticsPublisher(published::add, metrics, 10, 0);
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		publisher.publish(diagnostics("file:///A.java", "b"));
+		publisher.publish(diagnostics("file:///A.java", "b"));
+		publisher.dispose();
+
+		assertEquals("b", published.get(published.size() - 1).getDiagnostics().get(0).getMessage());
+		assertEquals(2, publisher.getFingerprints().getPublishedCount());
+		assertEquals(2, publisher.getFingerprints().getSuppressedCount());
+		assertEquals(2, metrics.getSnapshot().get(0).getSuppressed());
+	}
+
+	@Test
+	public void testClearedDiagnosticsAreForgotten() throws Exception {
+		publisher = new DiagnosticsPublisher(published::add, null, 10, 0);
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		publisher.clear("file:///A.java");
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		publisher.forget("file:///A.java");
+		publisher.publish(diagnostics("file:///A.java", "a"));
+		publisher.dispose();
+
+		assertEquals("a", published.get(published.size() - 1).getDiagnostics().get(0).getMessage());
+		assertEquals(3, publisher.getFingerprints().getPublishedCount());
+		assertEquals(0, publisher.getFingerprints().getSuppressedCount());
+	}
+
+	private void send(PublishDiagnosticsParams params) {
+		sending.countDown();
+		try {
+			resume.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		published.add(params);
+	}
+
+	private static PublishDiagnosticsParams diagnostics(String uri, String message) {
+		Diagnostic diagnostic = new Diagnostic();
+		diagnostic.setMessage(message);
+		return new PublishDiagnosticsParams(uri, Collections.singletonList(diagnostic));
+	}
+}
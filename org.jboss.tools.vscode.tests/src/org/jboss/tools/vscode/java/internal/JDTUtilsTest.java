@@ -15,12 +15,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IPackageDeclaration;
@@ -80,6 +83,19 @@ public class JDTUtilsTest extends AbstractWorkspaceTest {
 		assertTrue(IType.class.isAssignableFrom(elements[0].getClass()));
 	}
 
+	@Test
+	public void testFindFileIsCached() throws Exception {
+		IProject project = JavaLanguageServerPlugin.getProjectsManager().getDefaultProject();
+		IFile file = project.getFile("src/Cached.java");
+		file.create(new ByteArrayInputStream("public class Cached {}".getBytes()), true, null);
+		ResourceLookupCache cache = JavaLanguageServerPlugin.getResourceLookupCache();
+		assertEquals(file, JDTUtils.findFile(file.getLocationURI()));
+		assertEquals(file, cache.get(file.getLocation()));
+
+		file.delete(true, null);
+		assertNull(cache.get(file.getLocation()));
+	}
+
 	@Test
 	public void testUnresolvableCompilationUnits() throws Exception {
 		assertNull(JDTUtils.resolveCompilationUnit((String)null));
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LineIndexTest {
+
+	@Test
+	public void testLineDelimiters() {
+		LineIndex index = new LineIndex("a\r\nb\rc\n");
+		assertEquals(4, index.getNumberOfLines());
+		assertEquals(0, index.getLineOffset(0));
+		assertEquals(3, index.getLineOffset(1));
+		assertEquals(5, index.getLineOffset(2));
+		assertEquals(7, index.getLineOffset(3));
+		assertEquals(-1, index.getLineOffset(4));
+	}
+
+	@Test
+	public void testConversions() {
+		LineIndex index = new LineIndex("class Foo {\n\tint bar;\n}");
+		assertArrayEquals(new int[] { 1, 1 }, index.toPosition(13));
+		assertArrayEquals(new int[] { 2, 1 }, index.toPosition(23));
+		assertNull(index.toPosition(24));
+		assertEquals(13, index.toOffset(1, 1));
+		assertEquals(-1, index.toOffset(3, 0));
+	}
+
+	@Test
+	public void testBatchConversions() {
+		LineIndex index = new LineIndex("a\nbc\ndef\n");
+		int[][] positions = index.toPositions(new int[] { 0, 3, 8, 1, 42, 9 });
+		assertArrayEquals(new int[] { 0, 0 }, positions[0]);
+		assertArrayEquals(new int[] { 1, 1 }, positions[1]);
+		assertArrayEquals(new int[] { 2, 3 }, positions[2]);
+		assertArrayEquals(new int[] { 0, 1 }, positions[3]);
+		assertNull(positions[4]);
+		assertArrayEquals(new int[] { 3, 0 }, positions[5]);
+		assertArrayEquals(new int[] { 2, 5, -1 }, index.toOffsets(new int[] { 1, 2, 4 }, new int[] { 0, 0, 0 }));
+	}
+
+	@Test
+	public void testIncrementalUpdates() {
+		Random random = new Random(0);
+		String alphabet = "ab\r\n";
+		StringBuilder text = new StringBuilder("a\r\nb");
+		LineIndex index = new LineIndex(text);
+		for (int i = 0; i < 5000; i++) {
+			int offset = random.nextInt(text.length() + 1);
+			int length = random.nextInt(text.length() - offset + 1);
+			StringBuilder replacement = new StringBuilder();
+			for (int j = random.nextInt(4); j > 0; j--) {
+				replacement.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			text.replace(offset, offset + length, replacement.toString());
+			int end = offset + replacement.length();
+			index.replace(offset, length, replacement.toString(),
+					offset > 0 ? text.charAt(offset - 1) : 0,
+					end < text.length() ? text.charAt(end) : 0);
+
+			LineIndex expected = new LineIndex(text);
+			assertEquals(text.toString(), expected.getNumberOfLines(), index.getNumberOfLines());
+			for (int line = 0; line < expected.getNumberOfLines(); line++) {
+				assertEquals(text.toString(), expected.getLineOffset(line), index.getLineOffset(line));
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.tools.vscode.java.internal.RequestScheduler.Lane;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestSchedulerTest {
+
+	private RequestScheduler scheduler;
+
+	@Before
+	public void setup() {
+		scheduler = new RequestScheduler();
+	}
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testComputeAsync() throws Exception {
+		CompletableFuture<String> result = scheduler.computeAsync(Lane.INTERACTIVE, "test/foo", cc -> "foo");
+		assertEquals("foo", result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testSupersededRequestIsCancelled() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		CompletableFuture<String> first = scheduler.computeAsync(Lane.BACKGROUND, "test/key", "key", cc -> {
+			started.countDown();
+			while (true) {
+				try {
+					cc.checkCanceled();
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					return "interrupted";
+				} catch (RuntimeException e) {
+					cancelled.countDown();
+					throw e;
+				}
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<String> second = scheduler.computeAsync(Lane.BACKGROUND, "test/key", "key", cc -> "bar");
+		assertTrue(first.isCancelled());
+		assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+		assertEquals("bar", second.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testExceptionIsPropagated() throws Exception {
+		CompletableFuture<String> result = scheduler.computeAsync(Lane.INTERACTIVE, "test/boom", cc -> {
+			throw new IllegalStateException("boom");
+		});
+		try {
+			result.join();
+		} catch (Exception e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+			return;
+		}
+		throw new AssertionError("Exception expected");
+	}
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.lsp4j.SymbolKind;
+import org.jboss.tools.vscode.java.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolIndexTest extends AbstractProjectsManagerBasedTest {
+
+	private SymbolIndex index;
+	private IProject project;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = WorkspaceHelper.getProject("hello");
+		index = new SymbolIndex();
+		index.initialize();
+		waitForIndex();
+	}
+
+	@After
+	public void tearDown() {
+		index.dispose();
+	}
+
+	@Test
+	public void testIndexMembers() throws Exception {
+		assertTrue(index.isReady());
+		SymbolIndex.View view = index.getView();
+		int foo = find(view, "Foo");
+		assertEquals(SymbolKind.Class, view.getKind(foo));
+		assertEquals("java", view.getContainerName(foo));
+		assertEquals(5, view.getLine(foo));
+		assertEquals(13, view.getColumn(foo));
+		assertTrue(view.getUri(foo).endsWith("src/java/Foo.java"));
+
+		int main = find(view, "main");
+		assertEquals(SymbolKind.Function, view.getKind(main));
+		assertEquals("java.Foo", view.getContainerName(main));
+		assertEquals(7, view.getLine(main));
+		assertEquals(20, view.getColumn(main));
+
+		find(view, "somethingFromLombok");
+	}
+
+	@Test
+	public void testSortedIgnoringCase() throws Exception {
+		SymbolIndex.View view = index.getView();
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < view.size(); i++) {
+			names.add(view.getName(i));
+		}
+		List<String> sorted = new ArrayList<>(names);
+		sorted.sort(SymbolIndex.NAME_ORDER);
+		assertEquals(sorted, names);
+
+		int[] range = view.getRange('s');
+		assertTrue(range[0] < range[1]);
+		for (int i = range[0]; i < range[1]; i++) {
+			assertEquals('s', Character.toLowerCase(view.getName(i).charAt(0)));
+		}
+	}
+
+	@Test
+	public void testUpdatedFromDeltas() throws Exception {
+		IFile file = project.getFile("src/java/Baz.java");
+		file.create(new ByteArrayInputStream("package java;\npublic class Baz {\n\tint count;\n}\n".getBytes()), true, null);
+		waitForIndex();
+		SymbolIndex.View view = index.getView();
+		int count = find(view, "count");
+		assertEquals(SymbolKind.Field, view.getKind(count));
+		assertEquals(2, view.getLine(count));
+
+		file.setContents(new ByteArrayInputStream("package java;\npublic class Baz {\n\tint total;\n}\n".getBytes()), true, false, null);
+		waitForIndex();
+		view = index.getView();
+		assertEquals(-1, indexOf(view, "count"));
+		find(view, "total");
+
+		file.delete(true, null);
+		waitForIndex();
+		assertEquals(-1, indexOf(index.getView(), "Baz"));
+	}
+
+	@Test
+	public void testSortedAfterUpdates() throws Exception {
+		int size = index.getView().size();
+		IFile file = project.getFile("src/java/Baz.java");
+		file.create(new ByteArrayInputStream("package java;\npublic class Baz {\n\tint zeta;\n\tint Alpha;\n\tvoid main() {}\n}\n".getBytes()), true, null);
+		waitForIndex();
+		assertSorted(index.getView());
+		assertEquals(size + 4, index.getView().size());
+
+		file.setContents(new ByteArrayInputStream("package java;\npublic class Baz {\n\tint beta;\n}\n".getBytes()), true, false, null);
+		waitForIndex();
+		SymbolIndex.View view = index.getView();
+		assertSorted(view);
+		assertEquals(size + 2, view.size());
+		assertEquals(-1, indexOf(view, "zeta"));
+		find(view, "beta");
+		find(view, "Foo");
+	}
+
+	private static void assertSorted(SymbolIndex.View view) {
+		for (int i = 1; i < view.size(); i++) {
+			assertTrue(view.getName(i - 1) + " > " + view.getName(i), SymbolIndex.NAME_ORDER.compare(view.getName(i - 1), view.getName(i)) <= 0);
+		}
+	}
+
+	private void waitForIndex() throws Exception {
+		Job.getJobManager().join(SymbolIndex.class, monitor);
+	}
+
+	private static int find(SymbolIndex.View view, String name) {
+		int i = indexOf(view, name);
+		assertTrue(name + " not found", i >= 0);
+		return i;
+	}
+
+	private static int indexOf(SymbolIndex.View view, String name) {
+		int[] range = view.getRange(name.charAt(0));
+		for (int i = range[0]; i < range[1]; i++) {
+			if (view.getName(i).equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
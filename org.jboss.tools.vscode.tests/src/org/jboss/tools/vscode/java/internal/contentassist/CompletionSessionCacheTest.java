@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.contentassist;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CompletionSessionCacheTest {
+
+	@Test
+	public void testGetReplaceStart() throws Exception {
+		assertEquals(4, CompletionSessionCache.getReplaceStart("map.pu", 6));
+		assertEquals(4, CompletionSessionCache.getReplaceStart("map.", 4));
+		assertEquals(0, CompletionSessionCache.getReplaceStart("Objec", 5));
+		// an empty prefix not following a '.' is not narrowed by the engine
+		assertEquals(-1, CompletionSessionCache.getReplaceStart("foo( ", 5));
+		assertEquals(-1, CompletionSessionCache.getReplaceStart("", 0));
+	}
+
+	@Test
+	public void testMatch() throws Exception {
+		assertEquals('a', CompletionSessionCache.match("put".toCharArray(), "put".toCharArray(), true));
+		assertEquals('b', CompletionSessionCache.match("pu".toCharArray(), "putAll".toCharArray(), true));
+		assertEquals('c', CompletionSessionCache.match("PU".toCharArray(), "putAll".toCharArray(), true));
+		assertEquals('d', CompletionSessionCache.match("pA".toCharArray(), "putAll".toCharArray(), true));
+		assertEquals(0, CompletionSessionCache.match("pA".toCharArray(), "putAll".toCharArray(), false));
+		assertEquals(0, CompletionSessionCache.match("get".toCharArray(), "putAll".toCharArray(), true));
+	}
+
+	@Test
+	public void testGetFilterName() throws Exception {
+		assertEquals("put", CompletionSessionCache.getFilterName("put(String key, String value) : String"));
+		assertEquals("HashMap", CompletionSessionCache.getFilterName("HashMap - java.util"));
+		assertEquals("sql", CompletionSessionCache.getFilterName("java.sql"));
+		assertEquals("", CompletionSessionCache.getFilterName(null));
+	}
+}
@@ -19,16 +19,24 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.CodeLensParams;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
+import org.jboss.tools.vscode.java.internal.JDTUtils;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
+import org.jboss.tools.vscode.java.internal.ReferencesCache;
 import org.jboss.tools.vscode.java.internal.ResourceUtils;
 import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
 import org.jboss.tools.vscode.java.internal.managers.AbstractProjectsManagerBasedTest;
@@ -166,6 +174,48 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@Test
+	public void testResolveCodeLenseIsCached() throws Exception {
+		ReferencesCache cache = JavaLanguageServerPlugin.getReferencesCache();
+		cache.clear();
+		IFile foo = project.getFile("src/java/Foo.java");
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(foo.getRawLocationURI());
+		IType type = unit.getType("Foo");
+		IMethod main = type.getMethod("main", new String[] { "[QString;" });
+
+		CodeLens lens = getParams(createCodeLensRequest("src/java/Foo.java", 5, 13, 16));
+		assertEquals("1 reference", handler.resolve(lens).getCommand().getTitle());
+		// the references of all the lenses of the unit are searched at once
+		assertEquals(1, cache.get(type).size());
+		assertNotNull(cache.get(main));
+
+		// Bar no longer references Foo
+		IFile bar = project.getFile("src/java/Bar.java");
+		String source = ResourceUtils.getContent(bar.getRawLocationURI()).replace("extends Foo", "");
+		bar.setContents(new ByteArrayInputStream(source.getBytes()), true, false, null);
+		assertNull(cache.get(type));
+		lens = getParams(createCodeLensRequest("src/java/Foo.java", 5, 13, 16));
+		assertEquals("0 references", handler.resolve(lens).getCommand().getTitle());
+	}
+
+	@Test
+	public void testResolveNestedTypeReferences() throws Exception {
+		ReferencesCache cache = JavaLanguageServerPlugin.getReferencesCache();
+		cache.clear();
+		IFile outer = project.getFile("src/java/Outer.java");
+		outer.create(new ByteArrayInputStream("package java;\n\npublic class Outer {\n\tpublic class Inner {\n\t}\n}\n".getBytes()), true, null);
+		IFile user = project.getFile("src/java/User.java");
+		user.create(new ByteArrayInputStream("package java;\n\npublic class User {\n\tOuter.Inner inner;\n}\n".getBytes()), true, null);
+		waitForBackgroundJobs();
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(outer.getRawLocationURI());
+		IType inner = unit.getType("Outer").getType("Inner");
+
+		CodeLens lens = getParams(createCodeLensRequest("src/java/Outer.java", 2, 13, 18));
+		// the qualified reference to Inner is not attributed to Outer
+		assertEquals("1 reference", handler.resolve(lens).getCommand().getTitle());
+		assertEquals(1, cache.get(inner).size());
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null);
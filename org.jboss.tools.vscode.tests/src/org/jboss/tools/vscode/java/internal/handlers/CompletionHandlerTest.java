@@ -13,10 +13,12 @@ package org.jboss.tools.vscode.java.internal.handlers;
 
 import static org.jboss.tools.vscode.java.internal.Lsp4jAssertions.assertTextEdit;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -33,10 +35,13 @@ import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
 import org.jboss.tools.vscode.java.internal.JDTUtils;
 import org.jboss.tools.vscode.java.internal.JavaClientConnection;
+import org.jboss.tools.vscode.java.internal.JavaLanguageServerPlugin;
 import org.jboss.tools.vscode.java.internal.JsonMessageHelper;
 import org.jboss.tools.vscode.java.internal.LanguageServerWorkingCopyOwner;
 import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
 import org.jboss.tools.vscode.java.internal.managers.AbstractProjectsManagerBasedTest;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
 import org.junit.Before;
 import org.junit.ComparisonFailure;
 import org.junit.Test;
@@ -203,6 +208,180 @@ public class CompletionHandlerTest extends AbstractProjectsManagerBasedTest{
 		//Not checking the range end character
 	}
 
+	@Test
+	public void testCompletion_refilter() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"java.util.HashMap<String, String> map = new java.util.HashMap<>();\n"+
+						"map.p\n" +
+						"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "map.p");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		assertNotNull(list);
+		assertTrue(list.getItems().stream().anyMatch(item -> item.getLabel().startsWith("putAll(")));
+
+		// extend the prefix, without reconciling
+		unit.getBuffer().replace(unit.getSource().lastIndexOf("map.p") + 5, 0, "utAl");
+		loc = findCompletionLocation(unit, "map.putAl");
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		assertNotNull(list);
+		assertEquals(1, list.getItems().size());
+		CompletionItem ci = list.getItems().get(0);
+		assertTrue(ci.getLabel().startsWith("putAll("));
+		// the replaced range covers the extended prefix
+		assertEquals(loc[1] - 5, ci.getTextEdit().getRange().getStart().getCharacter());
+		assertEquals(loc[1], ci.getTextEdit().getRange().getEnd().getCharacter());
+	}
+
+	@Test
+	public void testCompletion_refilterLazyResolve() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"java.util.HashMap<String, String> map = new java.util.HashMap<>();\n"+
+						"map.p\n" +
+						"	}\n"+
+				"}\n");
+		PreferenceManager preferenceManager = new PreferenceManager();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.completion.lazyResolve", true)));
+		server = new JDTLanguageServer(projectsManager, preferenceManager);
+		int[] loc = findCompletionLocation(unit, "map.p");
+		server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+
+		ReconcileScheduler scheduler = JavaLanguageServerPlugin.getReconcileScheduler();
+		try {
+			unit.getBuffer().replace(unit.getSource().lastIndexOf("map.p") + 5, 0, "utAl");
+			scheduler.reconcileNow(unit, 2);
+			loc = findCompletionLocation(unit, "map.putAl");
+			CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+			assertEquals(1, list.getItems().size());
+			// resolved from the proposals of the first request
+			CompletionItem resolved = server.resolveCompletionItem(list.getItems().get(0)).join();
+			assertNotNull(resolved.getTextEdit());
+			assertEquals(loc[1] - 5, resolved.getTextEdit().getRange().getStart().getCharacter());
+			assertEquals(loc[1], resolved.getTextEdit().getRange().getEnd().getCharacter());
+		} finally {
+			scheduler.remove(unit);
+		}
+	}
+
+	@Test
+	public void testCompletion_maxResults() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"java.util.HashMap<String, String> map = new java.util.HashMap<>();\n"+
+						"map.\n" +
+						"	}\n"+
+				"}\n");
+		PreferenceManager preferenceManager = new PreferenceManager();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.completion.maxResults", 3)));
+		server = new JDTLanguageServer(projectsManager, preferenceManager);
+
+		int[] loc = findCompletionLocation(unit, "map.");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		assertNotNull(list);
+		assertEquals(3, list.getItems().size());
+		assertTrue(list.isIncomplete());
+	}
+
+	@Test
+	public void testCompletion_lazyResolve() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"HashMap<String, String> map = new HashMap<>();\n"+
+						"map.pu\n" +
+						"	}\n"+
+				"}\n");
+		PreferenceManager preferenceManager = new PreferenceManager();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.completion.lazyResolve", true)));
+		server = new JDTLanguageServer(projectsManager, preferenceManager);
+
+		int[] loc = findCompletionLocation(unit, "map.pu");
+
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		assertNotNull(list);
+		CompletionItem ci = list.getItems().stream()
+				.filter( item->  item.getLabel().matches("put\\(String \\w+, String \\w+\\) : String"))
+				.findFirst().orElse(null);
+		assertNotNull(ci);
+		assertEquals(CompletionItemKind.Function, ci.getKind());
+		assertTrue("Unexpected sortText:"+ ci.getSortText() , ci.getSortText().endsWith("abj"));
+		// only labelled until resolved, with the plain completion as fallback
+		assertNull(ci.getTextEdit());
+		assertNull(ci.getDetail());
+		assertNull(ci.getAdditionalTextEdits());
+		assertNotNull(ci.getInsertText());
+		assertTrue(ci.getInsertText().startsWith("put"));
+
+		CompletionItem resolved = server.resolveCompletionItem(ci).join();
+		assertNotNull(resolved.getTextEdit());
+		assertNotNull(resolved.getDetail());
+		assertNotNull(resolved.getAdditionalTextEdits());
+		assertFalse(resolved.getAdditionalTextEdits().isEmpty());
+		assertNull(resolved.getData());
+	}
+
+	@Test
+	public void testCompletion_lazyResolveAfterChange() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"	void foo() {\n"+
+						"HashMap<String, String> map = new HashMap<>();\n"+
+						"map.pu\n" +
+						"	}\n"+
+				"}\n");
+		PreferenceManager preferenceManager = new PreferenceManager();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.completion.lazyResolve", true)));
+		server = new JDTLanguageServer(projectsManager, preferenceManager);
+
+		int[] loc = findCompletionLocation(unit, "map.pu");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		CompletionItem ci = list.getItems().stream()
+				.filter( item->  item.getLabel().startsWith("put("))
+				.findFirst().orElse(null);
+		assertNotNull(ci);
+
+		ReconcileScheduler scheduler = JavaLanguageServerPlugin.getReconcileScheduler();
+		try {
+			// the client filtered the items while "t" was typed
+			unit.getBuffer().replace(unit.getSource().lastIndexOf("map.pu") + 6, 0, "t");
+			scheduler.reconcileNow(unit, 2);
+			CompletionItem resolved = server.resolveCompletionItem(copy(ci)).join();
+			assertNotNull(resolved.getTextEdit());
+			assertNotNull(resolved.getDetail());
+			assertEquals(loc[1] - 2, resolved.getTextEdit().getRange().getStart().getCharacter());
+			assertEquals(loc[1] + 1, resolved.getTextEdit().getRange().getEnd().getCharacter());
+
+			// any other change invalidates the proposals
+			unit.getBuffer().replace(unit.getSource().lastIndexOf("map.put"), 4, "");
+			scheduler.reconcileNow(unit, 3);
+			resolved = server.resolveCompletionItem(copy(ci)).join();
+			assertNull(resolved.getTextEdit());
+			assertNotNull(resolved.getInsertText());
+		} finally {
+			scheduler.remove(unit);
+		}
+	}
+
+	private static CompletionItem copy(CompletionItem item) {
+		CompletionItem copy = new CompletionItem();
+		copy.setLabel(item.getLabel());
+		copy.setKind(item.getKind());
+		copy.setSortText(item.getSortText());
+		copy.setInsertText(item.getInsertText());
+		copy.setData(item.getData());
+		return copy;
+	}
+
 
 
 	/**
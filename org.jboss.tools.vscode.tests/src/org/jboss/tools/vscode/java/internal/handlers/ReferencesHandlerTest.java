@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.ReferenceContext;
+import org.eclipse.lsp4j.ReferenceParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.jboss.tools.vscode.java.internal.JDTUtils;
+import org.jboss.tools.vscode.java.internal.ResourceUtils;
+import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
+import org.jboss.tools.vscode.java.internal.managers.AbstractProjectsManagerBasedTest;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferencesHandlerTest extends AbstractProjectsManagerBasedTest {
+
+	private ReferencesHandler handler;
+	private PreferenceManager preferenceManager;
+	private IProject project;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = WorkspaceHelper.getProject("hello");
+		preferenceManager = new PreferenceManager();
+		handler = new ReferencesHandler(preferenceManager);
+	}
+
+	@Test
+	public void testFindReferences() throws Exception {
+		List<Location> locations = handler.findReferences(createParams("src/java/Foo.java", 5, 14));
+		assertEquals(1, locations.size());
+		assertTrue(locations.get(0).getUri().endsWith("src/java/Bar.java"));
+	}
+
+	@Test
+	public void testMaxReferences() throws Exception {
+		IFile file = project.getFile("src/java/Calls.java");
+		file.create(new ByteArrayInputStream("package java;\npublic class Calls {\n\tvoid a() { Foo.main(null); Foo.main(null); Foo.main(null); }\n}\n".getBytes()), true, null);
+		waitForBackgroundJobs();
+		assertEquals(3, handler.findReferences(createParams("src/java/Foo.java", 7, 22)).size());
+
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.references.maxResults", 2)));
+		assertEquals(2, handler.findReferences(createParams("src/java/Foo.java", 7, 22)).size());
+	}
+
+	@Test
+	public void testSearchScope() throws Exception {
+		IFile file = project.getFile("src/java/Scopes.java");
+		file.create(new ByteArrayInputStream("package java;\npublic class Scopes {\n\tprivate int secret;\n\tint shared;\n\tpublic int open;\n\tinterface I { int CONSTANT = 0; }\n}\n".getBytes()), true, null);
+		IType type = JDTUtils.resolveCompilationUnit(file.getRawLocationURI()).getType("Scopes");
+		ICompilationUnit foo = JDTUtils.resolveCompilationUnit(project.getFile("src/java/Foo.java").getRawLocationURI());
+		ICompilationUnit noPackage = JDTUtils.resolveCompilationUnit(project.getFile("src/NoPackage.java").getRawLocationURI());
+
+		IJavaSearchScope scope = handler.createSearchScope(type.getField("secret"));
+		assertTrue(scope.encloses(type));
+		assertFalse(scope.encloses(foo));
+
+		scope = handler.createSearchScope(type.getField("shared"));
+		assertTrue(scope.encloses(foo));
+		assertFalse(scope.encloses(noPackage));
+
+		scope = handler.createSearchScope(type.getField("open"));
+		assertTrue(scope.encloses(noPackage));
+
+		// interface members are implicitly public, I being package-private does not narrow the scope
+		scope = handler.createSearchScope(type.getType("I").getField("CONSTANT"));
+		assertTrue(scope.encloses(foo));
+		assertTrue(scope.encloses(noPackage));
+	}
+
+	@Test
+	public void testFindReferencesThroughPublicSubclass() throws Exception {
+		project.getFile("src/java/Base.java").create(new ByteArrayInputStream("package java;\nabstract class Base {\n\tpublic void run() {}\n}\n".getBytes()), true, null);
+		project.getFile("src/java/Impl.java").create(new ByteArrayInputStream("package java;\npublic class Impl extends Base {\n}\n".getBytes()), true, null);
+		project.getFolder("src/other").create(true, true, null);
+		project.getFile("src/other/Caller.java").create(new ByteArrayInputStream("package other;\npublic class Caller {\n\tvoid call() { new java.Impl().run(); }\n}\n".getBytes()), true, null);
+		waitForBackgroundJobs();
+
+		List<Location> locations = handler.findReferences(createParams("src/java/Base.java", 2, 14));
+		assertEquals(1, locations.size());
+		assertTrue(locations.get(0).getUri().endsWith("src/other/Caller.java"));
+	}
+
+	private ReferenceParams createParams(String file, int line, int character) {
+		ReferenceParams params = new ReferenceParams();
+		params.setTextDocument(new TextDocumentIdentifier(ResourceUtils.fixURI(project.getFile(file).getRawLocationURI())));
+		params.setPosition(new Position(line, character));
+		ReferenceContext context = new ReferenceContext();
+		context.setIncludeDeclaration(false);
+		params.setContext(context);
+		return params;
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.jboss.tools.vscode.java.internal.managers.ProjectsManager.CHANGE_TYPE;
+import org.junit.Test;
+
+public class WorkspaceEventsHandlerTest {
+
+	private WorkspaceEventsHandler handler = new WorkspaceEventsHandler(null, null);
+
+	@Test
+	public void testCollapse() {
+		Map<String, CHANGE_TYPE> changes = handler.collapse(Arrays.asList(
+				event("file:///a", FileChangeType.Created),
+				event("file:///b", FileChangeType.Changed),
+				event("file:///a", FileChangeType.Changed),
+				event("file:///c", FileChangeType.Created),
+				event("file:///d", FileChangeType.Deleted),
+				event("file:///c", FileChangeType.Deleted),
+				event("file:///d", FileChangeType.Created),
+				event("file:///b", FileChangeType.Deleted)));
+		Map<String, CHANGE_TYPE> expected = new LinkedHashMap<>();
+		expected.put("file:///a", CHANGE_TYPE.CREATED);
+		expected.put("file:///b", CHANGE_TYPE.DELETED);
+		expected.put("file:///d", CHANGE_TYPE.CHANGED);
+		assertEquals(expected, changes);
+	}
+
+	private static FileEvent event(String uri, FileChangeType type) {
+		FileEvent event = new FileEvent();
+		event.setUri(uri);
+		event.setType(type);
+		return event;
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.handlers;
+
+import static org.jboss.tools.vscode.java.internal.handlers.WorkspaceSymbolHandler.score;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class WorkspaceSymbolHandlerTest {
+
+	@Test
+	public void testScore() {
+		assertEquals(WorkspaceSymbolHandler.EXACT_MATCH, score("HashMap", "HashMap"));
+		assertEquals(WorkspaceSymbolHandler.EXACT_MATCH_IGNORE_CASE, score("hashmap", "HashMap"));
+		assertEquals(WorkspaceSymbolHandler.PREFIX_MATCH, score("Hash", "HashMap"));
+		assertEquals(WorkspaceSymbolHandler.PREFIX_MATCH_IGNORE_CASE, score("hash", "HashMap"));
+		assertEquals(WorkspaceSymbolHandler.CAMEL_CASE_MATCH, score("HM", "HashMap"));
+		assertEquals(-1, score("Tree", "HashMap"));
+	}
+
+	@Test
+	public void testRanking() {
+		assertTrue(score("HashMap", "HashMap") > score("Hash", "HashMap"));
+		assertTrue(score("Hash", "HashMap") > score("HM", "HashMap"));
+		assertTrue(score("hash", "HashMap") > score("HM", "HashMap"));
+	}
+}
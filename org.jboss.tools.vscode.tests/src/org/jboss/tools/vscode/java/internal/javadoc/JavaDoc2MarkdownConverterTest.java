@@ -175,6 +175,32 @@ public class JavaDoc2MarkdownConverterTest {
 		assertEquals(Util.convertToIndependentLineDelimiter(MARKDOWN_0), Util.convertToIndependentLineDelimiter(result));
 	}
 
+	@Test
+	public void testCodeAndPreformattedText() throws IOException {
+		String javadoc = "Calls {@code foo(a, b)} on the {@link java.util.List#add(Object) list}:\n" +
+				"<pre>\n" +
+				"  list.add(&quot;a*b&quot;);\n" +
+				"</pre>\n";
+		String expected = "Calls `foo(a, b)` on the `list`:\n" +
+				"\n" +
+				"      list.add(\"a*b\");";
+		String result = new JavaDoc2MarkdownConverter(javadoc).getAsString();
+		assertEquals(expected, Util.convertToIndependentLineDelimiter(result));
+	}
+
+	@Test
+	public void testBlockTagsStartLines() throws IOException {
+		String javadoc = "Mail me @home about MAX_VALUE and *stars*.\n" +
+				" @return the value\n";
+		String expected = "Mail me @home about MAX\\_VALUE and \\*stars\\*.\n" +
+				"\n" +
+				" *  **Returns:**\n" +
+				"    \n" +
+				"     *  the value";
+		String result = new JavaDoc2MarkdownConverter(javadoc).getAsString();
+		assertEquals(expected, Util.convertToIndependentLineDelimiter(result));
+	}
+
 	@Test
 	public void testGetAsReader() throws IOException {
 		JavaDoc2MarkdownConverter converter = new JavaDoc2MarkdownConverter(RAW_JAVADOC_0);
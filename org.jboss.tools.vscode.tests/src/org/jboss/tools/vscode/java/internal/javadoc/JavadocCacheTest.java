@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.javadoc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
+import org.jboss.tools.vscode.java.internal.managers.AbstractProjectsManagerBasedTest;
+import org.jboss.tools.vscode.java.internal.preferences.PreferenceManager;
+import org.jboss.tools.vscode.java.internal.preferences.Preferences;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JavadocCacheTest extends AbstractProjectsManagerBasedTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private IJavaProject javaProject;
+	private PreferenceManager preferenceManager;
+	private JavadocCache cache;
+	private AtomicInteger renders;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		IProject project = WorkspaceHelper.getProject("hello");
+		javaProject = JavaCore.create(project);
+		preferenceManager = new PreferenceManager();
+		preferenceManager.update(Preferences.createFrom(Collections.singletonMap("java.javadoc.cacheOnDisk", true)));
+		cache = new JavadocCache(preferenceManager, folder.getRoot());
+		renders = new AtomicInteger();
+	}
+
+	@After
+	public void tearDown() {
+		cache.dispose();
+	}
+
+	@Test
+	public void testCachedUntilSourceChanges() throws Exception {
+		IType foo = javaProject.findType("java.Foo");
+		assertEquals("This is foo", read(cache.getContent(foo, "", () -> render("This is foo"))));
+		assertEquals("This is foo", read(cache.getContent(foo, "", () -> render("This is foo"))));
+		assertEquals(1, renders.get());
+		// the options are part of the key
+		assertNull(cache.getContent(foo, "i", () -> render(null)));
+		assertNull(cache.getContent(foo, "i", () -> render(null)));
+		assertEquals(2, renders.get());
+
+		ICompilationUnit unit = foo.getCompilationUnit();
+		unit.becomeWorkingCopy(monitor);
+		try {
+			unit.getBuffer().replace(0, 0, "\n");
+			unit.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			assertEquals("This is foo", read(cache.getContent(foo, "", () -> render("This is foo"))));
+			assertEquals(3, renders.get());
+		} finally {
+			unit.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testDiskEntries() throws Exception {
+		IType object = javaProject.findType("java.lang.Object");
+		assertEquals("root", read(cache.getContent(object, "", () -> render("root"))));
+		assertEquals(1, renders.get());
+		assertEquals(1, folder.getRoot().list().length);
+
+		// a new cache reads the entry written by the first one
+		JavadocCache other = new JavadocCache(preferenceManager, folder.getRoot());
+		try {
+			assertEquals("root", read(other.getContent(object, "", () -> render("root"))));
+			assertEquals(1, renders.get());
+		} finally {
+			other.dispose();
+		}
+	}
+
+	private Reader render(String content) {
+		renders.incrementAndGet();
+		return content == null ? null : new StringReader(content);
+	}
+
+	private static String read(Reader reader) throws IOException {
+		StringBuilder buf = new StringBuilder();
+		int c;
+		while ((c = reader.read()) != -1) {
+			buf.append((char) c);
+		}
+		return buf.toString();
+	}
+}
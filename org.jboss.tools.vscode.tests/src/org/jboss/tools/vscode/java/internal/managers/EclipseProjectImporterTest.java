@@ -13,14 +13,17 @@ package org.jboss.tools.vscode.java.internal.managers;
 import static org.jboss.tools.vscode.java.internal.WorkspaceHelper.getProject;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -55,6 +58,18 @@ public class EclipseProjectImporterTest extends AbstractProjectsManagerBasedTest
 		assertIsJavaProject(foo);
 	}
 
+	@Test
+	public void reimportMultipleJavaProject() throws Exception {
+		importProjects("eclipse/multi");
+		File root = new File(getWorkingProjectDirectory(), "eclipse/multi");
+		projectsManager.initializeProjects(root.getAbsolutePath(), monitor);
+		waitForBackgroundJobs();
+		List<IProject> projects = WorkspaceHelper.getAllProjects();
+		assertEquals(3, projects.size());
+		assertTrue(getProject("foo").isOpen());
+		assertTrue(getProject("bar").isOpen());
+	}
+
 
 
 	@Test
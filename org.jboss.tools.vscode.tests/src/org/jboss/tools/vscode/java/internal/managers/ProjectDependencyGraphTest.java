@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.Test;
+
+public class ProjectDependencyGraphTest {
+
+	@Test
+	public void testAffectedProjects() {
+		IProject parent = mock(IProject.class);
+		IProject core = mock(IProject.class);
+		IProject web = mock(IProject.class);
+		IProject other = mock(IProject.class);
+		ProjectDependencyGraph graph = new ProjectDependencyGraph();
+		graph.addDependency(core, parent);
+		graph.addDependency(web, parent);
+		graph.addDependency(web, core);
+		graph.addDependency(other, other);
+
+		assertEquals(new LinkedHashSet<>(Arrays.asList(parent, core, web)), graph.getAffectedProjects(Collections.singleton(parent)));
+		assertEquals(new LinkedHashSet<>(Arrays.asList(core, web)), graph.getAffectedProjects(Collections.singleton(core)));
+		assertEquals(Collections.singleton(other), graph.getAffectedProjects(Collections.singleton(other)));
+	}
+
+	@Test
+	public void testCycle() {
+		IProject a = mock(IProject.class);
+		IProject b = mock(IProject.class);
+		ProjectDependencyGraph graph = new ProjectDependencyGraph();
+		graph.addDependency(a, b);
+		graph.addDependency(b, a);
+		assertEquals(new LinkedHashSet<>(Arrays.asList(a, b)), graph.getAffectedProjects(Collections.singleton(a)));
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.tools.vscode.java.internal.managers.ProjectDiscovery.Marker;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectDiscoveryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File root;
+
+	@Before
+	public void setUp() throws Exception {
+		root = folder.getRoot();
+		touch("pom.xml");
+		touch("module/pom.xml");
+		touch("module/.project");
+		touch("module/target/classes/pom.xml");
+		touch("web/node_modules/lib/.project");
+		touch("other/build.gradle");
+		touch("other/.project");
+		touch("docs/sample/pom.xml");
+	}
+
+	@Test
+	public void testFindsAllMarkers() throws Exception {
+		ProjectDiscovery discovery = new ProjectDiscovery(root).scan(null);
+		assertEquals(files("docs/sample/pom.xml", "module/pom.xml", "pom.xml"), discovery.getFiles(Marker.MAVEN));
+		assertEquals(files("module/.project", "other/.project"), discovery.getFiles(Marker.ECLIPSE));
+		assertEquals(files("other/build.gradle"), discovery.getFiles(Marker.GRADLE));
+	}
+
+	@Test
+	public void testRootFiles() throws Exception {
+		ProjectDiscovery discovery = new ProjectDiscovery(root).scan(null);
+		assertEquals(files("pom.xml"), discovery.getRootFiles(Marker.MAVEN));
+		assertEquals(files("module/.project", "other/.project"), discovery.getRootFiles(Marker.ECLIPSE));
+	}
+
+	@Test
+	public void testMixedWorkspace() throws Exception {
+		touch("gradle/build.gradle");
+		touch("gradle/.project");
+		touch("gradle/sub/pom.xml");
+		ProjectDiscovery discovery = new ProjectDiscovery(root).scan(null);
+		assertEquals(files("gradle/build.gradle", "other/build.gradle"), discovery.getProjectFiles(Marker.GRADLE));
+		assertEquals(files("pom.xml"), discovery.getProjectFiles(Marker.MAVEN));
+		assertEquals(files(), discovery.getProjectFiles(Marker.ECLIPSE));
+
+		touch("plain/.project");
+		discovery = new ProjectDiscovery(new File(root, "plain")).scan(null);
+		assertEquals(Arrays.asList(new File(root, "plain/.project")), discovery.getProjectFiles(Marker.ECLIPSE));
+	}
+
+	@Test
+	public void testExclusions() throws Exception {
+		List<String> exclusions = new ArrayList<>(ProjectDiscovery.DEFAULT_EXCLUSIONS);
+		exclusions.add("docs/**");
+		ProjectDiscovery discovery = new ProjectDiscovery(root, exclusions).scan(null);
+		assertEquals(files("module/pom.xml", "pom.xml"), discovery.getFiles(Marker.MAVEN));
+
+		discovery = new ProjectDiscovery(root, Arrays.asList()).scan(null);
+		assertEquals(files("module/.project", "other/.project", "web/node_modules/lib/.project"), discovery.getFiles(Marker.ECLIPSE));
+	}
+
+	@Test
+	public void testBuildFiles() throws Exception {
+		touch("module/.classpath");
+		touch("module/.settings/org.eclipse.jdt.core.prefs");
+		touch("module/src/Foo.java");
+		touch("other/settings.gradle");
+		ProjectDiscovery discovery = new ProjectDiscovery(root).scan(null);
+		assertEquals(files("docs/sample/pom.xml", "module/.classpath", "module/.project", "module/.settings/org.eclipse.jdt.core.prefs",
+				"module/pom.xml", "other/.project", "other/build.gradle", "other/settings.gradle", "pom.xml"), discovery.getBuildFiles());
+	}
+
+	@Test
+	public void testSymbolicLinkLoop() throws Exception {
+		try {
+			Files.createSymbolicLink(new File(root, "module/loop").toPath(), root.toPath());
+		} catch (IOException | UnsupportedOperationException e) {
+			Assume.assumeNoException(e);
+		}
+		ProjectDiscovery discovery = new ProjectDiscovery(root).scan(null);
+		assertEquals(files("module/.project", "other/.project"), discovery.getFiles(Marker.ECLIPSE));
+	}
+
+	private void touch(String path) throws IOException {
+		File file = new File(root, path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+	private List<File> files(String... paths) {
+		List<File> files = new ArrayList<>();
+		for (String path : paths) {
+			files.add(new File(root, path));
+		}
+		return files;
+	}
+}
@@ -15,8 +15,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.util.List;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
 import org.jboss.tools.vscode.java.internal.WorkspaceHelper;
 import org.junit.Test;
@@ -39,4 +41,15 @@ public class ProjectsManagerTest extends AbstractProjectsManagerBasedTest {
 		assertTrue("the default project doesn't exist", result.exists());
 	}
 
+	@Test
+	public void testImportMixedWorkspace() throws Exception {
+		File root = new File(getWorkingProjectDirectory(), "mixed");
+		FileUtils.copyDirectory(new File(getSourceProjectDirectory(), "eclipse/hello"), new File(root, "hello"));
+		FileUtils.copyDirectory(new File(getSourceProjectDirectory(), "maven/salut"), new File(root, "salut"));
+		projectsManager.initializeProjects(root.getAbsolutePath(), monitor);
+		waitForBackgroundJobs();
+		assertIsJavaProject(WorkspaceHelper.getProject("hello"));
+		assertIsJavaProject(WorkspaceHelper.getProject("salut"));
+	}
+
 }
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.jboss.tools.vscode.java.internal.managers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkspaceSnapshotTest extends AbstractProjectsManagerBasedTest {
+
+	private WorkspaceSnapshot snapshot;
+
+	@Before
+	public void setUp() throws Exception {
+		snapshot = new WorkspaceSnapshot(new File(getWorkingProjectDirectory(), WorkspaceSnapshot.FILE_NAME));
+	}
+
+	@Test
+	public void testUpToDate() throws Exception {
+		importProjects("maven/salut");
+		File root = new File(getWorkingProjectDirectory(), "maven/salut");
+		assertFalse(snapshot.isUpToDate(projectsManager.createDiscovery(root), monitor));
+		snapshot.save(projectsManager.createDiscovery(root), monitor);
+		assertTrue(snapshot.isUpToDate(projectsManager.createDiscovery(root), monitor));
+		assertFalse(snapshot.isUpToDate(projectsManager.createDiscovery(new File(getWorkingProjectDirectory(), "maven")), monitor));
+	}
+
+	@Test
+	public void testExclusionsChanged() throws Exception {
+		importProjects("maven/salut");
+		File root = new File(getWorkingProjectDirectory(), "maven/salut");
+		snapshot.save(projectsManager.createDiscovery(root), monitor);
+		List<String> exclusions = new ArrayList<>(ProjectDiscovery.DEFAULT_EXCLUSIONS);
+		exclusions.add("docs/**");
+		assertFalse(snapshot.isUpToDate(new ProjectDiscovery(root, exclusions), monitor));
+	}
+
+	@Test
+	public void testBuildFileChanged() throws Exception {
+		importProjects("maven/salut");
+		File root = new File(getWorkingProjectDirectory(), "maven/salut");
+		snapshot.save(projectsManager.createDiscovery(root), monitor);
+		File pom = new File(root, "pom.xml");
+		FileUtils.writeStringToFile(pom, FileUtils.readFileToString(pom, StandardCharsets.UTF_8) + "\n", StandardCharsets.UTF_8);
+		assertFalse(snapshot.isUpToDate(projectsManager.createDiscovery(root), monitor));
+	}
+
+	@Test
+	public void testSourceChangeKeepsSnapshot() throws Exception {
+		importProjects("maven/salut");
+		File root = new File(getWorkingProjectDirectory(), "maven/salut");
+		snapshot.save(projectsManager.createDiscovery(root), monitor);
+		FileUtils.writeStringToFile(new File(root, "src/main/java/Foo.java"), "public class Foo {}", StandardCharsets.UTF_8);
+		assertTrue(snapshot.isUpToDate(projectsManager.createDiscovery(root), monitor));
+		snapshot.invalidate();
+		assertFalse(snapshot.isUpToDate(projectsManager.createDiscovery(root), monitor));
+	}
+}